@@ -50,25 +50,71 @@ public interface BlockAccess {
     @NotNull
     Collection<Location> getPositions(Material material);
 
+    /**
+     * Gets the positions of all blocks with the given state in the loaded chunks, packed using {@link Location#toLong(int, int, int)}.
+     */
+    @NotNull
+    long[] getPackedPositions(int state);
+
+    @NotNull
+    long[] getPackedPositions(int[] states);
+
+    @NotNull
+    long[] getPackedPositions(Material material);
+
     int getBlockState(@NotNull Location pos);
 
+    int getBlockState(int x, int y, int z);
+
+    int getBlockState(long packedPos);
+
     @NotNull
     Material getMaterial(@NotNull Location pos);
 
+    @NotNull
+    Material getMaterial(int x, int y, int z);
+
+    @NotNull
+    Material getMaterial(long packedPos);
+
     boolean isAirBlock(@NotNull Location pos);
 
+    boolean isAirBlock(int x, int y, int z);
+
+    boolean isAirBlock(long packedPos);
+
     boolean isWaterBlock(@NotNull Location pos);
 
+    boolean isWaterBlock(int x, int y, int z);
+
+    boolean isWaterBlock(long packedPos);
+
     boolean canSeeSky(@NotNull Location pos);
 
+    boolean canSeeSky(int x, int y, int z);
+
+    boolean canSeeSky(long packedPos);
+
     void setMaterial(@NotNull Location pos, @Nullable Material material);
 
+    void setMaterial(int x, int y, int z, @Nullable Material material);
+
+    void setMaterial(long packedPos, @Nullable Material material);
+
     void setBlockState(@NotNull Location pos, int blockState);
 
+    void setBlockState(int x, int y, int z, int blockState);
+
+    void setBlockState(long packedPos, int blockState);
+
     BlockStateRegistry getBlockStateRegistry();
 
     int getDimension();
 
     Component[] getSignLines(@NotNull Location pos);
 
+    Component[] getSignLines(int x, int y, int z);
+
+    Component[] getSignLines(long packedPos);
+
 }
@@ -38,6 +38,8 @@ public interface BlockStateRegistry {
 
     int getDefaultBlockState(@Nullable Material material);
 
+    int getDefaultBlockState(int blockStateId);
+
     @NotNull
     BlockState getExactDefaultBlockState(@Nullable Material material);
 
@@ -49,4 +51,10 @@ public interface BlockStateRegistry {
 
     boolean isMaterial(int blockStateId, @NotNull Material material);
 
+    boolean isSolid(int blockStateId);
+
+    boolean isOpaque(int blockStateId);
+
+    boolean hasCollision(int blockStateId);
+
 }
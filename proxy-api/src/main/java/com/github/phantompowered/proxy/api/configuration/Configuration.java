@@ -26,8 +26,11 @@ package com.github.phantompowered.proxy.api.configuration;
 
 import com.github.phantompowered.proxy.api.network.NetworkAddress;
 import com.github.phantompowered.proxy.api.ping.ServerPing;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
+import java.util.Collection;
+
 public interface Configuration {
 
     void load();
@@ -60,4 +63,30 @@ public interface Configuration {
 
     void setCompressionThreshold(@Range(from = 0, to = 256) int threshold);
 
+    // limits for connecting the stored accounts on startup, configurable per host of the target server
+    int getMaxConcurrentLogins(@NotNull String host);
+
+    double getLoginsPerSecond(@NotNull String host);
+
+    // whether incoming connections are rate limited at all
+    boolean isConnectionLimitEnabled();
+
+    // whether loopback, site-local and link-local addresses (e.g. a frontend on the same host or network) bypass the connection limits
+    boolean isExemptLocalAddresses();
+
+    // whether incoming connections start with a haproxy PROXY header which contains the real address of the client
+    boolean isProxyProtocol();
+
+    // limits for incoming connections per address and per subnet (/24 for ipv4, /64 for ipv6)
+    double getConnectionsPerSecond(boolean subnet);
+
+    int getConnectionBurst(boolean subnet);
+
+    // limit for incoming frames per connection, connections exceeding it are closed
+    double getPacketsPerSecond();
+
+    // SOCKS5 proxies the connections to the servers are distributed over, empty to connect directly
+    @NotNull
+    Collection<NetworkAddress> getSocksProxies();
+
 }
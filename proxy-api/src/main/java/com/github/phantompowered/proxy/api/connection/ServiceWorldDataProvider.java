@@ -69,6 +69,12 @@ public interface ServiceWorldDataProvider {
 
     Entity getEntityInWorld(int entityId);
 
+    @Nullable
+    Entity getEntityAt(double x, double y, double z);
+
+    @NotNull
+    Collection<Entity> getNearbyEntities(double x, double y, double z, double maxDistance, @Nullable Predicate<Entity> tester);
+
     @NotNull
     Collection<Entity> getNearbyEntities(double maxDistance, @Nullable Predicate<Entity> tester);
 
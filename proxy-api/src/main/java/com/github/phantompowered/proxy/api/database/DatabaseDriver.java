@@ -24,6 +24,7 @@
  */
 package com.github.phantompowered.proxy.api.database;
 
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
 import com.github.phantompowered.proxy.api.database.config.DatabaseConfig;
 import com.github.phantompowered.proxy.api.database.object.DatabaseObject;
 import com.github.phantompowered.proxy.api.database.object.DatabaseObjectToken;
@@ -33,6 +34,7 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -82,6 +84,32 @@ public interface DatabaseDriver extends AutoCloseable {
      */
     void update(@NotNull DatabaseObject object);
 
+    /**
+     * Inserts an object into the database or updates it if an object with the same key exists already.
+     *
+     * @param object The object which should get inserted or updated
+     */
+    default void insertOrUpdate(@NotNull DatabaseObject object) {
+        if (this.get(DatabaseObjectToken.newToken(bytes -> bytes, object.getKey(), object.getTable())) != null) {
+            this.update(object);
+        } else {
+            this.insert(object);
+        }
+    }
+
+    /**
+     * Inserts or updates multiple objects at once.
+     *
+     * @param objects The objects which should get inserted or updated
+     * @return {@code false} if the objects could not be written, drivers which can't tell always return {@code true}
+     */
+    default boolean insertOrUpdate(@NotNull Collection<? extends DatabaseObject> objects) {
+        for (DatabaseObject object : objects) {
+            this.insertOrUpdate(object);
+        }
+        return true;
+    }
+
     /**
      * Gets an object from the database.
      *
@@ -121,7 +149,7 @@ public interface DatabaseDriver extends AutoCloseable {
 
     @NotNull
     default <T> Collection<T> getAll(@NotNull String table, @NotNull Type type) {
-        return this.getAll(table, bytes -> DatabaseObjectToken.GSON.get().fromJson(new String(bytes), type));
+        return this.getAll(table, bytes -> DatabaseCodecs.decode(bytes, type));
     }
 
     /**
@@ -142,6 +170,28 @@ public interface DatabaseDriver extends AutoCloseable {
      */
     void deleteFromTable(@NotNull String table, @NotNull String key);
 
+    /**
+     * Iterates over all keys and their raw values in the specified table.
+     *
+     * @param table   The table name in which the entries are
+     * @param handler The handler which will be called with the key and the raw value of every entry
+     */
+    void forEachEntryInTable(@NotNull String table, @NotNull BiConsumer<String, byte[]> handler);
+
+    /**
+     * Deletes multiple objects from the database at once.
+     *
+     * @param table The table name from which the objects should get deleted
+     * @param keys  The keys of the objects which should get deleted
+     * @return {@code false} if the objects could not be deleted, drivers which can't tell always return {@code true}
+     */
+    default boolean deleteFromTable(@NotNull String table, @NotNull Collection<String> keys) {
+        for (String key : keys) {
+            this.deleteFromTable(table, key);
+        }
+        return true;
+    }
+
     /**
      * Closes the current connection to the database.
      */
@@ -24,19 +24,39 @@
  */
 package com.github.phantompowered.proxy.api.database;
 
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodec;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
+import com.github.phantompowered.proxy.api.database.object.DatabaseObject;
 import com.github.phantompowered.proxy.api.database.object.DatabaseObjectToken;
 import com.github.phantompowered.proxy.api.database.object.DefaultDatabaseObject;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseProvidedStorage<T> {
 
     protected final ServiceRegistry registry;
     private final String table;
+    private static final Collection<DatabaseProvidedStorage<?>> CACHED_STORAGES = new CopyOnWriteArrayList<>();
+
     private final Type type;
+    private Cache<String, Optional<T>> cache;
 
     public DatabaseProvidedStorage(ServiceRegistry registry, String table, Type type) {
         this.registry = registry;
@@ -45,8 +65,73 @@ public class DatabaseProvidedStorage<T> {
         this.registry.getProviderUnchecked(DatabaseDriver.class).createTable(table);
     }
 
+    public DatabaseProvidedStorage(ServiceRegistry registry, String table, Class<T> type, DatabaseCodec<T> codec) {
+        this(registry, table, type);
+        DatabaseCodecs.register(type, codec);
+        this.migrateLegacyValues();
+    }
+
+    public static @NotNull Collection<DatabaseProvidedStorage<?>> getCachedStorages() {
+        return Collections.unmodifiableCollection(CACHED_STORAGES);
+    }
+
+    /**
+     * Enables a read-through cache for this storage, writes through this storage update the cache.
+     *
+     * @param maximumSize the maximum amount of cached keys, including keys which are not in the database
+     * @param expireAfter the time after the last access after which a key is removed from the cache
+     * @param unit        the unit of {@code expireAfter}
+     */
+    protected void enableCache(long maximumSize, long expireAfter, @NotNull TimeUnit unit) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfter, unit)
+                .concurrencyLevel(4)
+                .recordStats()
+                .build();
+        CACHED_STORAGES.add(this);
+    }
+
+    public @Nullable CacheStats getCacheStats() {
+        return this.cache != null ? this.cache.stats() : null;
+    }
+
+    public long getCacheSize() {
+        return this.cache != null ? this.cache.size() : 0;
+    }
+
+    public @NotNull String getTable() {
+        return this.table;
+    }
+
+    private void cache(String key, @Nullable T value) {
+        if (this.cache != null) {
+            this.cache.put(key, Optional.ofNullable(value));
+        }
+    }
+
+    private void migrateLegacyValues() {
+        Map<String, T> legacy = new HashMap<>();
+        this.registry.getProviderUnchecked(DatabaseDriver.class).forEachEntryInTable(this.table, (key, bytes) -> {
+            if (DatabaseCodecs.isLegacy(bytes)) {
+                try {
+                    legacy.put(key, DatabaseCodecs.decode(bytes, this.type));
+                } catch (RuntimeException exception) {
+                    System.err.println("Unable to migrate entry " + key + " in " + this.table);
+                    exception.printStackTrace();
+                }
+            }
+        });
+
+        if (!legacy.isEmpty()) {
+            this.insertOrUpdateAll(legacy);
+            System.out.println("Migrated " + legacy.size() + " json entries in " + this.table + " to the binary format");
+        }
+    }
+
     protected void delete(String key) {
         this.registry.getProviderUnchecked(DatabaseDriver.class).deleteFromTable(this.table, key);
+        this.cache(key, null);
     }
 
     protected @NotNull Collection<T> getAll() {
@@ -54,15 +139,30 @@ public class DatabaseProvidedStorage<T> {
     }
 
     protected T get(String key) {
+        if (this.cache == null) {
+            return this.load(key);
+        }
+
+        try {
+            return this.cache.get(key, () -> Optional.ofNullable(this.load(key))).orElse(null);
+        } catch (ExecutionException | UncheckedExecutionException exception) {
+            Throwables.throwIfUnchecked(exception.getCause());
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private T load(String key) {
         return this.registry.getProviderUnchecked(DatabaseDriver.class).get(DatabaseObjectToken.newToken(key, this.table, this.type));
     }
 
     protected void insert(String key, T value) {
         this.registry.getProviderUnchecked(DatabaseDriver.class).insert(new DefaultDatabaseObject(key, this.table, value));
+        this.cache(key, value);
     }
 
     protected void update(String key, T value) {
         this.registry.getProviderUnchecked(DatabaseDriver.class).update(new DefaultDatabaseObject(key, this.table, value));
+        this.cache(key, value);
     }
 
     protected long size() {
@@ -70,10 +170,26 @@ public class DatabaseProvidedStorage<T> {
     }
 
     protected void insertOrUpdate(String key, T value) {
-        if (this.get(key) != null) {
-            this.update(key, value);
-        } else {
-            this.insert(key, value);
+        this.registry.getProviderUnchecked(DatabaseDriver.class).insertOrUpdate(new DefaultDatabaseObject(key, this.table, value));
+        this.cache(key, value);
+    }
+
+    protected void insertOrUpdateAll(Map<String, T> values) {
+        Collection<DatabaseObject> objects = new ArrayList<>(values.size());
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            objects.add(new DefaultDatabaseObject(entry.getKey(), this.table, entry.getValue()));
+        }
+
+        this.registry.getProviderUnchecked(DatabaseDriver.class).insertOrUpdate(objects);
+        if (this.cache != null) {
+            values.forEach(this::cache);
+        }
+    }
+
+    protected void deleteAll(Collection<String> keys) {
+        this.registry.getProviderUnchecked(DatabaseDriver.class).deleteFromTable(this.table, keys);
+        if (this.cache != null) {
+            keys.forEach(key -> this.cache(key, null));
         }
     }
 
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.api.database.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface DatabaseCodec<T> {
+
+    /**
+     * Gets the current version of the binary format written by this codec. The version is stored with every
+     * value so that {@link #read(DataInput, int)} is still able to read values written by older versions.
+     *
+     * @return the current version of this codec
+     */
+    int getVersion();
+
+    /**
+     * Writes the given value into the output.
+     *
+     * @param output the output to write the value to
+     * @param value  the value to write
+     * @throws IOException if an I/O error occurs
+     */
+    void write(@NotNull DataOutput output, @NotNull T value) throws IOException;
+
+    /**
+     * Reads a value which was written by {@link #write(DataOutput, Object)}.
+     *
+     * @param input   the input to read the value from
+     * @param version the version of this codec the value was written with
+     * @return the value read from the input
+     * @throws IOException if an I/O error occurs
+     */
+    @NotNull
+    T read(@NotNull DataInput input, int version) throws IOException;
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.api.database.codec;
+
+import com.github.phantompowered.proxy.api.database.object.DatabaseObjectToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class DatabaseCodecs {
+
+    // never the first byte of a json document (or of valid utf-8 at all), so old rows are still detected as json
+    private static final byte MAGIC = (byte) 0xC1;
+
+    private static final Map<Type, DatabaseCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    private DatabaseCodecs() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static <T> void register(@NotNull Class<T> type, @NotNull DatabaseCodec<T> codec) {
+        CODECS.put(type, codec);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> @Nullable DatabaseCodec<T> getCodec(@NotNull Type type) {
+        return (DatabaseCodec<T>) CODECS.get(type);
+    }
+
+    public static boolean isLegacy(@NotNull byte[] bytes) {
+        return bytes.length == 0 || bytes[0] != MAGIC;
+    }
+
+    @NotNull
+    public static byte[] encode(@NotNull Object value) throws IOException {
+        DatabaseCodec<Object> codec = getCodec(value.getClass());
+        if (codec == null) {
+            return DatabaseObjectToken.GSON.get().toJson(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(64);
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeByte(MAGIC);
+        output.writeByte(codec.getVersion());
+        codec.write(output, value);
+        return stream.toByteArray();
+    }
+
+    public static <T> T decode(@NotNull byte[] bytes, @NotNull Type type) {
+        if (isLegacy(bytes)) {
+            return DatabaseObjectToken.GSON.get().fromJson(new String(bytes, StandardCharsets.UTF_8), type);
+        }
+
+        DatabaseCodec<T> codec = getCodec(type);
+        if (codec == null) {
+            throw new IllegalStateException("No database codec registered for " + type.getTypeName());
+        }
+
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            return codec.read(input, input.readUnsignedByte());
+        } catch (IOException exception) {
+            throw new IllegalStateException("Unable to decode database value of type " + type.getTypeName(), exception);
+        }
+    }
+
+    public static void writeString(@NotNull DataOutput output, @Nullable String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    public static @Nullable String readString(@NotNull DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeUniqueId(@NotNull DataOutput output, @NotNull UUID uniqueId) throws IOException {
+        output.writeLong(uniqueId.getMostSignificantBits());
+        output.writeLong(uniqueId.getLeastSignificantBits());
+    }
+
+    public static @NotNull UUID readUniqueId(@NotNull DataInput input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+}
@@ -24,6 +24,7 @@
  */
 package com.github.phantompowered.proxy.api.database.object;
 
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
 import com.google.gson.Gson;
 import org.jetbrains.annotations.NotNull;
 
@@ -59,7 +60,7 @@ public abstract class DatabaseObjectToken<T> {
 
     @NotNull
     public static <T> DatabaseObjectToken<T> newToken(@NotNull String key, @NotNull String table, @NotNull Type type) {
-        return newToken(bytes -> GSON.get().fromJson(new String(bytes), type), key, table);
+        return newToken(bytes -> DatabaseCodecs.decode(bytes, type), key, table);
     }
 
     @NotNull
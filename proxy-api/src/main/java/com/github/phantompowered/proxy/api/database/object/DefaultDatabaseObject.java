@@ -24,15 +24,13 @@
  */
 package com.github.phantompowered.proxy.api.database.object;
 
-import com.google.gson.Gson;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 
 public class DefaultDatabaseObject implements DatabaseObject {
 
-    private static final ThreadLocal<Gson> GSON = ThreadLocal.withInitial(() -> new Gson());
-
     private final String key;
     private final String table;
     private final Object object;
@@ -55,6 +53,6 @@ public class DefaultDatabaseObject implements DatabaseObject {
 
     @Override
     public @NotNull byte[] serialize() throws IOException {
-        return GSON.get().toJson(this.object).getBytes();
+        return DatabaseCodecs.encode(this.object);
     }
 }
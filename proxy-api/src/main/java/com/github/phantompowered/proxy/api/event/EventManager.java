@@ -49,4 +49,13 @@ public interface EventManager {
     @NotNull Collection<ListenerContainer> getRegisteredListeners(@NotNull PluginContainer pluginContainer);
 
     @NotNull Collection<ListenerContainer> getRegisteredListeners();
+
+    default boolean hasListeners(@NotNull Class<? extends Event> event) {
+        for (ListenerContainer container : this.getRegisteredListeners()) {
+            if (container.getTargetEventClass().equals(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -67,10 +67,23 @@ public class Location {
     }
 
     public static Location fromLong(long serialized) {
-        int x = (int) (serialized << 64 - X_SHIFT - NUM_X_BITS >> 64 - NUM_X_BITS);
-        int y = (int) (serialized << 64 - Y_SHIFT - NUM_Y_BITS >> 64 - NUM_Y_BITS);
-        int z = (int) (serialized << 64 - NUM_Z_BITS >> 64 - NUM_Z_BITS);
-        return new Location(x, y, z);
+        return new Location(unpackX(serialized), unpackY(serialized), unpackZ(serialized));
+    }
+
+    public static long toLong(int x, int y, int z) {
+        return ((long) x & X_MASK) << X_SHIFT | ((long) y & Y_MASK) << Y_SHIFT | ((long) z & Z_MASK);
+    }
+
+    public static int unpackX(long serialized) {
+        return (int) (serialized << 64 - X_SHIFT - NUM_X_BITS >> 64 - NUM_X_BITS);
+    }
+
+    public static int unpackY(long serialized) {
+        return (int) (serialized << 64 - Y_SHIFT - NUM_Y_BITS >> 64 - NUM_Y_BITS);
+    }
+
+    public static int unpackZ(long serialized) {
+        return (int) (serialized << 64 - NUM_Z_BITS >> 64 - NUM_Z_BITS);
     }
 
     public int getBlockX() {
@@ -138,7 +151,7 @@ public class Location {
     }
 
     public long toLong() {
-        return ((long) this.getBlockX() & X_MASK) << X_SHIFT | ((long) this.getBlockY() & Y_MASK) << Y_SHIFT | ((long) this.getBlockZ() & Z_MASK);
+        return toLong(this.getBlockX(), this.getBlockY(), this.getBlockZ());
     }
 
     public Location up() {
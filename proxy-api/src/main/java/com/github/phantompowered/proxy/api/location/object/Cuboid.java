@@ -61,13 +61,13 @@ public class Cuboid extends MathObject {
     }
 
     @Override
-    public boolean contains(@NotNull Location location) {
-        return location.getX() > this.lowerCorner.getX()
-                && location.getY() > this.lowerCorner.getY()
-                && location.getZ() > this.lowerCorner.getZ()
-                && location.getX() < this.upperCorner.getX()
-                && location.getY() < this.upperCorner.getY()
-                && location.getZ() < this.upperCorner.getZ();
+    public boolean contains(double x, double y, double z) {
+        return x > this.lowerCorner.getX()
+                && y > this.lowerCorner.getY()
+                && z > this.lowerCorner.getZ()
+                && x < this.upperCorner.getX()
+                && y < this.upperCorner.getY()
+                && z < this.upperCorner.getZ();
     }
 
     @Override
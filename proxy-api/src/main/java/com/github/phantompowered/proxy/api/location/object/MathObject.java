@@ -98,7 +98,11 @@ public abstract class MathObject {
     @NotNull
     public abstract Location getCenter();
 
-    public abstract boolean contains(@NotNull Location location);
+    public boolean contains(@NotNull Location location) {
+        return this.contains(location.getX(), location.getY(), location.getZ());
+    }
+
+    public abstract boolean contains(double x, double y, double z);
 
     public abstract void forEachLocation(@NotNull Consumer<Location> consumer);
 
@@ -59,8 +59,12 @@ public class Sphere extends MathObject {
     }
 
     @Override
-    public boolean contains(@NotNull Location location) {
-        return this.center.distanceSquared(location) <= this.radiusSquared;
+    public boolean contains(double x, double y, double z) {
+        double dX = this.center.getX() - x;
+        double dY = this.center.getY() - y;
+        double dZ = this.center.getZ() - z;
+
+        return (dX * dX) + (dY * dY) + (dZ * dZ) <= this.radiusSquared;
     }
 
     @Override
@@ -27,8 +27,6 @@ package com.github.phantompowered.proxy.api.network;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.Objects;
 
 public class NetworkAddress {
@@ -47,6 +45,7 @@ public class NetworkAddress {
         this(host, host, port);
     }
 
+    // hosts are not resolved here, the SRV record and the address are looked up asynchronously when connecting
     @Nullable
     public static NetworkAddress parse(@NotNull String input) {
         String[] hostAndPort = input.split("@");
@@ -54,59 +53,19 @@ public class NetworkAddress {
             return null;
         }
 
-        String rawHost = hostAndPort[0];
-        int port = -1;
-
-        String host = null;
-        if (hostAndPort[0].split("\\.").length != 4) {
-            org.xbill.DNS.SRVRecord record = lookupMinecraftSRVRecord(rawHost);
-            if (record != null) {
-                host = record.getTarget().toString(true);
-                port = record.getPort();
-            } else {
-                try {
-                    host = InetAddress.getByName(rawHost).getHostAddress();
-                } catch (UnknownHostException ignored) {
-                }
-            }
-        }
-
-        if (host == null) {
-            host = rawHost;
-        }
+        String host = hostAndPort[0];
+        int port = 25565;
 
-        if (port == -1) {
-            if (hostAndPort.length == 1) {
-                port = 25565;
-            } else {
-                try {
-                    port = Integer.parseInt(hostAndPort[1]);
-                } catch (final NumberFormatException ex) {
-                    System.err.println("Wrong port " + hostAndPort[1]);
-                    return null;
-                }
-            }
-        }
-
-        return new NetworkAddress(rawHost, host, port);
-    }
-
-    private static org.xbill.DNS.SRVRecord lookupMinecraftSRVRecord(String host) {
-        try {
-            org.xbill.DNS.Record[] records = new org.xbill.DNS.Lookup("_minecraft._tcp." + host, org.xbill.DNS.Type.SRV).run();
-            if (records == null) {
+        if (hostAndPort.length > 1) {
+            try {
+                port = Integer.parseInt(hostAndPort[1]);
+            } catch (final NumberFormatException ex) {
+                System.err.println("Wrong port " + hostAndPort[1]);
                 return null;
             }
-
-            for (org.xbill.DNS.Record record : records) {
-                return (org.xbill.DNS.SRVRecord) record;
-            }
-
-            return null;
-        } catch (org.xbill.DNS.TextParseException exception) {
-            exception.printStackTrace();
-            return null;
         }
+
+        return new NetworkAddress(host, host, port);
     }
 
     public String getRawHost() {
@@ -1,5 +1,6 @@
 package com.github.phantompowered.proxy.api.player.id;
 
+import com.github.phantompowered.proxy.api.task.Task;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -13,6 +14,14 @@ public interface PlayerIdStorage {
 
     PlayerId getPlayerId(@Nullable String name, @Nullable UUID uniqueId);
 
+    // the task is completed with null if there is no player with the given name
+    @NotNull
+    Task<PlayerId> getPlayerIdAsync(@NotNull String name);
+
+    // the task is completed with null if there is no player with the given uuid
+    @NotNull
+    Task<PlayerId> getPlayerIdAsync(@NotNull UUID uniqueId);
+
     boolean isCached(@NotNull UUID uniqueId);
 
     boolean isCached(@NotNull String name);
@@ -24,9 +24,13 @@
  */
 package com.github.phantompowered.proxy.account;
 
+import com.github.phantompowered.proxy.api.APIUtil;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
 import com.github.phantompowered.proxy.api.session.ProvidedSessionService;
+import com.github.phantompowered.proxy.http.HttpResponse;
+import com.github.phantompowered.proxy.http.HttpUtil;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.mojang.authlib.Agent;
 import com.mojang.authlib.AuthenticationService;
 import com.mojang.authlib.UserAuthentication;
@@ -35,32 +39,70 @@ import com.mojang.authlib.minecraft.MinecraftSessionService;
 import com.mojang.authlib.yggdrasil.YggdrasilAuthenticationService;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.Proxy;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class BasicProvidedSessionService implements ProvidedSessionService {
 
-    private static final AuthenticationService SERVICE = new YggdrasilAuthenticationService(Proxy.NO_PROXY, UUID.randomUUID().toString());
+    public static final String AUTH_SERVER_URL = "https://authserver.mojang.com";
+
+    private static final String CLIENT_TOKEN = UUID.randomUUID().toString();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final AuthenticationService SERVICE = new YggdrasilAuthenticationService(Proxy.NO_PROXY, CLIENT_TOKEN);
+
+    // used if the expiry can't be read from the token
+    private static final long DEFAULT_TOKEN_LIFETIME = TimeUnit.HOURS.toMillis(12);
+    private static final long REFRESH_AHEAD_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long RETRY_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
     private final SessionCache cache;
+    private final String authServerUrl;
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledRefreshes = new ConcurrentHashMap<>();
 
     public BasicProvidedSessionService(ServiceRegistry registry) {
+        this(registry, AUTH_SERVER_URL);
+    }
+
+    public BasicProvidedSessionService(ServiceRegistry registry, String authServerUrl) {
         this.cache = new SessionCache(registry);
+        this.authServerUrl = authServerUrl;
     }
 
     @Override
     public @NotNull UserAuthentication login(@NotNull String userName, @NotNull String password) throws AuthenticationException {
-        CachedUserAuthentication cached = this.cache.getCachedAuthentication(userName, password);
+        // every connection of an account shares one authentication so that a refresh reaches all of them,
+        // it is only handed out again for the password it was created with
+        TrackedSession tracked = this.sessions.get(userName.toLowerCase());
+        CachedUserAuthentication cached = tracked != null && tracked.matches(password) ? tracked.authentication : null;
+        if (cached == null) {
+            cached = this.cache.getCachedAuthentication(userName, password);
+        }
+
         if (cached != null) {
             if (this.isValid(cached)) {
+                this.track(userName, password, cached);
+                return cached;
+            }
+
+            if (this.refresh(cached)) {
+                this.cache.cache(userName, password, cached);
+                this.sessions.put(userName.toLowerCase(), new TrackedSession(cached, password));
+                this.scheduleRefresh(userName, password, cached);
                 return cached;
             }
-            this.cache.remove(userName, password);
+
+            this.cache.remove(userName);
         }
 
         UserAuthentication userAuthentication = SERVICE.createUserAuthentication(Agent.MINECRAFT);
@@ -69,27 +111,56 @@ public class BasicProvidedSessionService implements ProvidedSessionService {
 
         userAuthentication.logIn();
 
-        this.cache.cache(userName, password, CachedUserAuthentication.fromAuthentication(userAuthentication));
+        CachedUserAuthentication authentication = CachedUserAuthentication.fromAuthentication(userAuthentication, CLIENT_TOKEN);
+        CachedUserAuthentication shared = tracked != null ? tracked.authentication : cached;
+        if (shared != null && CLIENT_TOKEN.equals(shared.getClientToken())) {
+            // connections which are still using the old token get the new one as well
+            shared.setAuthenticatedToken(authentication.getAuthenticatedToken());
+            authentication = shared;
+        }
+
+        this.cache.cache(userName, password, authentication);
+        this.sessions.put(userName.toLowerCase(), new TrackedSession(authentication, password));
+        this.scheduleRefresh(userName, password, authentication);
 
-        return userAuthentication;
+        return authentication;
+    }
+
+    // stops refreshing the session of an account which was removed, the next login starts from scratch
+    public void removeAccount(@NotNull String userName) {
+        ScheduledFuture<?> future = this.scheduledRefreshes.remove(userName.toLowerCase());
+        if (future != null) {
+            future.cancel(false);
+        }
+
+        this.sessions.remove(userName.toLowerCase());
+        this.cache.remove(userName);
+    }
+
+    private void track(String userName, String password, CachedUserAuthentication authentication) {
+        TrackedSession previous = this.sessions.put(userName.toLowerCase(), new TrackedSession(authentication, password));
+        if (previous == null || previous.authentication != authentication || !this.scheduledRefreshes.containsKey(userName.toLowerCase())) {
+            this.scheduleRefresh(userName, password, authentication);
+        }
+    }
+
+    private CachedUserAuthentication getTrackedAuthentication(String userName) {
+        TrackedSession tracked = this.sessions.get(userName.toLowerCase());
+        return tracked == null ? null : tracked.authentication;
     }
 
     @Override
     public boolean isValid(@NotNull UserAuthentication authentication) {
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL("https://authserver.mojang.com/validate").openConnection();
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-
-            try (OutputStream outputStream = connection.getOutputStream()) {
-                JsonObject object = new JsonObject();
-                object.addProperty("accessToken", authentication.getAuthenticatedToken());
-                outputStream.write(object.toString().getBytes(StandardCharsets.UTF_8));
-            }
+        JsonObject object = new JsonObject();
+        object.addProperty("accessToken", authentication.getAuthenticatedToken());
+        if (authentication instanceof CachedUserAuthentication) {
+            object.addProperty("clientToken", ((CachedUserAuthentication) authentication).getClientToken());
+        }
 
-            return connection.getResponseCode() == 204;
-        } catch (IOException exception) {
-            exception.printStackTrace();
+        try {
+            return this.post("/validate", object).getStatusCode() == 204;
+        } catch (CompletionException exception) {
+            exception.getCause().printStackTrace();
             return false;
         }
     }
@@ -98,4 +169,119 @@ public class BasicProvidedSessionService implements ProvidedSessionService {
     public @NotNull MinecraftSessionService createSessionService() {
         return SERVICE.createMinecraftSessionService();
     }
+
+    private boolean refresh(CachedUserAuthentication authentication) {
+        JsonObject object = new JsonObject();
+        object.addProperty("accessToken", authentication.getAuthenticatedToken());
+        object.addProperty("clientToken", authentication.getClientToken());
+
+        try {
+            HttpResponse response = this.post("/refresh", object);
+            if (!response.isSuccess() || response.getBody() == null) {
+                return false;
+            }
+
+            JsonObject result = JsonParser.parseString(response.getBody()).getAsJsonObject();
+            if (!result.has("accessToken")) {
+                return false;
+            }
+
+            authentication.setAuthenticatedToken(result.get("accessToken").getAsString());
+            return true;
+        } catch (CompletionException exception) {
+            exception.getCause().printStackTrace();
+            return false;
+        } catch (RuntimeException exception) {
+            exception.printStackTrace();
+            return false;
+        }
+    }
+
+    private HttpResponse post(String path, JsonObject body) {
+        return HttpUtil.post(this.authServerUrl + path, "application/json", body.toString().getBytes(StandardCharsets.UTF_8)).join();
+    }
+
+    private void scheduleRefresh(String userName, String password, CachedUserAuthentication authentication) {
+        long delay = Math.max(RETRY_REFRESH_MILLIS, this.getExpiry(authentication.getAuthenticatedToken()) - REFRESH_AHEAD_MILLIS - System.currentTimeMillis());
+        this.scheduleRefresh(userName, password, authentication, delay);
+    }
+
+    private void scheduleRefresh(String userName, String password, CachedUserAuthentication authentication, long delay) {
+        ScheduledFuture<?> future = APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(
+                () -> APIUtil.EXECUTOR_SERVICE.execute(() -> this.refreshScheduled(userName, password, authentication)),
+                delay, TimeUnit.MILLISECONDS
+        );
+
+        ScheduledFuture<?> previous = this.scheduledRefreshes.put(userName.toLowerCase(), future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void refreshScheduled(String userName, String password, CachedUserAuthentication authentication) {
+        if (this.getTrackedAuthentication(userName) != authentication) {
+            // the account was removed or logged in again in the meantime
+            return;
+        }
+
+        if (this.refresh(authentication)) {
+            this.cache.cache(userName, password, authentication);
+            this.scheduleRefresh(userName, password, authentication);
+            return;
+        }
+
+        if (this.isValid(authentication)) {
+            // the auth server might just be unavailable, try again while the token is still usable
+            this.scheduleRefresh(userName, password, authentication, RETRY_REFRESH_MILLIS);
+            return;
+        }
+
+        System.out.println("Unable to refresh the session of " + userName + ", the account has to log in again");
+        this.scheduledRefreshes.remove(userName.toLowerCase());
+        this.sessions.computeIfPresent(userName.toLowerCase(), (key, tracked) -> tracked.authentication == authentication ? null : tracked);
+        this.cache.remove(userName);
+    }
+
+    // access tokens of newer accounts are jwts which contain their expiry
+    private long getExpiry(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length == 3) {
+            try {
+                JsonObject payload = JsonParser.parseString(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)).getAsJsonObject();
+                if (payload.has("exp")) {
+                    return TimeUnit.SECONDS.toMillis(payload.get("exp").getAsLong());
+                }
+            } catch (RuntimeException ignored) {
+            }
+        }
+
+        return System.currentTimeMillis() + DEFAULT_TOKEN_LIFETIME;
+    }
+
+    private static final class TrackedSession {
+
+        private final CachedUserAuthentication authentication;
+        private final byte[] salt = new byte[16];
+        private final byte[] passwordHash;
+
+        private TrackedSession(CachedUserAuthentication authentication, String password) {
+            this.authentication = authentication;
+            RANDOM.nextBytes(this.salt);
+            this.passwordHash = this.hash(password);
+        }
+
+        private boolean matches(String password) {
+            return MessageDigest.isEqual(this.passwordHash, this.hash(password));
+        }
+
+        private byte[] hash(String password) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(this.salt);
+                return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
 }
@@ -45,22 +45,43 @@ public class CachedUserAuthentication implements UserAuthentication {
             .registerTypeAdapter(ProfileSearchResultsResponse.class, new ProfileSearchResultsResponse.Serializer())
             .create();
 
-    private final String sessionToken;
+    private final String clientToken;
     private final String selectedProfileJson;
+    private volatile String sessionToken;
     private transient GameProfile selectedProfile;
 
-    public CachedUserAuthentication(String sessionToken, GameProfile selectedProfile) {
+    public CachedUserAuthentication(String sessionToken, String clientToken, GameProfile selectedProfile) {
         this.sessionToken = sessionToken;
+        this.clientToken = clientToken;
         this.selectedProfileJson = GSON.toJson(selectedProfile);
         this.selectedProfile = selectedProfile;
     }
 
-    public static CachedUserAuthentication fromAuthentication(UserAuthentication authentication) {
+    CachedUserAuthentication(String sessionToken, String clientToken, String selectedProfileJson) {
+        this.sessionToken = sessionToken;
+        this.clientToken = clientToken;
+        this.selectedProfileJson = selectedProfileJson;
+    }
+
+    public static CachedUserAuthentication fromAuthentication(UserAuthentication authentication, String clientToken) {
         if (authentication instanceof CachedUserAuthentication) {
             return (CachedUserAuthentication) authentication;
         }
 
-        return new CachedUserAuthentication(authentication.getAuthenticatedToken(), authentication.getSelectedProfile());
+        return new CachedUserAuthentication(authentication.getAuthenticatedToken(), clientToken, authentication.getSelectedProfile());
+    }
+
+    public String getClientToken() {
+        return this.clientToken;
+    }
+
+    String getSelectedProfileJson() {
+        return this.selectedProfileJson;
+    }
+
+    // the token is replaced in place when it is refreshed, so that connections holding this authentication use the new one
+    void setAuthenticatedToken(String sessionToken) {
+        this.sessionToken = sessionToken;
     }
 
     @Override
@@ -88,7 +109,7 @@ public class CachedUserAuthentication implements UserAuthentication {
 
     @Override
     public GameProfile[] getAvailableProfiles() {
-        return new GameProfile[]{this.selectedProfile};
+        return new GameProfile[]{this.getSelectedProfile()};
     }
 
     @Override
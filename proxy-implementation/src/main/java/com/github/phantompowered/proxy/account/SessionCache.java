@@ -25,26 +25,134 @@
 package com.github.phantompowered.proxy.account;
 
 import com.github.phantompowered.proxy.api.database.DatabaseProvidedStorage;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodec;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
 
-// TODO Finish session cache
-public class SessionCache extends DatabaseProvidedStorage<CachedUserAuthentication> {
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// the sessions are encrypted with a key derived from the password of the account, changing the password invalidates the session
+public class SessionCache extends DatabaseProvidedStorage<SessionCache.EncryptedSession> {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int KEY_ITERATIONS = 10_000;
 
     public SessionCache(ServiceRegistry registry) {
-        super(registry, "internal_minecraft_session_cache", CachedUserAuthentication.class);
+        super(registry, "internal_minecraft_session_cache", EncryptedSession.class, new EncryptedSessionCodec());
     }
 
     public void cache(String email, String password, CachedUserAuthentication authentication) {
-        //super.insertOrUpdate(email + ":" + password, authentication);
+        JsonObject session = new JsonObject();
+        session.addProperty("accessToken", authentication.getAuthenticatedToken());
+        session.addProperty("clientToken", authentication.getClientToken());
+        session.addProperty("selectedProfile", authentication.getSelectedProfileJson());
+
+        byte[] salt = new byte[16];
+        byte[] iv = new byte[12];
+        RANDOM.nextBytes(salt);
+        RANDOM.nextBytes(iv);
+
+        try {
+            byte[] data = this.createCipher(Cipher.ENCRYPT_MODE, email, password, salt, iv).doFinal(session.toString().getBytes(StandardCharsets.UTF_8));
+            super.insertOrUpdate(this.key(email), new EncryptedSession(
+                    Base64.getEncoder().encodeToString(salt),
+                    Base64.getEncoder().encodeToString(iv),
+                    Base64.getEncoder().encodeToString(data)
+            ));
+        } catch (GeneralSecurityException exception) {
+            exception.printStackTrace();
+        }
     }
 
     public CachedUserAuthentication getCachedAuthentication(String email, String password) {
-        return null;
-        //return super.get(email + ":" + password);
+        EncryptedSession encrypted = super.get(this.key(email));
+        if (encrypted == null) {
+            return null;
+        }
+
+        try {
+            byte[] data = this.createCipher(
+                    Cipher.DECRYPT_MODE, email, password,
+                    Base64.getDecoder().decode(encrypted.salt), Base64.getDecoder().decode(encrypted.iv)
+            ).doFinal(Base64.getDecoder().decode(encrypted.data));
+
+            JsonObject session = JsonParser.parseString(new String(data, StandardCharsets.UTF_8)).getAsJsonObject();
+            return new CachedUserAuthentication(
+                    session.get("accessToken").getAsString(),
+                    session.get("clientToken").getAsString(),
+                    session.get("selectedProfile").getAsString()
+            );
+        } catch (GeneralSecurityException | RuntimeException exception) {
+            // wrong password or damaged entry
+            this.remove(email);
+            return null;
+        }
+    }
+
+    public void remove(String email) {
+        super.delete(this.key(email));
     }
 
-    public void remove(String email, String password) {
-        //super.delete(email + ":" + password);
+    private String key(String email) {
+        return email.toLowerCase();
     }
 
+    private Cipher createCipher(int mode, String email, String password, byte[] salt, byte[] iv) throws GeneralSecurityException {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        byte[] rawKey = factory.generateSecret(new PBEKeySpec(password.toCharArray(), salt, KEY_ITERATIONS, 256)).getEncoded();
+        SecretKey key = new SecretKeySpec(rawKey, "AES");
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key, new GCMParameterSpec(128, iv));
+        cipher.updateAAD(this.key(email).getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+
+    public static final class EncryptedSession {
+
+        private final String salt;
+        private final String iv;
+        private final String data;
+
+        public EncryptedSession(String salt, String iv, String data) {
+            this.salt = salt;
+            this.iv = iv;
+            this.data = data;
+        }
+    }
+
+    private static final class EncryptedSessionCodec implements DatabaseCodec<EncryptedSession> {
+
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public void write(@NotNull DataOutput output, @NotNull EncryptedSession value) throws IOException {
+            DatabaseCodecs.writeString(output, value.salt);
+            DatabaseCodecs.writeString(output, value.iv);
+            DatabaseCodecs.writeString(output, value.data);
+        }
+
+        @Override
+        public @NotNull EncryptedSession read(@NotNull DataInput input, int version) throws IOException {
+            return new EncryptedSession(DatabaseCodecs.readString(input), DatabaseCodecs.readString(input), DatabaseCodecs.readString(input));
+        }
+    }
 }
@@ -33,39 +33,41 @@ import com.github.phantompowered.proxy.api.event.EventManager;
 import com.github.phantompowered.proxy.api.events.connection.player.chunk.ChunkLoadEvent;
 import com.github.phantompowered.proxy.api.events.connection.player.chunk.ChunkUnloadEvent;
 import com.github.phantompowered.proxy.api.location.Location;
+import com.github.phantompowered.proxy.api.network.Packet;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
 import com.github.phantompowered.proxy.block.chunk.Chunk;
 import com.github.phantompowered.proxy.connection.cache.handler.ChunkCache;
-import com.github.phantompowered.proxy.connection.cache.handler.SignCache;
 import com.github.phantompowered.proxy.protocol.play.server.world.PacketPlayServerUpdateSign;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
 
 public class DefaultBlockAccess implements BlockAccess {
 
     private final ServiceRegistry serviceRegistry;
     private final BlockStateRegistry registry;
     private final ChunkCache chunkCache;
-    private final SignCache signCache;
 
     private final Map<UUID, BlockConsumer> blockTrackers = new ConcurrentHashMap<>();
 
-    public DefaultBlockAccess(ServiceRegistry serviceRegistry, ChunkCache chunkCache, SignCache signCache) {
+    public DefaultBlockAccess(ServiceRegistry serviceRegistry, ChunkCache chunkCache) {
         this.serviceRegistry = serviceRegistry;
         this.registry = serviceRegistry.getProviderUnchecked(BlockStateRegistry.class);
         this.chunkCache = chunkCache;
-        this.signCache = signCache;
         chunkCache.setBlockAccess(this);
     }
 
-    public void handleBlockUpdate(Location pos, int oldState, int newState) {
+    public void handleBlockUpdate(int x, int y, int z, int oldState, int newState) {
         if (oldState != newState && !this.blockTrackers.isEmpty()) {
             for (BlockConsumer consumer : this.blockTrackers.values()) {
-                consumer.accept(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), oldState, newState);
+                consumer.accept(x, y, z, oldState, newState);
             }
         }
     }
@@ -107,8 +109,8 @@ public class DefaultBlockAccess implements BlockAccess {
         });
 
         for (int state : states) {
-            for (Location position : this.getPositions(state)) {
-                consumer.accept(position.getBlockX(), position.getBlockY(), position.getBlockZ(), -1, state);
+            for (long position : this.getPackedPositions(state)) {
+                consumer.accept(Location.unpackX(position), Location.unpackY(position), Location.unpackZ(position), -1, state);
             }
         }
     }
@@ -128,11 +130,11 @@ public class DefaultBlockAccess implements BlockAccess {
         this.blockTrackers.remove(trackerId);
     }
 
-    private Collection<Location> mapPositionsByChunk(Chunk chunk, Collection<Location> input) {
-        Collection<Location> result = new ArrayList<>(input.size());
+    private Collection<Location> unpackPositions(long[] positions) {
+        Collection<Location> result = new ArrayList<>(positions.length);
 
-        for (Location pos : input) {
-            result.add(pos.add(chunk.getX() << 4, 0, chunk.getZ() << 4));
+        for (long position : positions) {
+            result.add(Location.fromLong(position));
         }
 
         return result;
@@ -140,78 +142,162 @@ public class DefaultBlockAccess implements BlockAccess {
 
     @Override
     public @NotNull Collection<Location> getPositions(int state) {
-        Collection<Location> result = new ArrayList<>();
+        return this.unpackPositions(this.getPackedPositions(state));
+    }
 
-        for (Chunk chunk : this.chunkCache.getChunks()) {
-            result.addAll(this.mapPositionsByChunk(chunk, chunk.getPositionsByState(state)));
-        }
+    @Override
+    public @NotNull Collection<Location> getPositions(int[] states) {
+        return this.unpackPositions(this.getPackedPositions(states));
+    }
 
-        return result;
+    @Override
+    public @NotNull Collection<Location> getPositions(Material material) {
+        return this.unpackPositions(this.getPackedPositions(material));
     }
 
     @Override
-    public @NotNull Collection<Location> getPositions(int[] states) {
-        Collection<Location> result = new ArrayList<>();
+    public @NotNull long[] getPackedPositions(int state) {
+        return this.getPackedPositions(new int[]{state});
+    }
+
+    @Override
+    public @NotNull long[] getPackedPositions(int[] states) {
+        LongStream.Builder result = LongStream.builder();
 
         for (Chunk chunk : this.chunkCache.getChunks()) {
-            result.addAll(this.mapPositionsByChunk(chunk, chunk.getPositionsByStates(states)));
+            chunk.collectPositionsByStates(states, result);
         }
 
-        return result;
+        return result.build().toArray();
     }
 
     @Override
-    public @NotNull Collection<Location> getPositions(Material material) {
+    public @NotNull long[] getPackedPositions(Material material) {
         int[] states = this.registry.getValidBlockStateIDs(material);
         if (states.length == 0) {
-            return Collections.emptySet();
+            return new long[0];
         }
 
-        return this.getPositions(states);
+        return this.getPackedPositions(states);
     }
 
     @Override
     public int getBlockState(@NotNull Location pos) {
-        return this.chunkCache.getBlockStateAt(pos);
+        return this.getBlockState(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    @Override
+    public int getBlockState(int x, int y, int z) {
+        return this.chunkCache.getBlockStateAt(x, y, z);
+    }
+
+    @Override
+    public int getBlockState(long packedPos) {
+        return this.getBlockState(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos));
     }
 
     @NotNull
     @Override
     public Material getMaterial(@NotNull Location pos) {
-        return this.registry.getMaterial(this.getBlockState(pos));
+        return this.getMaterial(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    @NotNull
+    @Override
+    public Material getMaterial(int x, int y, int z) {
+        return this.registry.getMaterial(this.getBlockState(x, y, z));
+    }
+
+    @NotNull
+    @Override
+    public Material getMaterial(long packedPos) {
+        return this.getMaterial(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos));
     }
 
     @Override
     public boolean isAirBlock(@NotNull Location pos) {
-        return this.getBlockState(pos) == 0;
+        return this.isAirBlock(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    @Override
+    public boolean isAirBlock(int x, int y, int z) {
+        return this.getBlockState(x, y, z) == 0;
+    }
+
+    @Override
+    public boolean isAirBlock(long packedPos) {
+        return this.isAirBlock(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos));
     }
 
     @Override
     public boolean isWaterBlock(@NotNull Location pos) {
-        Material material = this.getMaterial(pos);
+        return this.isWaterBlock(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    @Override
+    public boolean isWaterBlock(int x, int y, int z) {
+        Material material = this.getMaterial(x, y, z);
         return material == Material.WATER || material == Material.STATIONARY_WATER;
     }
 
+    @Override
+    public boolean isWaterBlock(long packedPos) {
+        return this.isWaterBlock(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos));
+    }
+
     @Override
     public boolean canSeeSky(@NotNull Location pos) {
-        Location origin = new Location(pos.getX(), 0, pos.getZ());
-        for (int i = pos.getBlockY(); i < 256; i++) {
-            int state = this.getBlockState(origin.up(i));
-            if (state != 0) {
+        return this.canSeeSky(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    @Override
+    public boolean canSeeSky(int x, int y, int z) {
+        Chunk chunk = this.chunkCache.getChunk(x >> 4, z >> 4);
+        if (chunk == null) {
+            return false;
+        }
+
+        for (int i = y; i < 256; i++) {
+            if (chunk.getBlockStateAt(x, i, z) != 0) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public boolean canSeeSky(long packedPos) {
+        return this.canSeeSky(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos));
+    }
+
     @Override
     public void setMaterial(@NotNull Location pos, @Nullable Material material) {
-        this.setBlockState(pos, this.registry.getDefaultBlockState(material));
+        this.setMaterial(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), material);
+    }
+
+    @Override
+    public void setMaterial(int x, int y, int z, @Nullable Material material) {
+        this.setBlockState(x, y, z, this.registry.getDefaultBlockState(material));
+    }
+
+    @Override
+    public void setMaterial(long packedPos, @Nullable Material material) {
+        this.setMaterial(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos), material);
     }
 
     @Override
     public void setBlockState(@NotNull Location pos, int blockState) {
-        this.chunkCache.setBlockStateAt(pos, blockState);
+        this.setBlockState(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), blockState);
+    }
+
+    @Override
+    public void setBlockState(int x, int y, int z, int blockState) {
+        this.chunkCache.setBlockStateAt(x, y, z, blockState);
+    }
+
+    @Override
+    public void setBlockState(long packedPos, int blockState) {
+        this.setBlockState(Location.unpackX(packedPos), Location.unpackY(packedPos), Location.unpackZ(packedPos), blockState);
     }
 
     @Override
@@ -226,7 +312,17 @@ public class DefaultBlockAccess implements BlockAccess {
 
     @Override
     public Component[] getSignLines(@NotNull Location pos) {
-        PacketPlayServerUpdateSign packet = this.signCache.getSignUpdates().get(pos);
-        return packet != null ? packet.getLines() : null;
+        return this.getSignLines(pos.toLong());
+    }
+
+    @Override
+    public Component[] getSignLines(int x, int y, int z) {
+        return this.getSignLines(Location.toLong(x, y, z));
+    }
+
+    @Override
+    public Component[] getSignLines(long packedPos) {
+        Packet packet = this.chunkCache.getBlockEntity(packedPos);
+        return packet instanceof PacketPlayServerUpdateSign ? ((PacketPlayServerUpdateSign) packet).getLines() : null;
     }
 }
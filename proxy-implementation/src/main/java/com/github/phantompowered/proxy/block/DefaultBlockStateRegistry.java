@@ -33,7 +33,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class DefaultBlockStateRegistry implements BlockStateRegistry {
@@ -42,6 +42,16 @@ public class DefaultBlockStateRegistry implements BlockStateRegistry {
 
     private static final BlockState AIR_STATE = new DefaultBlockState(0, Material.AIR);
 
+    private static final byte FLAG_SOLID = 1;
+    private static final byte FLAG_OPAQUE = 1 << 1;
+    private static final byte FLAG_COLLISION = 1 << 2;
+
+    // the following tables are filled once after all states are registered and never modified afterwards
+    private static final int[][] STATE_IDS_BY_MATERIAL = new int[Material.values().length][];
+    private static final BlockState[][] STATES_BY_MATERIAL = new BlockState[Material.values().length][];
+    private static final int[] DEFAULT_STATES = new int[STATES.length];
+    private static final byte[] STATE_FLAGS = new byte[STATES.length];
+
     static {
         STATES[0] = AIR_STATE; // complete
         registerState(16, Material.STONE); // complete
@@ -1441,6 +1451,8 @@ public class DefaultBlockStateRegistry implements BlockStateRegistry {
         registerState(3161, Material.DARK_OAK_DOOR).hinge(HorizontalHalf.RIGHT); // complete
         registerState(3162, Material.DARK_OAK_DOOR).hinge(HorizontalHalf.LEFT).powered(); // complete
         registerState(3163, Material.DARK_OAK_DOOR).hinge(HorizontalHalf.RIGHT).powered(); // complete
+
+        buildLookupTables();
     }
 
     private static DefaultBlockState registerState(int id, Material material) {
@@ -1449,48 +1461,82 @@ public class DefaultBlockStateRegistry implements BlockStateRegistry {
         return state;
     }
 
-    @NotNull
-    @Override
-    public int[] getValidBlockStateIDs(@Nullable Material material) {
-        if (material == null || material == Material.AIR) {
-            return new int[]{0};
+    private static void buildLookupTables() {
+        Material[] materials = Material.values();
+        List<List<BlockState>> statesByMaterial = new ArrayList<>(materials.length);
+        for (int i = 0; i < materials.length; i++) {
+            statesByMaterial.add(new ArrayList<>());
         }
-        List<Integer> states = new ArrayList<>();
+
         for (BlockState state : STATES) {
-            if (state != null && state.getMaterial() == material) {
-                states.add(state.getId());
+            if (state != null) {
+                statesByMaterial.get(state.getMaterial().ordinal()).add(state);
             }
         }
-        int[] array = new int[states.size()];
-        for (int i = 0; i < states.size(); i++) {
-            array[i] = states.get(i);
+
+        for (Material material : materials) {
+            List<BlockState> states = statesByMaterial.get(material.ordinal());
+            if (material == Material.AIR) {
+                states = Collections.singletonList(AIR_STATE);
+            }
+
+            int[] ids = new int[states.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = states.get(i).getId();
+            }
+
+            STATE_IDS_BY_MATERIAL[material.ordinal()] = ids;
+            STATES_BY_MATERIAL[material.ordinal()] = states.toArray(new BlockState[0]);
+        }
+
+        for (int id = 0; id < STATES.length; id++) {
+            BlockState state = STATES[id] != null ? STATES[id] : AIR_STATE;
+            int[] materialStates = STATE_IDS_BY_MATERIAL[state.getMaterial().ordinal()];
+            DEFAULT_STATES[id] = materialStates.length != 0 ? materialStates[0] : 0;
+
+            byte flags = 0;
+            if (state.getMaterial().isSolid()) {
+                flags |= FLAG_SOLID;
+            }
+            if (state.getMaterial().isOccluding()) {
+                flags |= FLAG_OPAQUE;
+            }
+            if (!state.isPassable()) {
+                flags |= FLAG_COLLISION;
+            }
+            STATE_FLAGS[id] = flags;
         }
-        return array;
+    }
+
+    private static boolean hasFlag(int blockStateId, byte flag) {
+        return blockStateId >= 0 && blockStateId < STATE_FLAGS.length && (STATE_FLAGS[blockStateId] & flag) != 0;
+    }
+
+    @NotNull
+    @Override
+    public int[] getValidBlockStateIDs(@Nullable Material material) {
+        return STATE_IDS_BY_MATERIAL[(material == null ? Material.AIR : material).ordinal()].clone();
     }
 
     @Override
     public @NotNull BlockState[] getValidStates(@Nullable Material material) {
-        if (material == null || material == Material.AIR) {
-            return new BlockState[]{AIR_STATE};
-        }
-        Collection<BlockState> states = new ArrayList<>();
-        for (BlockState state : STATES) {
-            if (state != null && state.getMaterial() == material) {
-                states.add(state);
-            }
-        }
-        return states.toArray(new BlockState[0]);
+        return STATES_BY_MATERIAL[(material == null ? Material.AIR : material).ordinal()].clone();
     }
 
     @Override
     public int getDefaultBlockState(@Nullable Material material) {
-        int[] ids = this.getValidBlockStateIDs(material);
+        int[] ids = STATE_IDS_BY_MATERIAL[(material == null ? Material.AIR : material).ordinal()];
         return ids.length != 0 ? ids[0] : 0;
     }
 
+    @Override
+    public int getDefaultBlockState(int blockStateId) {
+        return blockStateId < 0 || blockStateId >= DEFAULT_STATES.length ? 0 : DEFAULT_STATES[blockStateId];
+    }
+
     @Override
     public @NotNull BlockState getExactDefaultBlockState(@Nullable Material material) {
-        BlockState[] states = this.getValidStates(material);
+        BlockState[] states = STATES_BY_MATERIAL[(material == null ? Material.AIR : material).ordinal()];
         return states.length != 0 ? states[0] : AIR_STATE;
     }
 
@@ -1511,4 +1557,19 @@ public class DefaultBlockStateRegistry implements BlockStateRegistry {
     public boolean isMaterial(int blockStateId, @NotNull Material material) {
         return this.getMaterial(blockStateId) == material;
     }
+
+    @Override
+    public boolean isSolid(int blockStateId) {
+        return hasFlag(blockStateId, FLAG_SOLID);
+    }
+
+    @Override
+    public boolean isOpaque(int blockStateId) {
+        return hasFlag(blockStateId, FLAG_OPAQUE);
+    }
+
+    @Override
+    public boolean hasCollision(int blockStateId) {
+        return hasFlag(blockStateId, FLAG_COLLISION);
+    }
 }
@@ -26,16 +26,22 @@ package com.github.phantompowered.proxy.block.chunk;
 
 import com.github.phantompowered.proxy.api.block.BlockConsumer;
 import com.github.phantompowered.proxy.api.location.Location;
+import com.github.phantompowered.proxy.api.network.Packet;
 import com.github.phantompowered.proxy.protocol.play.server.world.material.PacketPlayServerMapChunk;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
 
 public class Chunk {
 
     private final ChunkSection[] sections = new ChunkSection[16];
     private final byte[] biomeArray = new byte[256];
+    // the last sign or tile entity update for every block entity, keyed by the packed position
+    private final Map<Long, Packet> blockEntities = new ConcurrentHashMap<>();
     private PacketPlayServerMapChunk lastChunkData;
 
     private static int copyArray(byte[] sourceArray, byte[] targetArray, int copyAmount) {
@@ -148,6 +154,11 @@ public class Chunk {
     }
 
     public void setBlockStateAt(int x, int y, int z, int state) {
+        if (!this.blockEntities.isEmpty() && this.getBlockStateAt(x, y, z) >> 4 != state >> 4) {
+            // the block entity is removed together with its block
+            this.blockEntities.remove(Location.toLong(x, y, z));
+        }
+
         ChunkSection section = this.sections[y >> 4];
 
         if (section == null) {
@@ -169,30 +180,40 @@ public class Chunk {
         return result;
     }
 
-    public Collection<Location> getPositionsByState(int allowedState) {
-        Collection<Location> result = new ArrayList<>();
+    public void collectPositionsByState(int allowedState, LongStream.Builder result) {
+        this.collectPositionsByStates(new int[]{allowedState}, result);
+    }
 
-        this.forEachBlockStates((x, y, z, oldState, state) -> {
-            if (state == allowedState) {
-                result.add(new Location(x, y, z));
+    // the positions are absolute and packed using Location#toLong(int, int, int)
+    public void collectPositionsByStates(int[] allowedStates, LongStream.Builder result) {
+        boolean includeAir = false;
+        for (int allowedState : allowedStates) {
+            if (allowedState == 0) {
+                includeAir = true;
+                break;
             }
-        });
+        }
 
-        return result;
-    }
+        int baseX = this.getX() << 4;
+        int baseZ = this.getZ() << 4;
+
+        for (int sectionY = 0; sectionY < this.sections.length; sectionY++) {
+            ChunkSection section = this.sections[sectionY];
+            if (section == null && !includeAir) {
+                continue;
+            }
 
-    public Collection<Location> getPositionsByStates(int[] allowedStates) {
-        Collection<Location> result = new ArrayList<>();
+            for (int index = 0; index < 4096; index++) {
+                int state = section != null ? section.getData()[index] : 0;
 
-        this.forEachBlockStates((x, y, z, oldState, state) -> {
-            for (int allowedState : allowedStates) {
-                if (allowedState == state) {
-                    result.add(new Location(x, y, z));
+                for (int allowedState : allowedStates) {
+                    if (allowedState == state) {
+                        result.add(Location.toLong(baseX + (index & 15), (sectionY << 4) + (index >> 8), baseZ + (index >> 4 & 15)));
+                        break;
+                    }
                 }
             }
-        });
-
-        return result;
+        }
     }
 
     // the consumer will be called with x 0 - 16, y 0 - 256, z 0 - 16
@@ -211,6 +232,41 @@ public class Chunk {
         }
     }
 
+    // compares everything that is sent by getBytes, the chunk coordinates are not compared
+    public boolean hasSameContent(Chunk other) {
+        if (!Arrays.equals(this.biomeArray, other.biomeArray)) {
+            return false;
+        }
+
+        for (int i = 0; i < this.sections.length; i++) {
+            ChunkSection section = this.sections[i];
+            ChunkSection otherSection = other.sections[i];
+
+            if (section == null || otherSection == null) {
+                if (section != otherSection) {
+                    return false;
+                }
+                continue;
+            }
+
+            if (!Arrays.equals(section.getData(), otherSection.getData())
+                    || !Arrays.equals(section.getLightData(), otherSection.getLightData())
+                    || !Arrays.equals(section.getSkyLightData(), otherSection.getSkyLightData())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public Map<Long, Packet> getBlockEntities() {
+        return this.blockEntities;
+    }
+
+    public void setBlockEntity(int x, int y, int z, Packet packet) {
+        this.blockEntities.put(Location.toLong(x, y, z), packet);
+    }
+
     public PacketPlayServerMapChunk getLastChunkData() {
         return this.lastChunkData;
     }
@@ -227,4 +283,8 @@ public class Chunk {
         return pos.isInChunk(this.getX(), this.getZ());
     }
 
+    public boolean contains(int x, int z) {
+        return x >> 4 == this.getX() && z >> 4 == this.getZ();
+    }
+
 }
@@ -28,8 +28,19 @@ import com.github.phantompowered.proxy.api.command.basic.NonTabCompleteableComma
 import com.github.phantompowered.proxy.api.command.exception.CommandExecutionException;
 import com.github.phantompowered.proxy.api.command.result.CommandResult;
 import com.github.phantompowered.proxy.api.command.sender.CommandSender;
+import com.github.phantompowered.proxy.api.connection.ServiceConnection;
+import com.github.phantompowered.proxy.api.connection.ServiceConnector;
+import com.github.phantompowered.proxy.api.database.DatabaseProvidedStorage;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.connection.BasicServiceConnection;
+import com.github.phantompowered.proxy.connection.ConnectedProxyClient;
+import com.github.phantompowered.proxy.connection.ForwardingStatistics;
+import com.github.phantompowered.proxy.connection.egress.EgressProxy;
+import com.github.phantompowered.proxy.connection.egress.EgressProxyPool;
+import com.github.phantompowered.proxy.connection.login.SessionJoinStatistics;
 import com.github.phantompowered.proxy.logging.ProxyLogger;
+import com.github.phantompowered.proxy.network.pipeline.limit.ConnectionRateLimiter;
+import com.google.common.cache.CacheStats;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.logging.Level;
@@ -37,10 +48,12 @@ import java.util.logging.Logger;
 
 public class CommandDebug extends NonTabCompleteableCommandCallback {
 
+    private final ServiceRegistry registry;
     private final Logger logger;
 
     public CommandDebug(ServiceRegistry registry) {
         super("proxy.command.debug", null);
+        this.registry = registry;
         this.logger = registry.getProviderUnchecked(ProxyLogger.class);
     }
 
@@ -71,10 +84,57 @@ public class CommandDebug extends NonTabCompleteableCommandCallback {
             return CommandResult.BREAK;
         }
 
+        if (arguments.length == 1 && arguments[0].equalsIgnoreCase("stats")) {
+            commandSender.sendMessage("Session joins:");
+            for (SessionJoinStatistics statistics : SessionJoinStatistics.getAllStatistics()) {
+                commandSender.sendMessage(" - " + statistics);
+            }
+
+            commandSender.sendMessage("Incoming connections: " + this.registry.getProviderUnchecked(ConnectionRateLimiter.class));
+            commandSender.sendMessage("Forwarding: " + ForwardingStatistics.describe());
+            EgressProxyPool egressProxyPool = this.registry.getProviderUnchecked(EgressProxyPool.class);
+            commandSender.sendMessage("SOCKS5 proxies: " + egressProxyPool);
+            for (EgressProxy proxy : egressProxyPool.getProxies()) {
+                commandSender.sendMessage(" - " + proxy);
+            }
+            for (ServiceConnection connection : this.registry.getProviderUnchecked(ServiceConnector.class).getOnlineClients()) {
+                if (connection instanceof BasicServiceConnection) {
+                    ConnectedProxyClient client = ((BasicServiceConnection) connection).getClient();
+                    if (client != null && client.getThrottles() > 0) {
+                        commandSender.sendMessage(" - " + connection.getName() + " throttled " + client.getThrottles() + " times for "
+                                + client.getThrottledMillis() + "ms" + (client.isThrottled() ? " (currently throttled)" : ""));
+                    }
+                }
+            }
+
+            commandSender.sendMessage("Database caches:");
+            for (DatabaseProvidedStorage<?> storage : DatabaseProvidedStorage.getCachedStorages()) {
+                CacheStats stats = storage.getCacheStats();
+                if (stats != null) {
+                    commandSender.sendMessage(" - " + storage.getTable() + ": " + storage.getCacheSize() + " entries, "
+                            + stats.hitCount() + " hits, " + stats.missCount() + " misses ("
+                            + String.format("%.1f", stats.hitRate() * 100) + "% hit rate), " + stats.evictionCount() + " evictions");
+                }
+            }
+            return CommandResult.BREAK;
+        }
+
+        if (arguments.length == 1 && arguments[0].equalsIgnoreCase("latency")) {
+            commandSender.sendMessage("Round trip times to the server:");
+            for (ServiceConnection connection : this.registry.getProviderUnchecked(ServiceConnector.class).getOnlineClients()) {
+                if (connection instanceof BasicServiceConnection) {
+                    commandSender.sendMessage(" - " + connection.getName() + ": " + ((BasicServiceConnection) connection).getRoundTripTimes());
+                }
+            }
+            return CommandResult.BREAK;
+        }
+
         commandSender.sendMessage("debug off");
         commandSender.sendMessage("debug dev");
         commandSender.sendMessage("debug basic");
         commandSender.sendMessage("debug basic-net");
+        commandSender.sendMessage("debug stats");
+        commandSender.sendMessage("debug latency");
         return CommandResult.END;
     }
 }
@@ -109,24 +109,27 @@ public class CommandFind extends NonTabCompleteableCommandCallback {
         this.findWorker(player, () -> {
             player.sendMessage("Searching for the materials, this may take a while...");
 
-            Collection<Location> locations = blockAccess.getPositions(material);
-            if (locations.isEmpty()) {
+            long[] positions = blockAccess.getPackedPositions(material);
+            if (positions.length == 0) {
                 player.sendMessage("That material doesn't exist in the loaded chunks");
                 return;
             }
-            if (locations.size() >= 500) {
-                player.sendMessage("Too many positions found: §e" + locations.size());
+            if (positions.length >= 500) {
+                player.sendMessage("Too many positions found: §e" + positions.length);
                 return;
             }
 
             StringBuilder builder = new StringBuilder();
             String splitter = "§e, §7";
 
-            for (Location position : locations) {
-                builder.append(splitter).append(position.toShortString());
+            for (long position : positions) {
+                builder.append(splitter)
+                        .append(Location.unpackX(position)).append(", ")
+                        .append(Location.unpackY(position)).append(", ")
+                        .append(Location.unpackZ(position));
             }
 
-            player.sendMessage("§aFound the following positions (§e" + locations.size() + "§a): §7" + builder.substring(splitter.length()));
+            player.sendMessage("§aFound the following positions (§e" + positions.length + "§a): §7" + builder.substring(splitter.length()));
         });
     }
 
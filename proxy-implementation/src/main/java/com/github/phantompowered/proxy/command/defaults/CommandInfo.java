@@ -32,8 +32,12 @@ import com.github.phantompowered.proxy.api.connection.ServiceConnection;
 import com.github.phantompowered.proxy.api.connection.ServiceConnector;
 import com.github.phantompowered.proxy.api.player.Player;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.connection.reconnect.ServiceReconnectionHandler;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+import java.util.Optional;
+
 public class CommandInfo extends NonTabCompleteableCommandCallback {
 
     private final ServiceRegistry registry;
@@ -52,6 +56,22 @@ public class CommandInfo extends NonTabCompleteableCommandCallback {
 
         ServiceConnector connector = this.registry.getProviderUnchecked(ServiceConnector.class);
         commandSender.sendMessage("§7Connected clients: §e" + connector.getOnlineClients().size() + " §7(Free: §a" + connector.getFreeClients().size() + "§7)");
+
+        Optional<ServiceReconnectionHandler> reconnectionHandler = this.registry.getProvider(ServiceReconnectionHandler.class);
+        if (reconnectionHandler.isPresent()) {
+            Map<ServiceConnection, ServiceReconnectionHandler.ReconnectState> states = reconnectionHandler.get().getStates();
+            commandSender.sendMessage("§7Reconnecting clients: §e" + states.size());
+
+            if (arguments.length == 1 && arguments[0].equalsIgnoreCase("reconnects")) {
+                long now = System.currentTimeMillis();
+                for (Map.Entry<ServiceConnection, ServiceReconnectionHandler.ReconnectState> entry : states.entrySet()) {
+                    ServiceReconnectionHandler.ReconnectState state = entry.getValue();
+                    commandSender.sendMessage("§7- §e" + entry.getKey().getCredentials() + " §7on §e" + entry.getKey().getServerAddress() + "§7: "
+                            + (state.isReconnecting() ? "§areconnecting" : "§7next attempt in §e" + Math.max(0, (state.getNextAttempt() - now) / 1000) + "s")
+                            + " §7(attempt §e" + state.getAttempts() + "§7)");
+                }
+            }
+        }
         return CommandResult.END;
     }
 }
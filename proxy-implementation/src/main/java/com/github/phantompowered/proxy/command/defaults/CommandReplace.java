@@ -10,7 +10,6 @@ import com.github.phantompowered.proxy.api.location.Location;
 import com.github.phantompowered.proxy.api.player.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -59,19 +58,20 @@ public class CommandReplace extends NonTabCompleteableCommandCallback {
         this.executorService.execute(() -> {
             sender.sendMessage("Searching for the materials, this may take a while...");
 
-            Collection<Location> positions = blockAccess.getPositions(source);
-            if (positions.isEmpty()) {
+            long[] positions = blockAccess.getPackedPositions(source);
+            if (positions.length == 0) {
                 sender.sendMessage("That material doesn't exist in the loaded chunks");
                 return;
             }
 
-            sender.sendMessage("§7Replacing §e" + positions.size() + " §7" + source + " blocks with " + target + "...");
+            sender.sendMessage("§7Replacing §e" + positions.length + " §7" + source + " blocks with " + target + "...");
 
-            for (Location position : positions) {
-                player.sendBlockChange(position, target);
+            int targetState = blockAccess.getBlockStateRegistry().getDefaultBlockState(target);
+            for (long position : positions) {
+                player.sendBlockChange(Location.fromLong(position), targetState);
             }
 
-            sender.sendMessage("§aSuccessfully replaced all §e" + positions.size() + " §apositions");
+            sender.sendMessage("§aSuccessfully replaced all §e" + positions.length + " §apositions");
 
         });
 
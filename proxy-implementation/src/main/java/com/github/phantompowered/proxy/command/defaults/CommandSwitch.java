@@ -32,6 +32,7 @@ import com.github.phantompowered.proxy.api.connection.ServiceConnection;
 import com.github.phantompowered.proxy.api.connection.ServiceConnector;
 import com.github.phantompowered.proxy.api.player.Player;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.connection.BasicServiceConnection;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Optional;
@@ -57,7 +58,7 @@ public class CommandSwitch extends NonTabCompleteableCommandCallback {
             commandSender.sendMessage("Available clients:");
 
             for (ServiceConnection freeClient : this.registry.getProviderUnchecked(ServiceConnector.class).getFreeClients()) {
-                commandSender.sendMessage("- " + freeClient.getName());
+                commandSender.sendMessage("- " + this.describe(freeClient));
             }
 
             return CommandResult.END;
@@ -71,7 +72,7 @@ public class CommandSwitch extends NonTabCompleteableCommandCallback {
         if (!optionalClient.isPresent()) {
             commandSender.sendMessage("§cThat account does not exist, available:");
             for (ServiceConnection freeClient : this.registry.getProviderUnchecked(ServiceConnector.class).getFreeClients()) {
-                commandSender.sendMessage("- " + freeClient.getName());
+                commandSender.sendMessage("- " + this.describe(freeClient));
             }
 
             return CommandResult.END;
@@ -81,4 +82,14 @@ public class CommandSwitch extends NonTabCompleteableCommandCallback {
         ((Player) commandSender).useClientSafe(optionalClient.get());
         return CommandResult.END;
     }
+
+    private String describe(ServiceConnection connection) {
+        if (connection instanceof BasicServiceConnection) {
+            int latency = ((BasicServiceConnection) connection).getRoundTripTimes().getSmoothed();
+            if (latency >= 0) {
+                return connection.getName() + " (" + latency + "ms)";
+            }
+        }
+        return connection.getName();
+    }
 }
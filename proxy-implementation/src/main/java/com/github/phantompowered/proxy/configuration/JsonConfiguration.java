@@ -31,11 +31,13 @@ import com.github.phantompowered.proxy.api.ping.Favicon;
 import com.github.phantompowered.proxy.api.ping.ServerPing;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
 import javax.imageio.ImageIO;
@@ -51,11 +53,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 
 public class JsonConfiguration implements Configuration {
 
     private static final Path PATH = Paths.get("config.json");
     private static final Path SERVER_ICON = Paths.get("server-icon.png");
+    private static final int DEFAULT_MAX_CONCURRENT_LOGINS = 4;
+    private static final double DEFAULT_LOGINS_PER_SECOND = 2;
+    private static final double DEFAULT_CONNECTIONS_PER_SECOND = 10;
+    private static final int DEFAULT_CONNECTION_BURST = 40;
+    private static final double DEFAULT_SUBNET_CONNECTIONS_PER_SECOND = 50;
+    private static final int DEFAULT_SUBNET_CONNECTION_BURST = 200;
+    private static final double DEFAULT_PACKETS_PER_SECOND = 500;
+    private static final int DEFAULT_SOCKS_PORT = 1080;
 
     private final Gson gson = new GsonBuilder()
             .registerTypeAdapter(Component.class, new LegacyGsonComponentSerializer())
@@ -65,6 +78,7 @@ public class JsonConfiguration implements Configuration {
     private JsonObject jsonObject;
     private ServerPing motd;
     private NetworkAddress targetPingAddress;
+    private Collection<NetworkAddress> socksProxies = Collections.emptyList();
 
     @Override
     public void load() {
@@ -75,6 +89,9 @@ public class JsonConfiguration implements Configuration {
             this.jsonObject.addProperty("compression", 255);
             this.jsonObject.addProperty("privateMode", false);
             this.jsonObject.add("targetPingAddress", JsonNull.INSTANCE);
+            this.jsonObject.add("accountStartup", this.createDefaultAccountStartup());
+            this.jsonObject.add("connectionLimits", this.createDefaultConnectionLimits());
+            this.jsonObject.add("socksProxies", new JsonArray());
             this.motd = new ServerPing(
                     new ServerPing.Protocol("§6P§7hantom§6P§7roxy §7by §ederklaro§7, §ederrop", -1),
                     new ServerPing.Players(0, 0, null),
@@ -92,6 +109,26 @@ public class JsonConfiguration implements Configuration {
             exception.printStackTrace();
         }
 
+        if (!this.jsonObject.has("accountStartup")) {
+            this.jsonObject.add("accountStartup", this.createDefaultAccountStartup());
+        }
+        if (!this.jsonObject.has("connectionLimits")) {
+            this.jsonObject.add("connectionLimits", this.createDefaultConnectionLimits());
+        } else if (this.jsonObject.get("connectionLimits").isJsonObject()) {
+            JsonObject limits = this.jsonObject.getAsJsonObject("connectionLimits");
+            if (!limits.has("enabled")) {
+                limits.addProperty("enabled", true);
+            }
+            if (!limits.has("exemptLocalAddresses")) {
+                limits.addProperty("exemptLocalAddresses", true);
+            }
+        }
+        if (!this.jsonObject.has("socksProxies")) {
+            this.jsonObject.add("socksProxies", new JsonArray());
+        }
+
+        this.socksProxies = this.parseSocksProxies(this.jsonObject.get("socksProxies"));
+
         JsonElement rawAddress = this.jsonObject.get("targetPingAddress");
         this.targetPingAddress = rawAddress == null || rawAddress == JsonNull.INSTANCE ? null : NetworkAddress.parse(rawAddress.getAsString());
 
@@ -120,6 +157,100 @@ public class JsonConfiguration implements Configuration {
         }
     }
 
+    private JsonObject createDefaultAccountStartup() {
+        JsonObject limits = new JsonObject();
+        limits.addProperty("maxConcurrentLogins", DEFAULT_MAX_CONCURRENT_LOGINS);
+        limits.addProperty("loginsPerSecond", DEFAULT_LOGINS_PER_SECOND);
+
+        JsonObject accountStartup = new JsonObject();
+        accountStartup.add("default", limits);
+        accountStartup.add("servers", new JsonObject());
+        return accountStartup;
+    }
+
+    private JsonObject createDefaultConnectionLimits() {
+        JsonObject limits = new JsonObject();
+        limits.addProperty("proxyProtocol", false);
+        limits.addProperty("enabled", true);
+        limits.addProperty("exemptLocalAddresses", true);
+        limits.addProperty("connectionsPerSecond", DEFAULT_CONNECTIONS_PER_SECOND);
+        limits.addProperty("connectionBurst", DEFAULT_CONNECTION_BURST);
+        limits.addProperty("subnetConnectionsPerSecond", DEFAULT_SUBNET_CONNECTIONS_PER_SECOND);
+        limits.addProperty("subnetConnectionBurst", DEFAULT_SUBNET_CONNECTION_BURST);
+        limits.addProperty("packetsPerSecond", DEFAULT_PACKETS_PER_SECOND);
+        return limits;
+    }
+
+    private Collection<NetworkAddress> parseSocksProxies(JsonElement element) {
+        if (!element.isJsonArray()) {
+            System.err.println("socksProxies has to be an array of host:port entries, ignoring it");
+            return Collections.emptyList();
+        }
+
+        Collection<NetworkAddress> proxies = new ArrayList<>();
+        for (JsonElement entry : element.getAsJsonArray()) {
+            if (!entry.isJsonPrimitive()) {
+                System.err.println("Ignoring SOCKS5 proxy " + entry + ", it has to be a host:port string");
+                continue;
+            }
+
+            NetworkAddress address = this.parseSocksProxy(entry.getAsString().trim());
+            if (address != null) {
+                proxies.add(address);
+            }
+        }
+        return Collections.unmodifiableCollection(proxies);
+    }
+
+    // host, host:port, [ipv6] or [ipv6]:port, an ipv6 address without brackets has no port
+    private NetworkAddress parseSocksProxy(String raw) {
+        String host = raw;
+        String port = null;
+        if (raw.startsWith("[")) {
+            int end = raw.indexOf(']');
+            if (end == -1 || (end + 1 < raw.length() && raw.charAt(end + 1) != ':')) {
+                System.err.println("Invalid SOCKS5 proxy " + raw);
+                return null;
+            }
+            host = raw.substring(1, end);
+            port = end + 1 < raw.length() ? raw.substring(end + 2) : null;
+        } else if (raw.indexOf(':') != -1 && raw.indexOf(':') == raw.lastIndexOf(':')) {
+            host = raw.substring(0, raw.indexOf(':'));
+            port = raw.substring(raw.indexOf(':') + 1);
+        }
+
+        try {
+            int parsedPort = port == null ? DEFAULT_SOCKS_PORT : Integer.parseInt(port);
+            if (parsedPort > 0 && parsedPort <= 65535) {
+                return new NetworkAddress(host, parsedPort);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        System.err.println("Wrong port in SOCKS5 proxy " + raw);
+        return null;
+    }
+
+    private JsonElement getConnectionLimit(String name) {
+        JsonElement limits = this.jsonObject == null ? null : this.jsonObject.get("connectionLimits");
+        return limits != null && limits.isJsonObject() ? limits.getAsJsonObject().get(name) : null;
+    }
+
+    private JsonObject getAccountStartupLimits(String host) {
+        JsonElement accountStartup = this.jsonObject.get("accountStartup");
+        if (accountStartup == null || !accountStartup.isJsonObject()) {
+            return null;
+        }
+
+        JsonElement servers = accountStartup.getAsJsonObject().get("servers");
+        if (servers != null && servers.isJsonObject() && servers.getAsJsonObject().has(host.toLowerCase())) {
+            return servers.getAsJsonObject().getAsJsonObject(host.toLowerCase());
+        }
+
+        JsonElement limits = accountStartup.getAsJsonObject().get("default");
+        return limits != null && limits.isJsonObject() ? limits.getAsJsonObject() : null;
+    }
+
     @Override
     public void save() {
         if (this.jsonObject == null) {
@@ -196,4 +327,61 @@ public class JsonConfiguration implements Configuration {
     public void setCompressionThreshold(@Range(from = 0, to = 256) int threshold) {
         this.jsonObject.addProperty("compression", threshold);
     }
+
+    @Override
+    public int getMaxConcurrentLogins(@NotNull String host) {
+        JsonObject limits = this.getAccountStartupLimits(host);
+        return limits != null && limits.has("maxConcurrentLogins") ? Math.max(1, limits.get("maxConcurrentLogins").getAsInt()) : DEFAULT_MAX_CONCURRENT_LOGINS;
+    }
+
+    @Override
+    public double getLoginsPerSecond(@NotNull String host) {
+        JsonObject limits = this.getAccountStartupLimits(host);
+        double loginsPerSecond = limits != null && limits.has("loginsPerSecond") ? limits.get("loginsPerSecond").getAsDouble() : DEFAULT_LOGINS_PER_SECOND;
+        return loginsPerSecond > 0 ? loginsPerSecond : DEFAULT_LOGINS_PER_SECOND;
+    }
+
+    @Override
+    public boolean isConnectionLimitEnabled() {
+        JsonElement enabled = this.getConnectionLimit("enabled");
+        return enabled == null || enabled.getAsBoolean();
+    }
+
+    @Override
+    public boolean isExemptLocalAddresses() {
+        JsonElement exempt = this.getConnectionLimit("exemptLocalAddresses");
+        return exempt == null || exempt.getAsBoolean();
+    }
+
+    @Override
+    public boolean isProxyProtocol() {
+        JsonElement proxyProtocol = this.getConnectionLimit("proxyProtocol");
+        return proxyProtocol != null && proxyProtocol.getAsBoolean();
+    }
+
+    @Override
+    public double getConnectionsPerSecond(boolean subnet) {
+        JsonElement value = this.getConnectionLimit(subnet ? "subnetConnectionsPerSecond" : "connectionsPerSecond");
+        double connectionsPerSecond = value != null ? value.getAsDouble() : 0;
+        return connectionsPerSecond > 0 ? connectionsPerSecond : subnet ? DEFAULT_SUBNET_CONNECTIONS_PER_SECOND : DEFAULT_CONNECTIONS_PER_SECOND;
+    }
+
+    @Override
+    public int getConnectionBurst(boolean subnet) {
+        JsonElement value = this.getConnectionLimit(subnet ? "subnetConnectionBurst" : "connectionBurst");
+        int burst = value != null ? value.getAsInt() : 0;
+        return burst > 0 ? burst : subnet ? DEFAULT_SUBNET_CONNECTION_BURST : DEFAULT_CONNECTION_BURST;
+    }
+
+    @Override
+    public double getPacketsPerSecond() {
+        JsonElement value = this.getConnectionLimit("packetsPerSecond");
+        double packetsPerSecond = value != null ? value.getAsDouble() : 0;
+        return packetsPerSecond > 0 ? packetsPerSecond : DEFAULT_PACKETS_PER_SECOND;
+    }
+
+    @Override
+    public @NotNull Collection<NetworkAddress> getSocksProxies() {
+        return this.socksProxies;
+    }
 }
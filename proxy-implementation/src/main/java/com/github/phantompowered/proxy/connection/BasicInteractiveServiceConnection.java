@@ -24,6 +24,7 @@
  */
 package com.github.phantompowered.proxy.connection;
 
+import com.github.phantompowered.proxy.api.block.BlockAccess;
 import com.github.phantompowered.proxy.api.block.Facing;
 import com.github.phantompowered.proxy.api.connection.InteractiveServiceConnection;
 import com.github.phantompowered.proxy.api.entity.types.Entity;
@@ -80,7 +81,8 @@ public abstract class BasicInteractiveServiceConnection implements InteractiveSe
 
     @Override
     public void breakBlock(Location blockLocation, Facing facing) {
-        if (!this.getConnection().getBlockAccess().getMaterial(blockLocation).isSolid()) {
+        BlockAccess blockAccess = this.getConnection().getBlockAccess();
+        if (!blockAccess.getBlockStateRegistry().isSolid(blockAccess.getBlockState(blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ()))) {
             return;
         }
 
@@ -94,6 +94,7 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
     private final ServiceWorldDataProvider worldDataProvider = new BasicServiceWorldDataProvider(this);
     private final PlayerAbilities abilities = new DefaultPlayerAbilities(this);
     private final ServiceInventory inventory = new DefaultServiceInventory(this);
+    private final RoundTripTimeHistogram roundTripTimes = new RoundTripTimeHistogram();
     private ConnectedProxyClient client;
     private boolean sneaking;
     private boolean sprinting;
@@ -276,7 +277,7 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
     @Override
     public Location getTargetBlock(Set<Material> transparent, int range) {
         return this.getTargetObject(range, location -> {
-            Material material = this.getBlockAccess().getMaterial(location);
+            Material material = this.getBlockAccess().getMaterial(location.getBlockX(), location.getBlockY(), location.getBlockZ());
 
             if ((transparent == null && material != Material.AIR) || (transparent != null && !transparent.contains(material))) {
                 return BlockingObject.block(location);
@@ -289,18 +290,13 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
     @Override
     public @NotNull BlockingObject getTargetObject(int range) {
         return this.getTargetObject(range, location -> {
-            Material material = this.getBlockAccess().getMaterial(location);
+            Material material = this.getBlockAccess().getMaterial(location.getBlockX(), location.getBlockY(), location.getBlockZ());
             if (material != Material.AIR) {
                 return BlockingObject.block(location);
             }
 
-            for (Entity entity : this.worldDataProvider.getEntitiesInWorld()) {
-                if (entity.getBoundingBox().contains(location)) {
-                    return BlockingObject.entity(entity, location);
-                }
-            }
-
-            return null;
+            Entity entity = this.worldDataProvider.getEntityAt(location.getX(), location.getY(), location.getZ());
+            return entity != null ? BlockingObject.entity(entity, location) : null;
         });
     }
 
@@ -434,6 +430,7 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
             if (this.client != null) {
                 this.client.close();
                 this.client = null;
+                this.updateConnectorState();
             }
             return null;
         });
@@ -441,7 +438,13 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
         task.addListener(DefaultConnectionHandler.console(this));
 
         APIUtil.EXECUTOR_SERVICE.execute(() -> {
+            if (task.isDone()) {
+                // aborted by the caller before the connect was started
+                return;
+            }
+
             this.client = new ConnectedProxyClient(this.serviceRegistry, this);
+            this.updateConnectorState();
             this.client.setAuthentication(this.authentication, this.credentials);
             this.client.connect(this.networkAddress, null, task);
 
@@ -473,13 +476,8 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
 
     @Override
     public int getPing() {
-        UUID uniqueId = this.getUniqueId();
-        for (PacketPlayServerPlayerInfo.Item item : this.getClient().getPacketCache().getHandler(PlayerInfoCache.class).getItems()) {
-            if (item.getUniqueId().equals(uniqueId)) {
-                return item.getPing();
-            }
-        }
-        return -1;
+        PacketPlayServerPlayerInfo.Item item = this.getClient().getPacketCache().getHandler(PlayerInfoCache.class).getItem(this.getUniqueId());
+        return item != null ? item.getPing() : -1;
     }
 
     @Override
@@ -524,9 +522,21 @@ public class BasicServiceConnection extends BasicInteractiveServiceConnection im
         }
 
         this.client.disconnect();
+
         this.serviceRegistry.getProviderUnchecked(ServiceConnector.class).getOnlineClients().remove(this);
     }
 
+    public RoundTripTimeHistogram getRoundTripTimes() {
+        return this.roundTripTimes;
+    }
+
+    void updateConnectorState() {
+        ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
+        if (connector instanceof DefaultServiceConnector) {
+            ((DefaultServiceConnector) connector).updateConnectionState(this);
+        }
+    }
+
     @Override
     public void sendPacket(@NotNull Packet packet) {
         if (this.client == null) {
@@ -28,9 +28,11 @@ import com.github.phantompowered.proxy.api.connection.ServiceWorldDataProvider;
 import com.github.phantompowered.proxy.api.entity.PlayerInfo;
 import com.github.phantompowered.proxy.api.entity.types.Entity;
 import com.github.phantompowered.proxy.api.entity.types.living.human.EntityPlayer;
+import com.github.phantompowered.proxy.api.location.Location;
 import com.github.phantompowered.proxy.api.player.GameMode;
 import com.github.phantompowered.proxy.connection.cache.handler.*;
 import com.github.phantompowered.proxy.protocol.ProtocolIds;
+import com.github.phantompowered.proxy.protocol.play.server.PacketPlayServerPlayerInfo;
 import com.github.phantompowered.proxy.protocol.play.server.world.PacketPlayServerTimeUpdate;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -123,11 +125,8 @@ public class BasicServiceWorldDataProvider implements ServiceWorldDataProvider {
     public PlayerInfo getOnlinePlayer(@NotNull UUID uniqueId) {
         PlayerInfoCache cache = this.getPlayerInfoCache();
 
-        return cache.getItems().stream()
-                .filter(item -> item.getUniqueId().equals(uniqueId))
-                .findFirst()
-                .map(cache::toPlayerInfo)
-                .orElse(null);
+        PacketPlayServerPlayerInfo.Item item = cache.getItem(uniqueId);
+        return item != null ? cache.toPlayerInfo(item) : null;
     }
 
     @Override
@@ -169,22 +168,46 @@ public class BasicServiceWorldDataProvider implements ServiceWorldDataProvider {
         return this.getEntityCache().getEntities().get(entityId);
     }
 
+    @Override
+    public @Nullable Entity getEntityAt(double x, double y, double z) {
+        for (Entity entity : this.getEntitiesInWorld()) {
+            if (entity.getBoundingBox().contains(x, y, z)) {
+                return entity;
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public @NotNull Collection<Entity> getNearbyEntities(double maxDistance, @Nullable Predicate<Entity> tester) {
-        return this.getNearbyEntitiesAsStream(maxDistance, tester).collect(Collectors.toList());
+        Location location = this.connection.getLocation();
+        return this.getNearbyEntities(location.getX(), location.getY(), location.getZ(), maxDistance, tester);
+    }
+
+    @Override
+    public @NotNull Collection<Entity> getNearbyEntities(double x, double y, double z, double maxDistance, @Nullable Predicate<Entity> tester) {
+        return this.getNearbyEntitiesAsStream(x, y, z, maxDistance, tester).collect(Collectors.toList());
     }
 
     @NotNull
-    private Stream<? extends Entity> getNearbyEntitiesAsStream(double maxDistance, @Nullable Predicate<Entity> tester) {
+    private Stream<? extends Entity> getNearbyEntitiesAsStream(double x, double y, double z, double maxDistance, @Nullable Predicate<Entity> tester) {
         double distanceSquared = maxDistance * maxDistance;
         return this.getEntitiesInWorld().stream()
                 .filter(entity -> tester == null || tester.test(entity))
-                .filter(entity -> entity.getLocation().distanceSquared(this.connection.getLocation()) <= distanceSquared);
+                .filter(entity -> {
+                    Location location = entity.getLocation();
+                    double dX = location.getX() - x;
+                    double dY = location.getY() - y;
+                    double dZ = location.getZ() - z;
+                    return (dX * dX) + (dY * dY) + (dZ * dZ) <= distanceSquared;
+                });
     }
 
     @Override
     public @NotNull Collection<EntityPlayer> getNearbyPlayers(double maxDistance) {
-        return this.getNearbyEntitiesAsStream(maxDistance, entity -> entity instanceof EntityPlayer)
+        Location location = this.connection.getLocation();
+        return this.getNearbyEntitiesAsStream(location.getX(), location.getY(), location.getZ(), maxDistance, entity -> entity instanceof EntityPlayer)
                 .map(entity -> (EntityPlayer) entity)
                 .collect(Collectors.toList());
     }
@@ -33,6 +33,7 @@ import com.github.phantompowered.proxy.api.events.connection.service.ServiceConn
 import com.github.phantompowered.proxy.api.events.connection.service.ServiceDisconnectEvent;
 import com.github.phantompowered.proxy.api.network.NetworkAddress;
 import com.github.phantompowered.proxy.api.network.Packet;
+import com.github.phantompowered.proxy.api.network.channel.NetworkChannel;
 import com.github.phantompowered.proxy.api.network.exception.CancelProceedException;
 import com.github.phantompowered.proxy.api.network.registry.handler.PacketHandlerRegistry;
 import com.github.phantompowered.proxy.api.network.wrapper.ProtoBuf;
@@ -46,6 +47,8 @@ import com.github.phantompowered.proxy.api.task.Task;
 import com.github.phantompowered.proxy.api.tick.TickHandler;
 import com.github.phantompowered.proxy.connection.cache.PacketCache;
 import com.github.phantompowered.proxy.connection.cache.handler.scoreboard.ScoreboardCache;
+import com.github.phantompowered.proxy.connection.egress.EgressProxy;
+import com.github.phantompowered.proxy.connection.egress.EgressProxyPool;
 import com.github.phantompowered.proxy.connection.login.ProxyClientLoginListener;
 import com.github.phantompowered.proxy.connection.player.DefaultPlayer;
 import com.github.phantompowered.proxy.connection.player.scoreboard.BasicScoreboard;
@@ -68,10 +71,12 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
 import io.netty.handler.proxy.Socks5ProxyHandler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.net.InetSocketAddress;
 import java.util.Collection;
@@ -80,6 +85,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 public class ConnectedProxyClient extends DefaultNetworkChannel implements TickHandler {
@@ -102,7 +108,11 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
     private PlayerVelocityHandler velocityHandler = new PlayerVelocityHandler(this);
 
     private long lastAlivePacket = -1;
+    private EgressProxy egressProxy;
     private long lastDisconnectionTimestamp = System.currentTimeMillis();
+    private long throttledSince = -1;
+    private long throttledNanos;
+    private int throttles;
 
     private CompletableFuture<ServiceConnectResult> connectionHandler;
     private PlayerId lastConnectedPlayer;
@@ -136,6 +146,7 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         super.close();
         this.address = null;
         this.resetPacketCache();
+        this.setThrottled(false);
 
         if (this.connectionHandler != null) {
             this.connectionHandler.complete(ServiceConnectResult.failure(this.lastKickReason));
@@ -156,13 +167,19 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
     public void connect(NetworkAddress address, NetworkAddress proxy, Task<ServiceConnectResult> task) {
         this.disconnect();
 
+        // connections without an explicit proxy are distributed over the configured SOCKS5 proxies
+        EgressProxyPool egressProxyPool = this.serviceRegistry.getProviderUnchecked(EgressProxyPool.class);
+        EgressProxy egressProxy = proxy == null ? egressProxyPool.acquire() : null;
+        NetworkAddress socksAddress = egressProxy != null ? egressProxy.getAddress() : proxy;
+        this.egressProxy = egressProxy;
+
         ChannelInitializer<Channel> initializer = new ChannelInitializer<Channel>() {
             @Override
             protected void initChannel(@NotNull Channel channel) {
                 ConnectedProxyClient.this.serviceRegistry.getProviderUnchecked(SimpleChannelInitializer.class).initChannel(channel);
 
-                if (proxy != null) {
-                    channel.pipeline().addFirst(new Socks5ProxyHandler(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+                if (socksAddress != null) {
+                    channel.pipeline().addFirst(new Socks5ProxyHandler(new InetSocketAddress(socksAddress.getHost(), socksAddress.getPort())));
                 }
 
                 channel.pipeline().addAfter(NetworkUtils.LENGTH_DECODER, NetworkUtils.PACKET_DECODER,
@@ -174,6 +191,19 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         };
         ChannelFutureListener listener = future -> {
             if (future.isSuccess()) {
+                // the connect only reached the proxy, whether it works is known after the SOCKS5 handshake
+                Socks5ProxyHandler proxyHandler = future.channel().pipeline().get(Socks5ProxyHandler.class);
+                if (proxyHandler != null) {
+                    proxyHandler.connectFuture().addListener(handshake -> {
+                        if (handshake.isSuccess()) {
+                            egressProxyPool.handleConnectSuccess(egressProxy);
+                        } else {
+                            egressProxyPool.handleConnectFailure(egressProxy);
+                        }
+                    });
+                }
+                future.channel().closeFuture().addListener(closeFuture -> egressProxyPool.release(egressProxy));
+
                 super.setChannel(future.channel());
                 this.address = address;
 
@@ -181,6 +211,9 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
                 super.setProtocolState(ProtocolState.LOGIN);
                 super.write(new PacketLoginClientLoginRequest(this.getAccountName()));
             } else {
+                egressProxyPool.handleConnectFailure(egressProxy);
+                egressProxyPool.release(egressProxy);
+
                 future.channel().close();
                 task.complete(ServiceConnectResult.failure(future.cause() == null ? null : Component.text(ImplementationUtil.stringifyException(future.cause()))));
             }
@@ -188,12 +221,16 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
 
         this.connectionHandler = task;
 
+        // reconnects while a player is redirecting are registered directly on the event loop of the player
+        Channel redirectorChannel = this.getRedirectorChannel();
+
         new Bootstrap()
                 .channel(NetworkUtils.getSocketChannelClass())
-                .group(NetworkUtils.newEventLoopGroup())
+                .group(redirectorChannel != null ? redirectorChannel.eventLoop() : NetworkUtils.getWorkerGroup())
                 .handler(initializer)
+                .resolver(NetworkUtils.getMinecraftResolverGroup())
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 15000)
-                .connect(new InetSocketAddress(address.getHost(), address.getPort()))
+                .connect(InetSocketAddress.createUnresolved(address.getHost(), address.getPort()))
                 .addListener(listener)
                 .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
     }
@@ -202,6 +239,10 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         this.disconnectionHandler = disconnectionHandler;
     }
 
+    public EgressProxy getEgressProxy() {
+        return this.egressProxy;
+    }
+
     public long getLastDisconnectionTimestamp() {
         return this.lastDisconnectionTimestamp;
     }
@@ -294,11 +335,33 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         this.lastAlivePacket = lastAlivePacket;
     }
 
+    // the server measures the latency of this client in its keep alive cycle and sends it with the own player info entry
+    public void handleRoundTripTime(int millis) {
+        RoundTripTimeHistogram histogram = this.connection.getRoundTripTimes();
+        int previousBucket = histogram.getSelectionBucket();
+        histogram.record(millis);
+        if (previousBucket != histogram.getSelectionBucket()) {
+            this.connection.updateConnectorState();
+        }
+    }
+
+    public boolean isInSameWorld(ConnectedProxyClient other) {
+        return this.address != null && this.address.equals(other.address) && this.dimension == other.dimension;
+    }
+
     public void free() {
+        this.free(null);
+    }
+
+    public void free(@Nullable ConnectedProxyClient next) {
         Player redirector = this.redirector;
 
         if (redirector != null) {
-            this.packetCache.handleFree(redirector);
+            if (next != null) {
+                this.packetCache.handleFree(redirector, next.getPacketCache());
+            } else {
+                this.packetCache.handleFree(redirector);
+            }
             redirector.removeOutgoingPacketListener(this.redirectorListenerKey);
 
             this.lastDisconnectionTimestamp = System.currentTimeMillis();
@@ -306,6 +369,8 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         }
 
         this.redirector = null;
+        this.setThrottled(false);
+        this.connection.updateConnectorState();
     }
 
     public void blockPacketUntil(Predicate<Packet> tester, long until) {
@@ -345,6 +410,11 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         }
 
         if (this.redirector != null) {
+            Channel redirectorChannel = this.getRedirectorChannel();
+            if (redirectorChannel != null) {
+                ForwardingStatistics.handleForward(redirectorChannel.eventLoop().inEventLoop());
+            }
+
             if (deserialized != null) {
                 // rewrite to allow modifications by the packet handlers
                 this.redirector.sendPacket(deserialized);
@@ -361,12 +431,67 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
 
             if (!this.redirector.isConnected()) {
                 this.redirector = null;
+                this.setThrottled(false);
+                this.connection.updateConnectorState();
             }
         }
     }
 
+    // stops reading from the server while the channel of the redirecting player is unwritable, packets which were
+    // already read are still handled by the caches
+    public void handleRedirectorWritabilityChanged(boolean writable) {
+        this.setThrottled(!writable && this.redirector != null);
+    }
+
+    // the player might already be unwritable when it is attached, the listener only fires on changes
+    private void applyRedirectorWritability(Player con) {
+        if (con.getWrappedChannel() != null) {
+            this.handleRedirectorWritabilityChanged(con.getWrappedChannel().isWritable());
+        }
+    }
+
+    private synchronized void setThrottled(boolean throttled) {
+        Channel channel = super.getWrappedChannel();
+        if (throttled == (this.throttledSince != -1)) {
+            return;
+        }
+
+        if (throttled) {
+            this.throttledSince = System.nanoTime();
+            this.throttles++;
+        } else {
+            this.throttledNanos += System.nanoTime() - this.throttledSince;
+            this.throttledSince = -1;
+        }
+
+        if (channel != null) {
+            channel.config().setAutoRead(!throttled);
+        }
+    }
+
+    public synchronized boolean isThrottled() {
+        return this.throttledSince != -1;
+    }
+
+    public synchronized long getThrottledMillis() {
+        long nanos = this.throttledNanos;
+        if (this.throttledSince != -1) {
+            nanos += System.nanoTime() - this.throttledSince;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public synchronized int getThrottles() {
+        return this.throttles;
+    }
+
     public void handlePacketRedirected(Packet packet) {
         if (this.redirector != null) {
+            Channel channel = super.getWrappedChannel();
+            if (channel != null) {
+                ForwardingStatistics.handleForward(channel.eventLoop().inEventLoop());
+            }
+
             this.serviceRegistry.getProviderUnchecked(PacketHandlerRegistry.class).handlePacketReceive(packet, ProtocolDirection.TO_CLIENT, ProtocolState.REDIRECTING, this.connection);
         }
     }
@@ -406,14 +531,61 @@ public class ConnectedProxyClient extends DefaultNetworkChannel implements TickH
         }
     }
 
+    private @Nullable Channel getRedirectorChannel() {
+        Player redirector = this.redirector;
+        return redirector instanceof NetworkChannel ? ((NetworkChannel) redirector).getWrappedChannel() : null;
+    }
+
+    private void moveToEventLoopOf(Player player) {
+        Channel channel = super.getWrappedChannel();
+        Channel playerChannel = player instanceof NetworkChannel ? ((NetworkChannel) player).getWrappedChannel() : null;
+        if (channel == null || playerChannel == null || !channel.isRegistered()) {
+            return;
+        }
+
+        EventLoop target = playerChannel.eventLoop();
+        if (channel.eventLoop() == target) {
+            return;
+        }
+
+        // deregistration runs after the tasks already queued on the current loop, then the channel continues on the loop of the player
+        channel.eventLoop().execute(() -> channel.deregister().addListener(deregistered -> {
+            if (!deregistered.isSuccess() || !channel.isOpen()) {
+                return;
+            }
+
+            target.register(channel).addListener(registered -> {
+                if (registered.isSuccess()) {
+                    ForwardingStatistics.handleMigration();
+                } else {
+                    channel.close();
+                }
+            });
+        }));
+    }
+
     public void redirectPackets(Player con, boolean switched) {
         this.redirector = con;
+        this.connection.updateConnectorState();
         con.addOutgoingPacketListener(this.redirectorListenerKey, this::handlePacketRedirected);
+        this.moveToEventLoopOf(con);
+        this.applyRedirectorWritability(con);
 
         this.packetCache.send(con, switched);
         con.sendPacket(new PacketPlayServerEntityTeleport(this.entityId, this.connection.getLocation()));
     }
 
+    public void redirectPackets(Player con, ConnectedProxyClient previous) {
+        this.redirector = con;
+        this.connection.updateConnectorState();
+        con.addOutgoingPacketListener(this.redirectorListenerKey, this::handlePacketRedirected);
+        this.moveToEventLoopOf(con);
+        this.applyRedirectorWritability(con);
+
+        this.packetCache.sendDelta(con, previous.getPacketCache());
+        con.sendPacket(new PacketPlayServerEntityTeleport(this.entityId, this.connection.getLocation()));
+    }
+
     public void connectionSuccess() {
         if (this.connectionHandler != null) {
             this.connectionHandler.complete(ServiceConnectResult.success());
@@ -15,20 +15,90 @@ import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DefaultServiceConnector implements ServiceConnector {
 
     private final ServiceRegistry serviceRegistry;
     private final Collection<BasicServiceConnection> onlineClients = new CopyOnWriteArrayList<>();
+    // changes through the returned collection have to go through the registration to keep the indexes in sync
+    private final Collection<BasicServiceConnection> onlineClientsView = new AbstractCollection<BasicServiceConnection>() {
+        @Override
+        public @NotNull Iterator<BasicServiceConnection> iterator() {
+            Iterator<BasicServiceConnection> iterator = DefaultServiceConnector.this.onlineClients.iterator();
+            return new Iterator<BasicServiceConnection>() {
+                private BasicServiceConnection current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public BasicServiceConnection next() {
+                    return this.current = iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (this.current == null) {
+                        throw new IllegalStateException();
+                    }
+
+                    DefaultServiceConnector.this.unregisterConnection(this.current);
+                    this.current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return DefaultServiceConnector.this.onlineClients.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return DefaultServiceConnector.this.onlineClients.contains(o);
+        }
+
+        @Override
+        public boolean add(BasicServiceConnection connection) {
+            return DefaultServiceConnector.this.registerConnection(connection);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return o instanceof BasicServiceConnection && DefaultServiceConnector.this.unregisterConnection((BasicServiceConnection) o);
+        }
+    };
     private final Map<UUID, ReconnectProfile> reconnectProfiles = new ConcurrentHashMap<>();
 
+    private final AtomicLong registrationCounter = new AtomicLong();
+    private final Map<BasicServiceConnection, Long> registrations = new ConcurrentHashMap<>();
+    // free connections ordered by their latency to the server and then by the order in which they were created,
+    // this is the order in which findBestConnection picks them
+    private final ConcurrentSkipListMap<SelectionKey, BasicServiceConnection> freeClients = new ConcurrentSkipListMap<>();
+    private final Map<BasicServiceConnection, SelectionKey> freeClientKeys = new ConcurrentHashMap<>();
+
+    private final Map<UUID, BasicServiceConnection> clientsByUniqueId = new ConcurrentHashMap<>();
+    private final Map<String, BasicServiceConnection> clientsByName = new ConcurrentHashMap<>();
+    private final Map<String, BasicServiceConnection> clientsByEmail = new ConcurrentHashMap<>();
+
+    private final Map<BasicServiceConnection, Player> redirectors = new ConcurrentHashMap<>();
+    private final Map<UUID, BasicServiceConnection> clientsByPlayerUniqueId = new ConcurrentHashMap<>();
+    private final Map<String, BasicServiceConnection> clientsByPlayerName = new ConcurrentHashMap<>();
+
     public DefaultServiceConnector(ServiceRegistry serviceRegistry) {
         this.serviceRegistry = serviceRegistry;
     }
@@ -43,37 +113,126 @@ public class DefaultServiceConnector implements ServiceConnector {
         if (player != null && this.reconnectProfiles.containsKey(player)) {
             ReconnectProfile profile = this.reconnectProfiles.get(player);
             if (System.currentTimeMillis() < profile.getTimeout()) {
-                Optional<BasicServiceConnection> optionalClient = this.onlineClients.stream()
-                        .filter(connection -> connection.getPlayer() == null)
-                        .filter(connection -> profile.getTargetUniqueId().equals(connection.getUniqueId()))
-                        .findFirst();
-                if (optionalClient.isPresent()) {
+                BasicServiceConnection target = this.clientsByUniqueId.get(profile.getTargetUniqueId());
+                if (target != null && target.getPlayer() == null) {
                     this.reconnectProfiles.remove(player);
-                    return optionalClient.get();
+                    return target;
                 }
             }
         }
 
-        return this.onlineClients.stream()
-                .filter(proxyClient -> proxyClient.getPlayer() == null)
-                .filter(proxyClient -> !this.reconnectProfiles.containsKey(proxyClient.getUniqueId()))
-                .findFirst().orElse(null);
+        for (BasicServiceConnection connection : this.freeClients.values()) {
+            if (connection.getPlayer() == null && !this.reconnectProfiles.containsKey(connection.getUniqueId())) {
+                return connection;
+            }
+        }
+        return null;
     }
 
     @Override
     public @NotNull ServiceConnection createConnection(MCServiceCredentials credentials, NetworkAddress serverAddress) throws AuthenticationException {
         BasicServiceConnection connection = new BasicServiceConnection(this.serviceRegistry, credentials, serverAddress, ProtocolIds.Versions.MINECRAFT_1_8);
-        this.onlineClients.add(connection);
+        this.registerConnection(connection);
         return connection;
     }
 
     @Override
     public ServiceConnection createConnection(MCServiceCredentials credentials, UserAuthentication authentication, NetworkAddress serverAddress) throws AuthenticationException {
         BasicServiceConnection connection = new BasicServiceConnection(this.serviceRegistry, credentials, authentication, serverAddress, ProtocolIds.Versions.MINECRAFT_1_8);
-        this.onlineClients.add(connection);
+        this.registerConnection(connection);
         return connection;
     }
 
+    private synchronized boolean registerConnection(BasicServiceConnection connection) {
+        if (this.registrations.containsKey(connection)) {
+            return false;
+        }
+
+        this.registrations.put(connection, this.registrationCounter.getAndIncrement());
+        this.onlineClients.add(connection);
+
+        if (connection.getUniqueId() != null) {
+            this.clientsByUniqueId.put(connection.getUniqueId(), connection);
+        }
+        if (connection.getName() != null) {
+            this.clientsByName.put(connection.getName(), connection);
+        }
+        if (connection.getCredentials().getEmail() != null) {
+            this.clientsByEmail.put(connection.getCredentials().getEmail(), connection);
+        }
+
+        this.updateConnectionState(connection);
+        return true;
+    }
+
+    public synchronized boolean unregisterConnection(BasicServiceConnection connection) {
+        Long id = this.registrations.remove(connection);
+        if (id == null) {
+            return false;
+        }
+
+        this.onlineClients.remove(connection);
+        SelectionKey key = this.freeClientKeys.remove(connection);
+        if (key != null) {
+            this.freeClients.remove(key);
+        }
+
+        if (connection.getUniqueId() != null) {
+            this.clientsByUniqueId.remove(connection.getUniqueId(), connection);
+        }
+        if (connection.getName() != null) {
+            this.clientsByName.remove(connection.getName(), connection);
+        }
+        if (connection.getCredentials().getEmail() != null) {
+            this.clientsByEmail.remove(connection.getCredentials().getEmail(), connection);
+        }
+
+        Player redirector = this.redirectors.remove(connection);
+        if (redirector != null) {
+            this.unindexPlayer(redirector, connection);
+        }
+        return true;
+    }
+
+    // called whenever the player of a connection might have changed to keep the free queue and the player indexes up to date
+    public synchronized void updateConnectionState(BasicServiceConnection connection) {
+        Long id = this.registrations.get(connection);
+        if (id == null) {
+            return;
+        }
+
+        Player player = connection.getPlayer();
+        SelectionKey currentKey = this.freeClientKeys.get(connection);
+        if (player == null) {
+            SelectionKey key = new SelectionKey(connection.getRoundTripTimes().getSelectionBucket(), id);
+            if (currentKey == null || currentKey.compareTo(key) != 0) {
+                if (currentKey != null) {
+                    this.freeClients.remove(currentKey);
+                }
+                this.freeClients.put(key, connection);
+                this.freeClientKeys.put(connection, key);
+            }
+        } else if (currentKey != null) {
+            this.freeClients.remove(currentKey);
+            this.freeClientKeys.remove(connection);
+        }
+
+        Player previous = player == null ? this.redirectors.remove(connection) : this.redirectors.put(connection, player);
+        if (previous != null && previous != player) {
+            this.unindexPlayer(previous, connection);
+        }
+        if (player != null) {
+            this.clientsByPlayerUniqueId.put(player.getUniqueId(), connection);
+            this.clientsByPlayerName.put(player.getName().toLowerCase(Locale.ROOT), connection);
+        }
+    }
+
+    private void unindexPlayer(Player player, BasicServiceConnection connection) {
+        // the player might already be connected with another client, remove the entries only if they still point to this one
+        this.clientsByPlayerUniqueId.remove(player.getUniqueId(), connection);
+        this.clientsByPlayerName.remove(player.getName().toLowerCase(Locale.ROOT), connection);
+    }
+
     public void setReconnectTarget(UUID uniqueId, UUID targetUniqueId) {
         this.reconnectProfiles.put(uniqueId, new ReconnectProfile(uniqueId, targetUniqueId));
     }
@@ -81,31 +240,54 @@ public class DefaultServiceConnector implements ServiceConnector {
     @Override
     @NotNull
     public Optional<ServiceConnection> getClientByEmail(String email) {
-        return this.onlineClients.stream()
-                .filter(connection -> connection.getCredentials().getEmail() != null)
-                .filter(connection -> connection.getCredentials().getEmail().equals(email))
-                .map(connection -> (ServiceConnection) connection)
-                .findFirst();
+        return email == null ? Optional.empty() : Optional.ofNullable(this.clientsByEmail.get(email));
     }
 
     @Override
     public Optional<ServiceConnection> getClientByName(String name) {
-        return this.onlineClients.stream()
-                .filter(connection -> connection.getName() != null && connection.getName().equals(name))
-                .map(connection -> (ServiceConnection) connection)
-                .findFirst();
+        return name == null ? Optional.empty() : Optional.ofNullable(this.clientsByName.get(name));
+    }
+
+    @Nullable
+    public BasicServiceConnection getClientByUniqueId(UUID uniqueId) {
+        return uniqueId == null ? null : this.clientsByUniqueId.get(uniqueId);
+    }
+
+    @NotNull
+    public Collection<Player> getOnlinePlayers() {
+        return new ArrayList<>(this.redirectors.values());
+    }
+
+    @Nullable
+    public Player getOnlinePlayer(UUID uniqueId) {
+        BasicServiceConnection connection = uniqueId == null ? null : this.clientsByPlayerUniqueId.get(uniqueId);
+        Player player = connection == null ? null : connection.getPlayer();
+        return player != null && player.getUniqueId().equals(uniqueId) ? player : null;
+    }
+
+    @Nullable
+    public Player getOnlinePlayer(String name) {
+        BasicServiceConnection connection = name == null ? null : this.clientsByPlayerName.get(name.toLowerCase(Locale.ROOT));
+        Player player = connection == null ? null : connection.getPlayer();
+        return player != null && player.getName().equalsIgnoreCase(name) ? player : null;
     }
 
     @Override
     @NotNull
     public Collection<BasicServiceConnection> getOnlineClients() {
-        return this.onlineClients;
+        return this.onlineClientsView;
     }
 
     @Override
     @NotNull
     public Collection<ServiceConnection> getFreeClients() {
-        return this.getOnlineClients().stream().filter(proxyClient -> proxyClient.getPlayer() == null).collect(Collectors.toList());
+        Collection<ServiceConnection> result = new ArrayList<>(this.freeClients.size());
+        for (BasicServiceConnection connection : this.freeClients.values()) {
+            if (connection.getPlayer() == null) {
+                result.add(connection);
+            }
+        }
+        return result;
     }
 
     public Map<UUID, ReconnectProfile> getReconnectProfiles() {
@@ -127,4 +309,21 @@ public class DefaultServiceConnector implements ServiceConnector {
             onlineClient.getClient().handleTick();
         }
     }
+
+    private static final class SelectionKey implements Comparable<SelectionKey> {
+
+        private final int latencyBucket;
+        private final long registration;
+
+        private SelectionKey(int latencyBucket, long registration) {
+            this.latencyBucket = latencyBucket;
+            this.registration = registration;
+        }
+
+        @Override
+        public int compareTo(@NotNull SelectionKey other) {
+            int result = Integer.compare(this.latencyBucket, other.latencyBucket);
+            return result != 0 ? result : Long.compare(this.registration, other.registration);
+        }
+    }
 }
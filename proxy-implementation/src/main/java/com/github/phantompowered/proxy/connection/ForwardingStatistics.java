@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ForwardingStatistics {
+
+    private static final LongAdder FORWARDED_PACKETS = new LongAdder();
+    private static final LongAdder CROSS_THREAD_PACKETS = new LongAdder();
+    private static final LongAdder MIGRATIONS = new LongAdder();
+
+    private ForwardingStatistics() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void handleForward(boolean sameEventLoop) {
+        FORWARDED_PACKETS.increment();
+        if (!sameEventLoop) {
+            CROSS_THREAD_PACKETS.increment();
+        }
+    }
+
+    static void handleMigration() {
+        MIGRATIONS.increment();
+    }
+
+    public static long getForwardedPackets() {
+        return FORWARDED_PACKETS.sum();
+    }
+
+    public static long getCrossThreadPackets() {
+        return CROSS_THREAD_PACKETS.sum();
+    }
+
+    public static long getMigrations() {
+        return MIGRATIONS.sum();
+    }
+
+    public static String describe() {
+        long forwarded = getForwardedPackets();
+        long crossThread = getCrossThreadPackets();
+        return forwarded + " forwarded packets, " + crossThread + " crossed threads ("
+                + String.format("%.1f", forwarded == 0 ? 0D : crossThread * 100D / forwarded) + "%), "
+                + getMigrations() + " bot connections moved to the event loop of their player";
+    }
+}
@@ -37,7 +37,7 @@ public class ProxyServer implements AutoCloseable {
 
     private final ServiceRegistry serviceRegistry;
     private final EventLoopGroup bossGroup = NetworkUtils.newEventLoopGroup();
-    private final EventLoopGroup workerGroup = NetworkUtils.newEventLoopGroup();
+    private final EventLoopGroup workerGroup = NetworkUtils.getWorkerGroup();
 
     public ProxyServer(ServiceRegistry serviceRegistry) {
         this.serviceRegistry = serviceRegistry;
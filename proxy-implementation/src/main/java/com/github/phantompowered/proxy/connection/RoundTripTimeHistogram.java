@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection;
+
+public class RoundTripTimeHistogram {
+
+    private static final int[] BUCKET_LIMITS = {25, 50, 100, 150, 250, 500, 1000};
+
+    private final long[] counts = new long[BUCKET_LIMITS.length + 1];
+    private int latest = -1;
+    private double smoothed = -1;
+    private long samples;
+
+    private static int bucketOf(double millis) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (millis < BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS.length;
+    }
+
+    public synchronized void record(int millis) {
+        this.counts[bucketOf(millis)]++;
+        this.latest = millis;
+        this.smoothed = this.smoothed < 0 ? millis : this.smoothed * 0.75 + millis * 0.25;
+        this.samples++;
+    }
+
+    public synchronized int getLatest() {
+        return this.latest;
+    }
+
+    public synchronized int getSmoothed() {
+        return this.smoothed < 0 ? -1 : (int) Math.round(this.smoothed);
+    }
+
+    public synchronized long getSamples() {
+        return this.samples;
+    }
+
+    public synchronized long[] getCounts() {
+        return this.counts.clone();
+    }
+
+    // connections without any measurement are ranked behind all measured ones
+    public synchronized int getSelectionBucket() {
+        return this.smoothed < 0 ? BUCKET_LIMITS.length + 1 : bucketOf(this.smoothed);
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (this.samples == 0) {
+            return "no samples";
+        }
+
+        StringBuilder builder = new StringBuilder()
+                .append(this.getSmoothed()).append("ms (last ").append(this.latest).append("ms, ").append(this.samples).append(" samples)");
+        for (int i = 0; i < this.counts.length; i++) {
+            builder.append(i == 0 ? ": " : ", ")
+                    .append(i < BUCKET_LIMITS.length ? "<" + BUCKET_LIMITS[i] : ">=" + BUCKET_LIMITS[BUCKET_LIMITS.length - 1])
+                    .append("ms ").append(this.counts[i]);
+        }
+        return builder.toString();
+    }
+}
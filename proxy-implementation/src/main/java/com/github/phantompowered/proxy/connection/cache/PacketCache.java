@@ -114,11 +114,19 @@ public class PacketCache {
     }
 
     public int getBlockStateAt(Location pos) {
-        return this.getHandler(ChunkCache.class).getBlockStateAt(pos);
+        return this.getBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    public int getBlockStateAt(int x, int y, int z) {
+        return this.getHandler(ChunkCache.class).getBlockStateAt(x, y, z);
     }
 
     public Material getMaterialAt(Location pos) {
-        int state = this.getBlockStateAt(pos);
+        return this.getMaterialAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    public Material getMaterialAt(int x, int y, int z) {
+        int state = this.getBlockStateAt(x, y, z);
         return this.targetProxyClient.getServiceRegistry().getProviderUnchecked(BlockStateRegistry.class).getMaterial(state);
     }
 
@@ -134,17 +142,34 @@ public class PacketCache {
         }
     }
 
+    public void sendDelta(Player connection, PacketCache previous) {
+        for (PacketCacheHandler handler : this.handlers) {
+            if (handler.sendOnSwitch()) {
+                handler.sendCached(connection, this.targetProxyClient, previous.getMatchingHandler(handler));
+            }
+        }
+    }
+
     public void handleFree(Player connection) {
         for (PacketCacheHandler handler : this.handlers) {
             handler.onClientSwitch(connection);
         }
     }
 
+    public void handleFree(Player connection, PacketCache next) {
+        for (PacketCacheHandler handler : this.handlers) {
+            handler.onClientSwitch(connection, next.getMatchingHandler(handler));
+        }
+    }
+
+    private PacketCacheHandler getMatchingHandler(PacketCacheHandler handler) {
+        return this.getHandler(other -> other.getClass() == handler.getClass() && Arrays.equals(other.getPacketIDs(), handler.getPacketIDs()));
+    }
+
     public void reset() {
         this.handlers.clear();
 
         ChunkCache chunkCache = new ChunkCache();
-        SignCache signCache = new SignCache();
 
         this.handlers.addAll(Arrays.asList(
                 // THE ORDER IS IMPORTANT
@@ -162,11 +187,11 @@ public class PacketCache {
                 new EntityCache(),
                 new EntityEffectCache(),
                 new MiniMapCache(),
-                signCache,
+                new BlockEntityCache(chunkCache),
                 new ScoreboardCache(),
                 new GameStateCache()
         ));
 
-        this.blockAccess = new DefaultBlockAccess(this.targetProxyClient.getServiceRegistry(), chunkCache, signCache);
+        this.blockAccess = new DefaultBlockAccess(this.targetProxyClient.getServiceRegistry(), chunkCache);
     }
 }
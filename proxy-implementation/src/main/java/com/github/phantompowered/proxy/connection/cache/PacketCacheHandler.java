@@ -40,6 +40,16 @@ public interface PacketCacheHandler {
 
     void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient);
 
+    /**
+     * Sends only the parts of this cache that are not already shown to the player because they were kept from the
+     * previous client in {@link #onClientSwitch(Player, PacketCacheHandler)}.
+     *
+     * @param previous the handler of the same type from the client the player is switching away from
+     */
+    default void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient, PacketCacheHandler previous) {
+        this.sendCached(con, targetProxyClient);
+    }
+
     default boolean sendOnSwitch() {
         return true;
     }
@@ -47,4 +57,14 @@ public interface PacketCacheHandler {
     default void onClientSwitch(Player con) {
     }
 
+    /**
+     * Called instead of {@link #onClientSwitch(Player)} when the player switches to a client in the same world, only
+     * the parts which are not present in the next cache have to be removed from the player.
+     *
+     * @param next the handler of the same type from the client the player is switching to
+     */
+    default void onClientSwitch(Player con, PacketCacheHandler next) {
+        this.onClientSwitch(con);
+    }
+
 }
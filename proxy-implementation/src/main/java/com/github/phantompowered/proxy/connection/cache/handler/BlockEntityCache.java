@@ -24,53 +24,55 @@
  */
 package com.github.phantompowered.proxy.connection.cache.handler;
 
-import com.github.phantompowered.proxy.api.block.material.Material;
-import com.github.phantompowered.proxy.api.location.Location;
 import com.github.phantompowered.proxy.api.network.Packet;
 import com.github.phantompowered.proxy.api.network.PacketSender;
+import com.github.phantompowered.proxy.block.chunk.Chunk;
 import com.github.phantompowered.proxy.connection.ConnectedProxyClient;
 import com.github.phantompowered.proxy.connection.cache.PacketCache;
 import com.github.phantompowered.proxy.connection.cache.PacketCacheHandler;
 import com.github.phantompowered.proxy.protocol.ProtocolIds;
+import com.github.phantompowered.proxy.protocol.play.server.entity.PacketPlayServerUpdateTileEntity;
 import com.github.phantompowered.proxy.protocol.play.server.world.PacketPlayServerUpdateSign;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+// the block entities are stored in the chunks of the ChunkCache and are dropped together with them
+public class BlockEntityCache implements PacketCacheHandler {
 
-public class SignCache implements PacketCacheHandler {
+    private final ChunkCache chunkCache;
 
-    private final Map<Location, PacketPlayServerUpdateSign> signUpdates = new ConcurrentHashMap<>();
-
-    private PacketCache packetCache;
+    public BlockEntityCache(ChunkCache chunkCache) {
+        this.chunkCache = chunkCache;
+    }
 
     @Override
     public int[] getPacketIDs() {
-        return new int[]{ProtocolIds.ToClient.Play.UPDATE_SIGN};
+        return new int[]{ProtocolIds.ToClient.Play.UPDATE_SIGN, ProtocolIds.ToClient.Play.TILE_ENTITY_DATA};
     }
 
     @Override
     public void cachePacket(PacketCache packetCache, Packet newPacket) {
-        this.packetCache = packetCache;
+        if (newPacket instanceof PacketPlayServerUpdateSign) {
+            PacketPlayServerUpdateSign sign = (PacketPlayServerUpdateSign) newPacket;
+            this.cacheBlockEntity(sign.getLocation().getBlockX(), sign.getLocation().getBlockY(), sign.getLocation().getBlockZ(), sign);
+        } else if (newPacket instanceof PacketPlayServerUpdateTileEntity) {
+            PacketPlayServerUpdateTileEntity tileEntity = (PacketPlayServerUpdateTileEntity) newPacket;
+            this.cacheBlockEntity(tileEntity.getLocation().getBlockX(), tileEntity.getLocation().getBlockY(), tileEntity.getLocation().getBlockZ(), tileEntity);
+        }
+    }
 
-        PacketPlayServerUpdateSign sign = (PacketPlayServerUpdateSign) newPacket;
-        this.signUpdates.put(sign.getLocation(), sign);
+    private void cacheBlockEntity(int x, int y, int z, Packet packet) {
+        Chunk chunk = this.chunkCache.getChunk(x >> 4, z >> 4);
+        // the client ignores updates in chunks that are not loaded
+        if (chunk != null) {
+            chunk.setBlockEntity(x, y, z, packet);
+        }
     }
 
     @Override
     public void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient) {
-        for (Map.Entry<Location, PacketPlayServerUpdateSign> entry : this.signUpdates.entrySet()) {
-            Material material = this.packetCache.getMaterialAt(entry.getKey());
-
-            if (material != Material.WALL_SIGN && material != Material.SIGN_POST) {
-                this.signUpdates.remove(entry.getKey());
-                continue;
+        for (Chunk chunk : this.chunkCache.getChunks()) {
+            for (Packet packet : chunk.getBlockEntities().values()) {
+                con.sendPacket(packet);
             }
-
-            con.sendPacket(entry.getValue());
         }
     }
-
-    public Map<Location, PacketPlayServerUpdateSign> getSignUpdates() {
-        return this.signUpdates;
-    }
 }
@@ -41,17 +41,25 @@ import com.github.phantompowered.proxy.protocol.play.server.world.material.Packe
 import com.github.phantompowered.proxy.protocol.play.server.world.material.PacketPlayServerMultiBlockChange;
 
 import java.util.Collection;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChunkCache implements PacketCacheHandler {
 
-    private final Collection<Chunk> chunks = new CopyOnWriteArrayList<>();
+    private final Map<Long, Chunk> chunks = new ConcurrentHashMap<>();
     private int dimension;
 
     private Player connectedPlayer;
+    private Set<Long> keptOnSwitch;
 
     private DefaultBlockAccess blockAccess;
 
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | chunkZ & 0xFFFFFFFFL;
+    }
+
     public void setBlockAccess(DefaultBlockAccess blockAccess) {
         this.blockAccess = blockAccess;
     }
@@ -102,27 +110,30 @@ public class ChunkCache implements PacketCacheHandler {
 
             PacketPlayServerBlockChange blockUpdate = (PacketPlayServerBlockChange) packet;
 
-            this.handleBlockUpdate(blockUpdate.getPos(), blockUpdate.getBlockState());
+            Location pos = blockUpdate.getPos();
+
+            this.handleBlockUpdate(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), blockUpdate.getBlockState());
 
         } else if (packet instanceof PacketPlayServerMultiBlockChange) {
 
             PacketPlayServerMultiBlockChange multiBlockUpdate = (PacketPlayServerMultiBlockChange) packet;
 
             for (PacketPlayServerMultiBlockChange.BlockUpdateData updateData : multiBlockUpdate.getUpdateData()) {
-                this.handleBlockUpdate(updateData.getPos(), updateData.getBlockState());
+                this.handleBlockUpdate(updateData.getX(), updateData.getY(), updateData.getZ(), updateData.getBlockState());
             }
 
         }
     }
 
-    private void handleBlockUpdate(Location pos, int newBlockState) {
+    private void handleBlockUpdate(int x, int y, int z, int newBlockState) {
+        Chunk chunk = this.getChunk(x >> 4, z >> 4);
+
         if (this.blockAccess != null) {
-            this.blockAccess.handleBlockUpdate(pos, this.getBlockStateAt(pos), newBlockState);
+            this.blockAccess.handleBlockUpdate(x, y, z, chunk != null ? chunk.getBlockStateAt(x, y, z) : -1, newBlockState);
         }
 
-        Chunk chunk = this.getChunk(pos);
         if (chunk != null) {
-            chunk.setBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), newBlockState);
+            chunk.setBlockStateAt(x, y, z, newBlockState);
         }
     }
 
@@ -132,9 +143,19 @@ public class ChunkCache implements PacketCacheHandler {
             return null;
         }
 
-        Chunk chunk = new Chunk();
-        chunk.fillChunk(chunkData, this.dimension);
-        this.chunks.add(chunk);
+        Chunk chunk;
+        if (chunkData.isFullChunk()) {
+            chunk = new Chunk();
+            chunk.fillChunk(chunkData, this.dimension);
+            this.chunks.put(chunkKey(chunkData.getX(), chunkData.getZ()), chunk);
+        } else {
+            // a partial chunk only contains the sections in its bitmask, the other ones and the block entities stay as they are
+            chunk = this.getChunk(chunkData.getX(), chunkData.getZ());
+            if (chunk == null) {
+                return null;
+            }
+            chunk.fillChunk(chunkData, this.dimension);
+        }
 
         if (this.blockAccess != null) {
             this.blockAccess.handleChunkLoad(cache.getTargetProxyClient().getConnection(), chunk);
@@ -144,43 +165,52 @@ public class ChunkCache implements PacketCacheHandler {
     }
 
     private void unload(PacketCache cache, int x, int z) {
-        for (Chunk chunk : this.chunks) {
-            if (chunk.getX() == x && chunk.getZ() == z) {
-                if (this.blockAccess != null) {
-                    this.blockAccess.handleChunkUnload(cache.getTargetProxyClient().getConnection(), chunk);
-                }
-                this.chunks.remove(chunk);
-            }
+        Chunk chunk = this.chunks.remove(chunkKey(x, z));
+        if (chunk != null && this.blockAccess != null) {
+            this.blockAccess.handleChunkUnload(cache.getTargetProxyClient().getConnection(), chunk);
         }
     }
 
     public void setBlockStateAt(Location pos, int blockState) {
-        Chunk chunk = this.getChunk(pos);
+        this.setBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), blockState);
+    }
+
+    public void setBlockStateAt(int x, int y, int z, int blockState) {
+        Chunk chunk = this.getChunk(x >> 4, z >> 4);
         if (chunk == null) {
             return;
         }
-        chunk.setBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ(), blockState);
+        chunk.setBlockStateAt(x, y, z, blockState);
 
         if (this.connectedPlayer != null) {
-            this.connectedPlayer.sendPacket(new PacketPlayServerBlockChange(pos, blockState));
+            this.connectedPlayer.sendPacket(new PacketPlayServerBlockChange(new Location(x, y, z), blockState));
         }
     }
 
     public int getBlockStateAt(Location pos) {
-        Chunk chunk = this.getChunk(pos);
+        return this.getBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+    }
+
+    public int getBlockStateAt(int x, int y, int z) {
+        Chunk chunk = this.getChunk(x >> 4, z >> 4);
         if (chunk == null) {
             return -1;
         }
 
-        return chunk.getBlockStateAt(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+        return chunk.getBlockStateAt(x, y, z);
     }
 
     public Collection<Chunk> getChunks() {
-        return this.chunks;
+        return this.chunks.values();
+    }
+
+    public Chunk getChunk(int chunkX, int chunkZ) {
+        return this.chunks.get(chunkKey(chunkX, chunkZ));
     }
 
-    public Chunk getChunk(int x, int z) {
-        return this.chunks.stream().filter(chunkData -> chunkData.getX() == x && chunkData.getZ() == z).findFirst().orElse(null);
+    public Packet getBlockEntity(long packedPos) {
+        Chunk chunk = this.getChunk(Location.unpackX(packedPos) >> 4, Location.unpackZ(packedPos) >> 4);
+        return chunk != null ? chunk.getBlockEntities().get(packedPos) : null;
     }
 
     public Chunk getChunk(Location pos) {
@@ -191,6 +221,10 @@ public class ChunkCache implements PacketCacheHandler {
         return this.getChunk(pos) != null;
     }
 
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return this.getChunk(chunkX, chunkZ) != null;
+    }
+
     public int getDimension() {
         return this.dimension;
     }
@@ -201,7 +235,7 @@ public class ChunkCache implements PacketCacheHandler {
             this.connectedPlayer = (Player) sender;
         }
 
-        for (Chunk chunk : this.chunks) {
+        for (Chunk chunk : this.chunks.values()) {
             if (chunk.getLastChunkData() == null) {
                 continue;
             }
@@ -210,6 +244,77 @@ public class ChunkCache implements PacketCacheHandler {
         }
     }
 
+    @Override
+    public void sendCached(PacketSender sender, ConnectedProxyClient targetProxyClient, PacketCacheHandler previous) {
+        if (!(previous instanceof ChunkCache)) {
+            this.sendCached(sender, targetProxyClient);
+            return;
+        }
+
+        if (sender instanceof Player) {
+            this.connectedPlayer = (Player) sender;
+        }
+
+        ChunkCache previousCache = (ChunkCache) previous;
+        Set<Long> kept = previousCache.keptOnSwitch != null ? previousCache.keptOnSwitch : new HashSet<>();
+        previousCache.keptOnSwitch = null;
+
+        for (Map.Entry<Long, Chunk> entry : this.chunks.entrySet()) {
+            Chunk chunk = entry.getValue();
+            if (chunk.getLastChunkData() == null) {
+                continue;
+            }
+
+            if (kept.remove(entry.getKey())) {
+                Chunk previousChunk = previousCache.chunks.get(entry.getKey());
+                if (previousChunk != null && chunk.hasSameContent(previousChunk)) {
+                    continue;
+                }
+            }
+
+            sender.sendPacket(new PacketPlayServerMapChunk(chunk.getX(), chunk.getZ(), true, chunk.getBytes(this.dimension)));
+        }
+
+        // chunks that were kept on the client but unloaded in this cache in the meantime
+        for (Long key : kept) {
+            sender.sendPacket(this.createUnloadPacket((int) (key >> 32), (int) (long) key));
+        }
+    }
+
+    @Override
+    public void onClientSwitch(Player con, PacketCacheHandler next) {
+        if (!(next instanceof ChunkCache)) {
+            this.onClientSwitch(con);
+            return;
+        }
+
+        Map<Long, Chunk> nextChunks = ((ChunkCache) next).chunks;
+        Set<Long> kept = new HashSet<>();
+
+        for (Map.Entry<Long, Chunk> entry : this.chunks.entrySet()) {
+            Chunk chunk = entry.getValue();
+            if (chunk.getLastChunkData() == null) {
+                continue;
+            }
+
+            if (nextChunks.containsKey(entry.getKey())) {
+                kept.add(entry.getKey());
+            } else {
+                con.sendPacket(this.createUnloadPacket(chunk.getX(), chunk.getZ()));
+            }
+        }
+
+        this.keptOnSwitch = kept;
+    }
+
+    private PacketPlayServerMapChunk createUnloadPacket(int chunkX, int chunkZ) {
+        // a full chunk without any sections unloads the chunk on the client
+        PacketPlayServerMapChunk.ChunkData chunkData = new PacketPlayServerMapChunk.ChunkData();
+        chunkData.dataLength = 0;
+        chunkData.data = new byte[0];
+        return new PacketPlayServerMapChunk(chunkX, chunkZ, true, chunkData);
+    }
+
     @Override
     public void onClientSwitch(Player con) {
         /*for (Chunk chunk : this.chunks) {
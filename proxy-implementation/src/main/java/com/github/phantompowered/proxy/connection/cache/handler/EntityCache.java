@@ -60,10 +60,14 @@ import java.util.concurrent.TimeUnit;
 
 public class EntityCache implements PacketCacheHandler {
 
+    // both clients receive the movement of the same entity slightly apart from each other
+    private static final double MAX_KEPT_DISTANCE_SQUARED = 4 * 4;
+
     private final Map<Integer, ProxyEntity> entities = new ConcurrentHashMap<>();
     private final DataWatcher ownMetadata = new DataWatcher();
     private int cameraTargetId = -1;
     private PacketCache packetCache;
+    private Set<Integer> keptOnSwitch;
 
     @Override
     public int[] getPacketIDs() {
@@ -162,6 +166,40 @@ public class EntityCache implements PacketCacheHandler {
             entity.spawn(con);
         }
 
+        this.sendCamera(con, targetProxyClient);
+        con.sendPacket(new PacketPlayServerEntityMetadata(targetProxyClient.getEntityId(), this.ownMetadata.getObjects()));
+    }
+
+    @Override
+    public void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient, PacketCacheHandler previous) {
+        if (this.packetCache == null || !(previous instanceof EntityCache)) {
+            this.sendCached(con, targetProxyClient);
+            return;
+        }
+
+        EntityCache previousCache = (EntityCache) previous;
+        Set<Integer> kept = previousCache.keptOnSwitch != null ? previousCache.keptOnSwitch : new HashSet<>();
+        previousCache.keptOnSwitch = null;
+
+        for (ProxyEntity entity : this.entities.values()) {
+            if (kept.remove(entity.getEntityId())) {
+                // the client already knows this entity, only the position and the data might be outdated
+                con.sendPacket(new PacketPlayServerEntityTeleport(entity.getEntityId(), entity.getLocation()));
+                entity.sendEntityData(con);
+            } else {
+                entity.spawn(con);
+            }
+        }
+
+        if (!kept.isEmpty()) {
+            con.sendPacket(new PacketPlayServerEntityDestroy(this.toArray(kept)));
+        }
+
+        this.sendCamera(con, targetProxyClient);
+        con.sendPacket(new PacketPlayServerEntityMetadata(targetProxyClient.getEntityId(), this.ownMetadata.getObjects()));
+    }
+
+    private void sendCamera(PacketSender con, ConnectedProxyClient targetProxyClient) {
         if (this.shouldSendCameraPacket(targetProxyClient)) {
             APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> {
                 if (this.shouldSendCameraPacket(targetProxyClient)) {
@@ -169,8 +207,6 @@ public class EntityCache implements PacketCacheHandler {
                 }
             }, 500, TimeUnit.MILLISECONDS);
         }
-
-        con.sendPacket(new PacketPlayServerEntityMetadata(targetProxyClient.getEntityId(), this.ownMetadata.getObjects()));
     }
 
     private boolean shouldSendCameraPacket(ConnectedProxyClient targetProxyClient) {
@@ -183,14 +219,58 @@ public class EntityCache implements PacketCacheHandler {
             return;
         }
 
-        Set<Integer> entityIdSet = new HashSet<>(this.entities.keySet());
+        con.sendPacket(new PacketPlayServerEntityDestroy(this.toArray(new HashSet<>(this.entities.keySet()))));
+    }
+
+    @Override
+    public void onClientSwitch(Player con, PacketCacheHandler next) {
+        if (!(next instanceof EntityCache)) {
+            this.onClientSwitch(con);
+            return;
+        }
+
+        Map<Integer, ProxyEntity> nextEntities = ((EntityCache) next).entities;
+        Set<Integer> kept = new HashSet<>();
+        Set<Integer> removed = new HashSet<>();
+
+        for (ProxyEntity entity : this.entities.values()) {
+            ProxyEntity nextEntity = nextEntities.get(entity.getEntityId());
+            // the id of the player is rewritten to the id of the bot, so it never refers to the same entity on both clients
+            if (nextEntity != null && entity.getEntityId() != con.getEntityId() && this.isSameEntity(entity, nextEntity)) {
+                kept.add(entity.getEntityId());
+            } else {
+                removed.add(entity.getEntityId());
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            con.sendPacket(new PacketPlayServerEntityDestroy(this.toArray(removed)));
+        }
+
+        this.keptOnSwitch = kept;
+    }
+
+    private boolean isSameEntity(ProxyEntity entity, ProxyEntity other) {
+        if (entity.getType() != other.getType() || entity.getLivingType() != other.getLivingType() || entity.getDimension() != other.getDimension()) {
+            return false;
+        }
+
+        if (entity instanceof ProxyPlayer && other instanceof ProxyPlayer) {
+            return ((ProxyPlayer) entity).getUniqueId().equals(((ProxyPlayer) other).getUniqueId());
+        }
+
+        // other entities have no identity across servers, an entity with the same id somewhere else is respawned
+        return entity.getLocation() != null && other.getLocation() != null
+                && entity.getLocation().distanceSquared(other.getLocation()) <= MAX_KEPT_DISTANCE_SQUARED;
+    }
 
+    private int[] toArray(Set<Integer> entityIdSet) {
         int[] entityIds = new int[entityIdSet.size()];
         int i = 0;
         for (Integer entityId : entityIdSet) {
             entityIds[i++] = entityId;
         }
 
-        con.sendPacket(new PacketPlayServerEntityDestroy(entityIds));
+        return entityIds;
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.cache.handler;
+
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.player.id.PlayerIdStorage;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// checks if the name of a player in the tab list belongs to his uuid, shared by all clients
+public class NickResolver {
+
+    private static final int MAX_LOOKUPS_PER_BATCH = 10;
+    private static final long BATCH_INTERVAL_MILLIS = 1000;
+
+    // the real name of the player if the name is a nick name, empty if it is not
+    private final Cache<String, Optional<String>> results = CacheBuilder.newBuilder()
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .maximumSize(10000)
+            .build();
+    private final Map<String, Request> pending = new ConcurrentHashMap<>();
+    private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public void resolve(PlayerIdStorage storage, UUID uniqueId, String name, Consumer<String> nickHandler) {
+        String key = uniqueId + ":" + name.toLowerCase();
+
+        Optional<String> result = this.results.getIfPresent(key);
+        if (result != null) {
+            result.ifPresent(nickHandler);
+            return;
+        }
+
+        this.pending.compute(key, (k, request) -> {
+            if (request == null) {
+                request = new Request(k, storage, uniqueId, name);
+                this.queue.add(request);
+            }
+
+            request.handlers.add(nickHandler);
+            return request;
+        });
+
+        if (this.running.compareAndSet(false, true)) {
+            APIUtil.EXECUTOR_SERVICE.execute(this::processBatch);
+        }
+    }
+
+    private void processBatch() {
+        Request request;
+        int count = 0;
+        while (count++ < MAX_LOOKUPS_PER_BATCH && (request = this.queue.poll()) != null) {
+            this.process(request);
+        }
+
+        if (this.queue.isEmpty()) {
+            this.running.set(false);
+            // a request might have been added after the queue was checked
+            if (this.queue.isEmpty() || !this.running.compareAndSet(false, true)) {
+                return;
+            }
+        }
+
+        APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> APIUtil.EXECUTOR_SERVICE.execute(this::processBatch), BATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void process(Request request) {
+        // the lookups of one batch are running concurrently, so the storage is able to combine them
+        request.storage.getPlayerIdAsync(request.name).whenComplete((playerId, error) -> {
+            if (error != null) {
+                // not cached, the next request for this player will try it again
+                this.pending.remove(request.key);
+                return;
+            }
+
+            if (playerId != null && playerId.getUniqueId().equals(request.uniqueId)) {
+                this.complete(request, Optional.empty());
+                return;
+            }
+
+            request.storage.getPlayerIdAsync(request.uniqueId).whenComplete((realPlayerId, realError) -> {
+                if (realError != null) {
+                    this.pending.remove(request.key);
+                    return;
+                }
+
+                this.complete(request, Optional.ofNullable(realPlayerId != null ? realPlayerId.getName() : null));
+            });
+        });
+    }
+
+    private void complete(Request request, Optional<String> result) {
+        this.results.put(request.key, result);
+        this.pending.remove(request.key);
+
+        result.ifPresent(realName -> {
+            for (Consumer<String> handler : request.handlers) {
+                handler.accept(realName);
+            }
+        });
+    }
+
+    private static final class Request {
+
+        private final String key;
+        private final PlayerIdStorage storage;
+        private final UUID uniqueId;
+        private final String name;
+        private final Collection<Consumer<String>> handlers = new CopyOnWriteArrayList<>();
+
+        private Request(String key, PlayerIdStorage storage, UUID uniqueId, String name) {
+            this.key = key;
+            this.storage = storage;
+            this.uniqueId = uniqueId;
+            this.name = name;
+        }
+    }
+}
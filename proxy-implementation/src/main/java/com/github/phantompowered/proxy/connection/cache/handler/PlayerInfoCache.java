@@ -45,21 +45,28 @@ import com.github.phantompowered.proxy.protocol.ProtocolIds;
 import com.github.phantompowered.proxy.protocol.play.server.PacketPlayServerPlayerInfo;
 import com.github.phantompowered.proxy.protocol.play.server.PacketPlayServerRespawn;
 import com.github.phantompowered.proxy.protocol.play.server.entity.PacketPlayServerEntityDestroy;
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.properties.Property;
+import com.mojang.authlib.properties.PropertyMap;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerInfoCache implements PacketCacheHandler {
 
-    private final Collection<PacketPlayServerPlayerInfo.Item> items = new CopyOnWriteArrayList<>();
-    private final Collection<PacketPlayServerPlayerInfo.Item> lastRemovedItems = new CopyOnWriteArrayList<>();
-    private PacketCache packetCache;
+    private static final NickResolver NICK_RESOLVER = new NickResolver();
 
-    private static final ExecutorService SERVICE = Executors.newFixedThreadPool(4);
+    private final Map<UUID, PacketPlayServerPlayerInfo.Item> items = new ConcurrentHashMap<>();
+    private final Map<UUID, PacketPlayServerPlayerInfo.Item> lastRemovedItems = new ConcurrentHashMap<>();
+    private PacketCache packetCache;
+    private Set<UUID> keptOnSwitch;
 
     @Override
     public int[] getPacketIDs() {
@@ -76,12 +83,16 @@ public class PlayerInfoCache implements PacketCacheHandler {
             return;
         }
         if (newPacket instanceof PacketPlayServerEntityDestroy) {
+            if (this.lastRemovedItems.isEmpty()) {
+                return;
+            }
+
             int[] entities = ((PacketPlayServerEntityDestroy) newPacket).getEntityIds();
 
             for (int entityId : entities) {
                 Entity entity = packetCache.getTargetProxyClient().getConnection().getWorldDataProvider().getEntityInWorld(entityId);
                 if (entity instanceof EntityPlayer) {
-                    this.lastRemovedItems.removeIf(item -> item.getUniqueId().equals(((EntityPlayer) entity).getUniqueId()));
+                    this.lastRemovedItems.remove(((EntityPlayer) entity).getUniqueId());
                 }
             }
 
@@ -91,46 +102,46 @@ public class PlayerInfoCache implements PacketCacheHandler {
         PacketPlayServerPlayerInfo playerListItem = (PacketPlayServerPlayerInfo) newPacket;
 
         if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.REMOVE_PLAYER) {
-            for (PacketPlayServerPlayerInfo.Item item : this.items) {
-                for (PacketPlayServerPlayerInfo.Item item1 : playerListItem.getItems()) {
-                    if (item.getUniqueId().equals(item1.getUniqueId())) {
-                        this.lastRemovedItems.add(item);
-                        this.items.remove(item);
-                        connection.getServiceRegistry().getProviderUnchecked(EventManager.class).callEvent(new PlayerInfoRemoveEvent(connection, this.toPlayerInfo(item)));
-                    }
+            for (PacketPlayServerPlayerInfo.Item removedItem : playerListItem.getItems()) {
+                PacketPlayServerPlayerInfo.Item item = this.items.remove(removedItem.getUniqueId());
+                if (item != null) {
+                    this.lastRemovedItems.put(item.getUniqueId(), item);
+                    connection.getServiceRegistry().getProviderUnchecked(EventManager.class).callEvent(new PlayerInfoRemoveEvent(connection, this.toPlayerInfo(item)));
                 }
             }
         } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.ADD_PLAYER) {
-            this.items.addAll(Arrays.asList(playerListItem.getItems()));
-            SERVICE.execute(() -> {
-                for (PacketPlayServerPlayerInfo.Item item : playerListItem.getItems()) {
-                    if (connection.getPlayer() != null && !item.getUsername().contains("§") && !item.getUniqueId().equals(connection.getServiceRegistry().getProviderUnchecked(PlayerIdStorage.class).getPlayerId(item.getUsername()).getUniqueId())) {
-                        connection.getPlayer().sendMessage("§cNICK: §e" + item.getUsername() + " §f-> §e" + connection.getServiceRegistry().getProviderUnchecked(PlayerIdStorage.class).getPlayerId(item.getUniqueId()).getName());
-                    }
-                }
-            });
+            PlayerIdStorage playerIdStorage = connection.getServiceRegistry().getProviderUnchecked(PlayerIdStorage.class);
+
             for (PacketPlayServerPlayerInfo.Item item : playerListItem.getItems()) {
+                this.items.put(item.getUniqueId(), item);
+
+                if (connection.getPlayer() != null && !item.getUsername().contains("§")) {
+                    NICK_RESOLVER.resolve(playerIdStorage, item.getUniqueId(), item.getUsername(), realName -> {
+                        if (connection.getPlayer() != null) {
+                            connection.getPlayer().sendMessage("§cNICK: §e" + item.getUsername() + " §f-> §e" + realName);
+                        }
+                    });
+                }
 
                 connection.getServiceRegistry().getProviderUnchecked(EventManager.class).callEvent(new PlayerInfoAddEvent(connection, this.toPlayerInfo(item)));
             }
-        } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_DISPLAY_NAME) {
-            this.items.forEach(item -> Arrays.stream(playerListItem.getItems()).filter(item1 -> item1.getUniqueId().equals(item.getUniqueId())).findFirst()
-                    .ifPresent(newItem -> {
-                        item.setDisplayName(newItem.getDisplayName());
-                        this.callUpdate(item, connection);
-                    }));
-        } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_GAMEMODE) {
-            this.items.forEach(item -> Arrays.stream(playerListItem.getItems()).filter(item1 -> item1.getUniqueId().equals(item.getUniqueId())).findFirst()
-                    .ifPresent(newItem -> {
-                        item.setGamemode(newItem.getGamemode());
-                        this.callUpdate(item, connection);
-                    }));
-        } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_LATENCY) {
-            this.items.forEach(item -> Arrays.stream(playerListItem.getItems()).filter(item1 -> item1.getUniqueId().equals(item.getUniqueId())).findFirst()
-                    .ifPresent(newItem -> {
-                        item.setPing(newItem.getPing());
-                        this.callUpdate(item, connection);
-                    }));
+        } else {
+            for (PacketPlayServerPlayerInfo.Item newItem : playerListItem.getItems()) {
+                PacketPlayServerPlayerInfo.Item item = this.items.get(newItem.getUniqueId());
+                if (item == null) {
+                    continue;
+                }
+
+                if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_DISPLAY_NAME) {
+                    item.setDisplayName(newItem.getDisplayName());
+                } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_GAMEMODE) {
+                    item.setGamemode(newItem.getGamemode());
+                } else if (playerListItem.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_LATENCY) {
+                    item.setPing(newItem.getPing());
+                }
+
+                this.callUpdate(item, connection);
+            }
         }
     }
 
@@ -147,7 +158,7 @@ public class PlayerInfoCache implements PacketCacheHandler {
         PacketPlayServerPlayerInfo playerListItem = new PacketPlayServerPlayerInfo();
 
         playerListItem.setAction(PacketPlayServerPlayerInfo.Action.ADD_PLAYER);
-        playerListItem.setItems(this.items.toArray(new PacketPlayServerPlayerInfo.Item[0]));
+        playerListItem.setItems(this.items.values().toArray(new PacketPlayServerPlayerInfo.Item[0]));
 
         if (con instanceof Player) {
             this.replaceOwn((Player) con, playerListItem);
@@ -161,13 +172,118 @@ public class PlayerInfoCache implements PacketCacheHandler {
         PacketPlayServerPlayerInfo playerListItem = new PacketPlayServerPlayerInfo();
 
         playerListItem.setAction(PacketPlayServerPlayerInfo.Action.REMOVE_PLAYER);
-        playerListItem.setItems(this.items.toArray(new PacketPlayServerPlayerInfo.Item[0]));
+        playerListItem.setItems(this.items.values().toArray(new PacketPlayServerPlayerInfo.Item[0]));
 
         this.replaceOwn(con, playerListItem);
 
         con.sendPacket(playerListItem);
     }
 
+    @Override
+    public void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient, PacketCacheHandler previous) {
+        if (this.packetCache == null || !(previous instanceof PlayerInfoCache)) {
+            this.sendCached(con, targetProxyClient);
+            return;
+        }
+
+        PlayerInfoCache previousCache = (PlayerInfoCache) previous;
+        Set<UUID> kept = previousCache.keptOnSwitch != null ? previousCache.keptOnSwitch : new HashSet<>();
+        previousCache.keptOnSwitch = null;
+
+        List<PacketPlayServerPlayerInfo.Item> added = new ArrayList<>();
+        for (PacketPlayServerPlayerInfo.Item item : this.items.values()) {
+            if (!kept.remove(item.getUniqueId()) || !this.isSameItem(item, previousCache.getItem(item.getUniqueId()))) {
+                // adding an item which is already in the list replaces it
+                added.add(item);
+            }
+        }
+
+        if (!kept.isEmpty()) {
+            List<PacketPlayServerPlayerInfo.Item> removed = new ArrayList<>();
+            for (UUID uniqueId : kept) {
+                removed.add(new PacketPlayServerPlayerInfo.Item(new GameProfile(uniqueId, null), 0, 0, null));
+            }
+
+            con.sendPacket(new PacketPlayServerPlayerInfo(PacketPlayServerPlayerInfo.Action.REMOVE_PLAYER, removed.toArray(new PacketPlayServerPlayerInfo.Item[0])));
+        }
+
+        if (added.isEmpty()) {
+            return;
+        }
+
+        PacketPlayServerPlayerInfo playerListItem = new PacketPlayServerPlayerInfo(PacketPlayServerPlayerInfo.Action.ADD_PLAYER, added.toArray(new PacketPlayServerPlayerInfo.Item[0]));
+        if (con instanceof Player) {
+            this.replaceOwn((Player) con, playerListItem);
+        }
+
+        con.sendPacket(playerListItem);
+    }
+
+    @Override
+    public void onClientSwitch(Player con, PacketCacheHandler next) {
+        if (this.packetCache == null || !(next instanceof PlayerInfoCache)) {
+            this.onClientSwitch(con);
+            return;
+        }
+
+        PlayerInfoCache nextCache = (PlayerInfoCache) next;
+        // the own entries of both bots are shown with the uuid of the player, they have to be replaced in any case
+        UUID ownUniqueId = this.packetCache.getTargetProxyClient().getAccountUUID();
+        UUID nextOwnUniqueId = nextCache.packetCache != null ? nextCache.packetCache.getTargetProxyClient().getAccountUUID() : null;
+
+        Set<UUID> kept = new HashSet<>();
+        List<PacketPlayServerPlayerInfo.Item> removed = new ArrayList<>();
+
+        for (PacketPlayServerPlayerInfo.Item item : this.items.values()) {
+            UUID uniqueId = item.getUniqueId();
+            if (!uniqueId.equals(ownUniqueId) && !uniqueId.equals(nextOwnUniqueId) && nextCache.isCached(uniqueId)) {
+                kept.add(uniqueId);
+            } else {
+                removed.add(item);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            PacketPlayServerPlayerInfo playerListItem = new PacketPlayServerPlayerInfo(PacketPlayServerPlayerInfo.Action.REMOVE_PLAYER, removed.toArray(new PacketPlayServerPlayerInfo.Item[0]));
+            this.replaceOwn(con, playerListItem);
+            con.sendPacket(playerListItem);
+        }
+
+        this.keptOnSwitch = kept;
+    }
+
+    private boolean isSameItem(PacketPlayServerPlayerInfo.Item item, PacketPlayServerPlayerInfo.Item other) {
+        return other != null
+                && item.getGamemode() == other.getGamemode()
+                && item.getPing() == other.getPing()
+                && Objects.equals(item.getUsername(), other.getUsername())
+                && Objects.equals(item.getDisplayName(), other.getDisplayName())
+                && this.isSameProperties(item.getProfile().getProperties(), other.getProfile().getProperties());
+    }
+
+    // a changed skin or cape only shows up in the textures property, Property doesn't implement equals
+    private boolean isSameProperties(PropertyMap properties, PropertyMap other) {
+        if (properties.size() != other.size()) {
+            return false;
+        }
+
+        for (Property property : properties.values()) {
+            boolean found = false;
+            for (Property otherProperty : other.get(property.getName())) {
+                if (Objects.equals(property.getValue(), otherProperty.getValue()) && Objects.equals(property.getSignature(), otherProperty.getSignature())) {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public void replaceOwn(Player con, PacketPlayServerPlayerInfo playerListItem) {
         for (int i = 0; i < playerListItem.getItems().length; i++) {
             PacketPlayServerPlayerInfo.Item item = playerListItem.getItems()[i];
@@ -179,15 +295,19 @@ public class PlayerInfoCache implements PacketCacheHandler {
     }
 
     public Collection<PacketPlayServerPlayerInfo.Item> getItems() {
-        return this.items;
+        return this.items.values();
+    }
+
+    public PacketPlayServerPlayerInfo.Item getItem(UUID uniqueId) {
+        return this.items.get(uniqueId);
     }
 
     public boolean isCached(UUID uniqueId) {
-        return this.items.stream().anyMatch(item -> item.getUniqueId().equals(uniqueId));
+        return this.items.containsKey(uniqueId);
     }
 
     public PacketPlayServerPlayerInfo.Item getRemovedItem(UUID uniqueId) {
-        return this.lastRemovedItems.stream().filter(item -> item.getUniqueId().equals(uniqueId)).findFirst().orElse(null);
+        return this.lastRemovedItems.get(uniqueId);
     }
 
     public PlayerInfo toPlayerInfo(PacketPlayServerPlayerInfo.Item item) {
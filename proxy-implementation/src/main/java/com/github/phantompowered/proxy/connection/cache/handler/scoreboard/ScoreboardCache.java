@@ -38,11 +38,18 @@ import com.github.phantompowered.proxy.protocol.play.server.scoreboard.PacketPla
 import com.github.phantompowered.proxy.protocol.play.server.scoreboard.PacketPlayServerScoreboardScore;
 import com.github.phantompowered.proxy.protocol.play.server.scoreboard.PacketPlayServerScoreboardTeam;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
 public class ScoreboardCache implements PacketCacheHandler {
 
     private final Scoreboard scoreboard = new Scoreboard();
     private ScoreboardHandler handler;
     private Player connectedPlayer;
+    private KeptState keptOnSwitch;
 
     public Scoreboard getScoreboard() {
         return this.scoreboard;
@@ -228,6 +235,136 @@ public class ScoreboardCache implements PacketCacheHandler {
         }
     }
 
+    @Override
+    public void sendCached(PacketSender con, ConnectedProxyClient targetProxyClient, PacketCacheHandler previous) {
+        if (!(previous instanceof ScoreboardCache)) {
+            this.sendCached(con, targetProxyClient);
+            return;
+        }
+
+        if (con instanceof Player) {
+            this.connectedPlayer = (Player) con;
+        }
+
+        ScoreboardCache previousCache = (ScoreboardCache) previous;
+        KeptState kept = previousCache.keptOnSwitch != null ? previousCache.keptOnSwitch : new KeptState();
+        previousCache.keptOnSwitch = null;
+
+        Map<String, Score> previousScores = indexScores(previousCache.scoreboard);
+
+        for (ScoreObjective objective : this.scoreboard.getScoreObjectives()) {
+            if (!kept.objectives.remove(objective.getName())) {
+                this.sendCreatedObjective(con, objective);
+            }
+        }
+        for (String objective : kept.objectives) {
+            this.sendDeletedObjective(con, objective);
+        }
+
+        for (Score score : this.scoreboard.getScores()) {
+            String key = scoreKey(score.getObjective().getName(), score.getPlayerName());
+            Score previousScore = previousScores.get(key);
+
+            if (!kept.scores.remove(key) || previousScore == null || previousScore.getScorePoints() != score.getScorePoints()) {
+                this.sendScoreUpdate(con, score.getPlayerName(), score.getObjective().getName(), score.getScorePoints());
+            }
+        }
+        for (String key : kept.scores) {
+            String[] parts = key.split("\n", 2);
+            // scores of deleted objectives are already removed by the client
+            if (this.scoreboard.getObjective(parts[0]) != null) {
+                this.sendScoreDestroy(con, parts[1], parts[0]);
+            }
+        }
+
+        for (ScorePlayerTeam team : this.scoreboard.getTeams()) {
+            if (!kept.teams.remove(team.getRegisteredName())) {
+                this.sendTeamCreation(con, team);
+            }
+        }
+        for (String team : kept.teams) {
+            this.sendTeamUpdate(con, new PacketPlayServerScoreboardTeam(team));
+        }
+
+        for (ScoreObjective objective : this.scoreboard.getScoreObjectives()) {
+            con.sendPacket(new PacketPlayServerScoreboardDisplay((byte) objective.getDisplaySlot(), objective.getName()));
+        }
+    }
+
+    @Override
+    public void onClientSwitch(Player con, PacketCacheHandler next) {
+        if (!(next instanceof ScoreboardCache)) {
+            this.onClientSwitch(con);
+            return;
+        }
+
+        Scoreboard nextScoreboard = ((ScoreboardCache) next).scoreboard;
+        Map<String, Score> nextScores = indexScores(nextScoreboard);
+        KeptState kept = new KeptState();
+
+        for (ScoreObjective objective : this.scoreboard.getScoreObjectives()) {
+            if (this.isSameObjective(objective, nextScoreboard.getObjective(objective.getName()))) {
+                kept.objectives.add(objective.getName());
+            } else {
+                // the client removes the scores and the display slot together with the objective
+                this.sendDeletedObjective(con, objective.getName());
+            }
+        }
+
+        for (Score score : this.scoreboard.getScores()) {
+            if (!kept.objectives.contains(score.getObjective().getName())) {
+                continue;
+            }
+
+            String key = scoreKey(score.getObjective().getName(), score.getPlayerName());
+            if (nextScores.containsKey(key)) {
+                kept.scores.add(key);
+            } else {
+                this.sendScoreDestroy(con, score.getPlayerName(), score.getObjective().getName());
+            }
+        }
+
+        for (ScorePlayerTeam team : this.scoreboard.getTeams()) {
+            if (this.isSameTeam(team, nextScoreboard.getTeam(team.getRegisteredName()))) {
+                kept.teams.add(team.getRegisteredName());
+            } else {
+                this.sendTeamUpdate(con, new PacketPlayServerScoreboardTeam(team.getRegisteredName()));
+            }
+        }
+
+        this.keptOnSwitch = kept;
+    }
+
+    private boolean isSameObjective(ScoreObjective objective, ScoreObjective other) {
+        return other != null
+                && objective.getDisplaySlot() == other.getDisplaySlot()
+                && objective.getRenderType() == other.getRenderType()
+                && Objects.equals(objective.getDisplayName(), other.getDisplayName());
+    }
+
+    private boolean isSameTeam(ScorePlayerTeam team, ScorePlayerTeam other) {
+        return other != null
+                && team.getChatFormat() == other.getChatFormat()
+                && team.getNameTagVisibility() == other.getNameTagVisibility()
+                && Objects.equals(team.getTeamName(), other.getTeamName())
+                && Objects.equals(team.getColorPrefix(), other.getColorPrefix())
+                && Objects.equals(team.getColorSuffix(), other.getColorSuffix())
+                && team.getMembershipCollection().equals(other.getMembershipCollection());
+    }
+
+    private static Map<String, Score> indexScores(Scoreboard scoreboard) {
+        Map<String, Score> scores = new HashMap<>();
+        for (Score score : scoreboard.getScores()) {
+            scores.put(scoreKey(score.getObjective().getName(), score.getPlayerName()), score);
+        }
+
+        return scores;
+    }
+
+    private static String scoreKey(String objective, String player) {
+        return objective + '\n' + player;
+    }
+
     public void setHandler(ScoreboardHandler handler) {
         this.handler = handler;
     }
@@ -307,4 +444,13 @@ public class ScoreboardCache implements PacketCacheHandler {
         sender.sendPacket(team);
     }
 
+    // the parts of the scoreboard which were not removed from the client when switching to another client in the same world
+    private static final class KeptState {
+
+        private final Set<String> objectives = new HashSet<>();
+        private final Set<String> scores = new HashSet<>();
+        private final Set<String> teams = new HashSet<>();
+
+    }
+
 }
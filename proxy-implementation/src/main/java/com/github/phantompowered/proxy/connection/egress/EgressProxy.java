@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.egress;
+
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EgressProxy {
+
+    private final NetworkAddress address;
+    private final AtomicInteger assignedConnections = new AtomicInteger();
+
+    private volatile int latency = -1;
+    private volatile int consecutiveFailures;
+    private volatile long lastProbe = -1;
+
+    public EgressProxy(@NotNull NetworkAddress address) {
+        this.address = address;
+    }
+
+    @NotNull
+    public NetworkAddress getAddress() {
+        return this.address;
+    }
+
+    // proxies which have not been probed yet are considered healthy until the first probe fails
+    public boolean isHealthy() {
+        return this.consecutiveFailures < EgressProxyPool.MAX_CONSECUTIVE_FAILURES;
+    }
+
+    public int getLatency() {
+        return this.latency;
+    }
+
+    public int getConsecutiveFailures() {
+        return this.consecutiveFailures;
+    }
+
+    public long getLastProbe() {
+        return this.lastProbe;
+    }
+
+    public int getAssignedConnections() {
+        return this.assignedConnections.get();
+    }
+
+    synchronized void handleProbeSuccess(int latency) {
+        this.latency = this.latency < 0 ? latency : (this.latency * 3 + latency) / 4;
+        this.consecutiveFailures = 0;
+        this.lastProbe = System.currentTimeMillis();
+    }
+
+    synchronized void handleProbeFailure() {
+        this.handleFailure();
+        this.lastProbe = System.currentTimeMillis();
+    }
+
+    synchronized void handleFailure() {
+        this.consecutiveFailures++;
+    }
+
+    synchronized void handleSuccess() {
+        this.consecutiveFailures = 0;
+    }
+
+    void assign() {
+        this.assignedConnections.incrementAndGet();
+    }
+
+    void release() {
+        this.assignedConnections.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return this.address.getHost() + ":" + this.address.getPort() + " " + (this.isHealthy() ? "healthy" : "unhealthy")
+                + ", " + (this.latency < 0 ? "unknown latency" : this.latency + "ms")
+                + ", " + this.getAssignedConnections() + " connections, " + this.consecutiveFailures + " failures";
+    }
+}
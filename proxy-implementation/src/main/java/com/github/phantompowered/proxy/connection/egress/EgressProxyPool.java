@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.egress;
+
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
+import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class EgressProxyPool implements Runnable {
+
+    static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final int PROBE_TIMEOUT_MILLIS = 5000;
+
+    // healthy proxies first, then the ones with the least connections and then the ones with the lowest latency
+    private static final Comparator<EgressProxy> SELECTION_ORDER = Comparator
+            .comparing((EgressProxy proxy) -> !proxy.isHealthy())
+            .thenComparingInt(EgressProxy::getAssignedConnections)
+            .thenComparingInt(proxy -> proxy.getLatency() < 0 ? Integer.MAX_VALUE : proxy.getLatency())
+            .thenComparingInt(EgressProxy::getConsecutiveFailures);
+
+    private final ServiceRegistry registry;
+    private final Map<NetworkAddress, EgressProxy> proxies = new ConcurrentHashMap<>();
+
+    public EgressProxyPool(ServiceRegistry registry) {
+        this.registry = registry;
+    }
+
+    // returns null if no proxies are configured, if all of them are failing the least bad one is used instead of
+    // connecting without a proxy
+    @Nullable
+    public synchronized EgressProxy acquire() {
+        this.updateProxies();
+
+        EgressProxy proxy = this.proxies.values().stream().min(SELECTION_ORDER).orElse(null);
+        if (proxy != null) {
+            proxy.assign();
+        }
+        return proxy;
+    }
+
+    public void release(@Nullable EgressProxy proxy) {
+        if (proxy != null) {
+            proxy.release();
+        }
+    }
+
+    public void handleConnectSuccess(@Nullable EgressProxy proxy) {
+        if (proxy != null) {
+            proxy.handleSuccess();
+        }
+    }
+
+    public void handleConnectFailure(@Nullable EgressProxy proxy) {
+        if (proxy != null) {
+            proxy.handleFailure();
+        }
+    }
+
+    @NotNull
+    public Collection<EgressProxy> getProxies() {
+        return this.proxies.values();
+    }
+
+    @Override
+    public void run() {
+        this.updateProxies();
+
+        for (EgressProxy proxy : this.proxies.values()) {
+            APIUtil.EXECUTOR_SERVICE.execute(() -> this.probe(proxy));
+        }
+    }
+
+    private synchronized void updateProxies() {
+        Collection<NetworkAddress> addresses = this.registry.getProviderUnchecked(Configuration.class).getSocksProxies();
+
+        // connections which are still using a removed proxy keep their reference to release it
+        this.proxies.keySet().retainAll(addresses);
+        for (NetworkAddress address : addresses) {
+            this.proxies.computeIfAbsent(address, EgressProxy::new);
+        }
+    }
+
+    void probe(EgressProxy proxy) {
+        long start = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(proxy.getAddress().getHost(), proxy.getAddress().getPort()), PROBE_TIMEOUT_MILLIS);
+            socket.setSoTimeout(PROBE_TIMEOUT_MILLIS);
+
+            // SOCKS5 greeting offering no authentication, the same one the Socks5ProxyHandler sends
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(new byte[]{0x05, 0x01, 0x00});
+            outputStream.flush();
+
+            InputStream inputStream = socket.getInputStream();
+            if (inputStream.read() != 0x05 || inputStream.read() != 0x00) {
+                throw new IOException("Proxy " + proxy.getAddress() + " does not accept SOCKS5 without authentication");
+            }
+
+            proxy.handleProbeSuccess((int) ((System.nanoTime() - start) / 1_000_000));
+        } catch (IOException exception) {
+            boolean wasHealthy = proxy.isHealthy();
+            proxy.handleProbeFailure();
+            if (wasHealthy && !proxy.isHealthy()) {
+                System.err.println("Taking SOCKS5 proxy " + proxy.getAddress().getHost() + ":" + proxy.getAddress().getPort()
+                        + " out of rotation: " + exception.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        long healthy = this.proxies.values().stream().filter(EgressProxy::isHealthy).count();
+        return this.proxies.size() + " proxies, " + healthy + " healthy";
+    }
+}
@@ -5,6 +5,7 @@ import com.github.phantompowered.proxy.api.event.EventManager;
 import com.github.phantompowered.proxy.api.events.connection.player.PlayerLogoutEvent;
 import com.github.phantompowered.proxy.api.network.channel.NetworkChannel;
 import com.github.phantompowered.proxy.connection.BasicServiceConnection;
+import com.github.phantompowered.proxy.connection.ConnectedProxyClient;
 import com.github.phantompowered.proxy.connection.player.DefaultPlayer;
 import com.github.phantompowered.proxy.network.channel.ChannelListener;
 import org.jetbrains.annotations.NotNull;
@@ -27,14 +28,27 @@ public class ClientChannelListener implements ChannelListener {
         }
     }
 
+    @Override
+    public void handleChannelWriteableChange(@NotNull NetworkChannel channel) {
+        if (this.player.getConnectedClient() instanceof BasicServiceConnection) {
+            ConnectedProxyClient client = ((BasicServiceConnection) this.player.getConnectedClient()).getClient();
+            if (client != null) {
+                client.handleRedirectorWritabilityChanged(channel.getWrappedChannel().isWritable());
+            }
+        }
+    }
+
     @Override
     public void handleChannelInactive(@NotNull NetworkChannel channel) {
         System.out.println("Player [" + player.getName() + "/" + player.getUniqueId() + "] disconnected");
 
         this.player.getServiceRegistry().getProviderUnchecked(EventManager.class).callEvent(new PlayerLogoutEvent(player));
         this.player.setConnected(false);
-        if (this.player.getConnectedClient() != null && this.player.getConnectedClient() instanceof BasicServiceConnection) {
-            ((BasicServiceConnection) this.player.getConnectedClient()).getClient().free();
+        if (this.player.getConnectedClient() instanceof BasicServiceConnection) {
+            ConnectedProxyClient client = ((BasicServiceConnection) this.player.getConnectedClient()).getClient();
+            if (client != null) {
+                client.free();
+            }
         }
     }
 
@@ -207,7 +207,8 @@ public class ClientPacketHandler {
                 .callEvent(new PlayerBlockPlaceEvent(player, packet.getLocation(), blockLocation, packet.getStack(), facing, new Vector(packet.getFacingX(), packet.getFacingY(), packet.getFacingZ())));
 
         if (event.isCancelled()) {
-            player.sendPacket(new PacketPlayServerBlockChange(blockLocation, player.getConnectedClient().getBlockAccess().getBlockState(blockLocation)));
+            player.sendPacket(new PacketPlayServerBlockChange(blockLocation, player.getConnectedClient().getBlockAccess()
+                    .getBlockState(blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ())));
             if (player.getConnectedClient() != null) {
                 ServiceInventory inventory = player.getConnectedClient().getInventory();
                 int slot = inventory.getHeldItemSlot();
@@ -294,7 +295,9 @@ public class ClientPacketHandler {
         PlayerBlockBreakEvent event = player.getServiceRegistry().getProviderUnchecked(EventManager.class)
                 .callEvent(new PlayerBlockBreakEvent(player, packet.getLocation(), PlayerBlockBreakEvent.Action.values()[packet.getAction().ordinal()]));
         if (event.isCancelled()) {
-            player.sendPacket(new PacketPlayServerBlockChange(packet.getLocation(), player.getConnectedClient().getBlockAccess().getBlockState(packet.getLocation())));
+            Location location = packet.getLocation();
+            player.sendPacket(new PacketPlayServerBlockChange(location, player.getConnectedClient().getBlockAccess()
+                    .getBlockState(location.getBlockX(), location.getBlockY(), location.getBlockZ())));
             throw CancelProceedException.INSTANCE;
         }
     }
@@ -12,6 +12,7 @@ import com.github.phantompowered.proxy.api.entity.types.Entity;
 import com.github.phantompowered.proxy.api.event.Cancelable;
 import com.github.phantompowered.proxy.api.event.Event;
 import com.github.phantompowered.proxy.api.event.EventManager;
+import com.github.phantompowered.proxy.api.event.EventPriority;
 import com.github.phantompowered.proxy.api.events.connection.ChatEvent;
 import com.github.phantompowered.proxy.api.events.connection.PluginMessageEvent;
 import com.github.phantompowered.proxy.api.events.connection.service.ServiceExperienceChangeEvent;
@@ -101,6 +102,27 @@ public class ServerPacketHandler {
         client.redirectPacket(packet.getProtoBuf().clone(), packet.getPacket());
     }
 
+    // only sampled while no player is redirecting, otherwise the keep alives are answered by the player and the
+    // reported latency includes the ping of the player
+    @PacketHandler(packetIds = ProtocolIds.ToClient.Play.PLAYER_INFO, directions = ProtocolDirection.TO_CLIENT, protocolState = ProtocolState.PLAY, priority = EventPriority.FIRST)
+    public void handleLatency(ConnectedProxyClient client, PacketPlayServerPlayerInfo packet) {
+        if (packet.getAction() != PacketPlayServerPlayerInfo.Action.UPDATE_LATENCY && packet.getAction() != PacketPlayServerPlayerInfo.Action.ADD_PLAYER) {
+            return;
+        }
+
+        for (PacketPlayServerPlayerInfo.Item item : packet.getItems()) {
+            if (!client.getConnection().getUniqueId().equals(item.getUniqueId())) {
+                continue;
+            }
+
+            // the latency is 0 until the server received the first keep alive response
+            if (item.getPing() > 0 || packet.getAction() == PacketPlayServerPlayerInfo.Action.UPDATE_LATENCY) {
+                client.handleRoundTripTime(item.getPing());
+            }
+            break;
+        }
+    }
+
     @PacketHandler(packetIds = ProtocolIds.ToClient.Play.PLAYER_INFO, directions = ProtocolDirection.TO_CLIENT, protocolState = ProtocolState.REDIRECTING)
     public void modifyPlayerInfo(ConnectedProxyClient client, PacketPlayServerPlayerInfo packet) {
         Player player = client.getRedirector();
@@ -22,6 +22,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
 import io.netty.handler.proxy.ProxyHandler;
 import io.netty.handler.proxy.Socks5ProxyHandler;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +32,8 @@ import java.net.InetSocketAddress;
 
 public class ServerPinger extends DefaultNetworkChannel implements ChannelListener {
 
+    private static final EventLoopGroup EVENT_LOOP_GROUP = NetworkUtils.newEventLoopGroup(2);
+
     private Task<ServerPing> task;
 
     private int protocol = 47;
@@ -77,10 +80,11 @@ public class ServerPinger extends DefaultNetworkChannel implements ChannelListen
 
         new Bootstrap()
                 .channel(NetworkUtils.getSocketChannelClass())
-                .group(NetworkUtils.newEventLoopGroup())
+                .group(EVENT_LOOP_GROUP)
                 .handler(initializer)
+                .resolver(NetworkUtils.getMinecraftResolverGroup())
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 15000)
-                .connect(new InetSocketAddress(address.getHost(), address.getPort()))
+                .connect(InetSocketAddress.createUnresolved(address.getHost(), address.getPort()))
                 .addListener(listener)
                 .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
 
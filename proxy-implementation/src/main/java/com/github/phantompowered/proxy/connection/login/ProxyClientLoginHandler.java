@@ -24,6 +24,7 @@
  */
 package com.github.phantompowered.proxy.connection.login;
 
+import com.github.phantompowered.proxy.api.APIUtil;
 import com.github.phantompowered.proxy.api.connection.ProtocolDirection;
 import com.github.phantompowered.proxy.api.connection.ProtocolState;
 import com.github.phantompowered.proxy.api.event.EventPriority;
@@ -43,16 +44,35 @@ import com.github.phantompowered.proxy.protocol.login.server.PacketLoginOutEncry
 import com.github.phantompowered.proxy.protocol.login.server.PacketLoginOutLoginSuccess;
 import com.github.phantompowered.proxy.protocol.login.server.PacketLoginOutSetCompression;
 import com.github.phantompowered.proxy.protocol.play.server.message.PacketPlayServerKickPlayer;
-import com.mojang.authlib.exceptions.AuthenticationException;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 
 import javax.crypto.SecretKey;
 import java.math.BigInteger;
 import java.security.PublicKey;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class ProxyClientLoginHandler {
 
+    private static final int MAX_CONCURRENT_JOINS = 8;
+    private static final int MAX_QUEUED_JOINS = 64;
+    private static final long JOIN_TIMEOUT_MILLIS = 10_000;
+    // joins that don't fit into the queue are rejected and fail the connect instead of piling up while the auth servers are slow
+    private static final ExecutorService JOIN_EXECUTOR = new ThreadPoolExecutor(
+            MAX_CONCURRENT_JOINS, MAX_CONCURRENT_JOINS, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_JOINS), runnable -> {
+        Thread thread = new Thread(runnable, "Session join worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @PacketHandler(packetIds = {ProtocolIds.ToClient.Play.KICK_DISCONNECT}, directions = ProtocolDirection.TO_CLIENT, protocolState = ProtocolState.PLAY)
     private void handle(ConnectedProxyClient proxyClient, PacketPlayServerKickPlayer kick) throws Exception {
         Component reason = GsonComponentSerializer.gson().deserialize(kick.getMessage());
@@ -73,12 +93,71 @@ public class ProxyClientLoginHandler {
         PublicKey publicKey = ClientEncryptionUtils.decodePublicKey(request.getPublicKey());
         String s1 = (new BigInteger(ClientEncryptionUtils.getServerIdHash(s, publicKey, secretKey))).toString(16);
 
+        String authService = proxyClient.getSessionService().getClass().getSimpleName();
+        SessionJoinStatistics statistics = SessionJoinStatistics.getStatistics(authService);
+        CompletableFuture<Long> future = new CompletableFuture<>();
+
         try {
-            proxyClient.getSessionService().joinServer(proxyClient.getAuthentication().getSelectedProfile(), proxyClient.getAuthentication().getAuthenticatedToken(), s1);
-        } catch (AuthenticationException exception) {
-            throw new Error("Failed to join server on auth servers!", exception);
+            JOIN_EXECUTOR.execute(() -> {
+                if (future.isDone() || !proxyClient.isConnected()) {
+                    future.cancel(false);
+                    return;
+                }
+
+                // the time spent in the queue doesn't count towards the timeout
+                long start = System.nanoTime();
+                ScheduledFuture<?> timeout = APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(
+                        () -> future.completeExceptionally(new TimeoutException("Session join took longer than " + JOIN_TIMEOUT_MILLIS + "ms")),
+                        JOIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS
+                );
+
+                try {
+                    proxyClient.getSessionService().joinServer(proxyClient.getAuthentication().getSelectedProfile(), proxyClient.getAuthentication().getAuthenticatedToken(), s1);
+                    future.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                } finally {
+                    timeout.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            future.completeExceptionally(new RejectedExecutionException("Too many pending session joins", exception));
         }
 
+        future.whenCompleteAsync((millis, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                return;
+            }
+
+            if (throwable != null) {
+                if (throwable instanceof TimeoutException) {
+                    statistics.recordTimeout();
+                } else {
+                    statistics.recordFailure();
+                }
+
+                System.out.println("Failed to join server on auth servers (" + authService + ") with " + proxyClient.getAccountName() + ": " + throwable.getMessage());
+                proxyClient.setLastKickReason(Component.text("Failed to join server on auth servers: " + throwable.getMessage()));
+                proxyClient.connectionFailed();
+                proxyClient.close();
+                return;
+            }
+
+            statistics.recordSuccess(millis);
+            if (!proxyClient.isConnected()) {
+                return;
+            }
+
+            try {
+                this.sendEncryptionResponse(proxyClient, publicKey, secretKey, request);
+            } catch (Exception exception) {
+                exception.printStackTrace();
+                proxyClient.close();
+            }
+        }, proxyClient.getWrappedChannel().eventLoop());
+    }
+
+    private void sendEncryptionResponse(ConnectedProxyClient proxyClient, PublicKey publicKey, SecretKey secretKey, PacketLoginInEncryptionRequest request) throws Exception {
         byte[] secretKeyEncrypted = ClientEncryptionUtils.cipherOperation(publicKey, secretKey.getEncoded());
         byte[] verifyTokenEncrypted = ClientEncryptionUtils.cipherOperation(publicKey, request.getVerifyToken());
         proxyClient.write(new PacketLoginOutEncryptionResponse(secretKeyEncrypted, verifyTokenEncrypted));
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.login;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class SessionJoinStatistics {
+
+    private static final Map<String, SessionJoinStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private final String authService;
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    private SessionJoinStatistics(String authService) {
+        this.authService = authService;
+    }
+
+    @NotNull
+    public static SessionJoinStatistics getStatistics(@NotNull String authService) {
+        return STATISTICS.computeIfAbsent(authService, SessionJoinStatistics::new);
+    }
+
+    @NotNull
+    public static Collection<SessionJoinStatistics> getAllStatistics() {
+        return STATISTICS.values();
+    }
+
+    void recordSuccess(long millis) {
+        this.joins.increment();
+        this.totalMillis.add(millis);
+        this.maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    void recordFailure() {
+        this.failures.increment();
+    }
+
+    void recordTimeout() {
+        this.timeouts.increment();
+    }
+
+    public String getAuthService() {
+        return this.authService;
+    }
+
+    public long getJoins() {
+        return this.joins.sum();
+    }
+
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    public long getAverageMillis() {
+        long joins = this.joins.sum();
+        return joins == 0 ? 0 : this.totalMillis.sum() / joins;
+    }
+
+    public long getMaxMillis() {
+        return this.maxMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return this.authService + ": " + this.getJoins() + " joins (avg " + this.getAverageMillis() + "ms, max " + this.getMaxMillis() + "ms), "
+                + this.getFailures() + " failures, " + this.getTimeouts() + " timeouts";
+    }
+}
@@ -246,15 +246,24 @@ public class DefaultPlayer extends ProxyEntity implements Player, WrappedNetwork
             this.entityId = connection.getEntityId();
         }
 
-        if (this.connectedClient != null && this.connectedClient instanceof BasicServiceConnection) {
-            ((BasicServiceConnection) this.connectedClient).getClient().free();
+        ConnectedProxyClient previousClient = this.connectedClient instanceof BasicServiceConnection ? ((BasicServiceConnection) this.connectedClient).getClient() : null;
+        ConnectedProxyClient nextClient = connection instanceof BasicServiceConnection ? ((BasicServiceConnection) connection).getClient() : null;
+        // both clients are in the same world, only the differences between their caches have to be sent
+        boolean delta = previousClient != null && nextClient != null && previousClient.isInSameWorld(nextClient);
+
+        if (previousClient != null) {
+            previousClient.free(delta ? nextClient : null);
         }
 
         this.connected = true;
 
         this.connectingClient = connection;
 
-        connection.syncPackets(this, this.connectedClient != null);
+        if (delta) {
+            nextClient.redirectPackets(this, previousClient);
+        } else {
+            connection.syncPackets(this, this.connectedClient != null);
+        }
         this.connectedClient = connection;
 
         this.connectingClient = null;
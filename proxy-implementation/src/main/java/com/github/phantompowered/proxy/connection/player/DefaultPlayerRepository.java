@@ -30,6 +30,7 @@ import com.github.phantompowered.proxy.api.player.OfflinePlayer;
 import com.github.phantompowered.proxy.api.player.Player;
 import com.github.phantompowered.proxy.api.player.PlayerRepository;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.connection.DefaultServiceConnector;
 import com.github.phantompowered.proxy.storage.OfflinePlayerStorage;
 
 import java.util.Collection;
@@ -49,14 +50,22 @@ public class DefaultPlayerRepository implements PlayerRepository {
 
     @Override
     public Collection<Player> getOnlinePlayers() {
-        return this.registry.getProviderUnchecked(ServiceConnector.class)
-                .getOnlineClients().stream().map(ServiceConnection::getPlayer).filter(Objects::nonNull).collect(Collectors.toList());
+        ServiceConnector connector = this.registry.getProviderUnchecked(ServiceConnector.class);
+        if (connector instanceof DefaultServiceConnector) {
+            return ((DefaultServiceConnector) connector).getOnlinePlayers();
+        }
+
+        return connector.getOnlineClients().stream().map(ServiceConnection::getPlayer).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
     public Player getOnlinePlayer(String name) {
-        return this.registry.getProviderUnchecked(ServiceConnector.class)
-                .getOnlineClients().stream()
+        ServiceConnector connector = this.registry.getProviderUnchecked(ServiceConnector.class);
+        if (connector instanceof DefaultServiceConnector) {
+            return ((DefaultServiceConnector) connector).getOnlinePlayer(name);
+        }
+
+        return connector.getOnlineClients().stream()
                 .map(ServiceConnection::getPlayer)
                 .filter(Objects::nonNull)
                 .filter(connection -> connection.getName().equalsIgnoreCase(name))
@@ -65,7 +74,12 @@ public class DefaultPlayerRepository implements PlayerRepository {
 
     @Override
     public Player getOnlinePlayer(UUID uniqueId) {
-        return this.registry.getProviderUnchecked(ServiceConnector.class).getOnlineClients().stream()
+        ServiceConnector connector = this.registry.getProviderUnchecked(ServiceConnector.class);
+        if (connector instanceof DefaultServiceConnector) {
+            return ((DefaultServiceConnector) connector).getOnlinePlayer(uniqueId);
+        }
+
+        return connector.getOnlineClients().stream()
                 .map(ServiceConnection::getPlayer)
                 .filter(Objects::nonNull)
                 .filter(connection -> connection.getUniqueId().equals(uniqueId))
@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.reconnect;
+
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.api.connection.ServiceConnectResult;
+import com.github.phantompowered.proxy.api.connection.ServiceConnection;
+import com.github.phantompowered.proxy.api.connection.ServiceConnector;
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
+import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.api.session.MCServiceCredentials;
+import com.github.phantompowered.proxy.api.task.Task;
+import com.github.phantompowered.proxy.util.TokenBucket;
+import com.mojang.authlib.exceptions.AuthenticationException;
+
+import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// connects the stored accounts concurrently, limited per target server by the limits in the configuration
+public class AccountStartupConnector {
+
+    private static final long CONNECT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int PROGRESS_STEP = 10;
+
+    private final ServiceRegistry registry;
+    private final Map<String, ServerQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private long startTime;
+
+    public AccountStartupConnector(ServiceRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void add(MCServiceCredentials credentials, NetworkAddress address) {
+        String host = address.getRawHost().toLowerCase();
+        ServerQueue queue = this.queues.computeIfAbsent(host, ServerQueue::new);
+        synchronized (queue) {
+            queue.pending.add(new Account(credentials, address));
+        }
+        this.total.incrementAndGet();
+    }
+
+    public void start() {
+        this.startTime = System.currentTimeMillis();
+        if (this.total.get() == 0) {
+            return;
+        }
+
+        System.out.println("Connecting " + this.total.get() + " accounts to " + this.queues.size() + " servers...");
+        for (ServerQueue queue : this.queues.values()) {
+            queue.drain();
+        }
+    }
+
+    private void finished(ServerQueue queue, Account account, boolean success) {
+        if (success) {
+            this.connected.incrementAndGet();
+        } else {
+            this.failed.incrementAndGet();
+        }
+
+        synchronized (queue) {
+            queue.active--;
+        }
+        queue.drain();
+
+        int done = this.connected.get() + this.failed.get();
+        if (done == this.total.get()) {
+            double seconds = (System.currentTimeMillis() - this.startTime) / 1000D;
+            System.out.println("Finished connecting accounts in " + new DecimalFormat("##.###").format(seconds) + "s: "
+                    + this.connected.get() + " connected, " + this.failed.get() + " failed");
+        } else if (done % PROGRESS_STEP == 0) {
+            System.out.println("Connecting accounts: " + done + "/" + this.total.get() + " (" + this.failed.get() + " failed)");
+        }
+    }
+
+    private void connect(ServerQueue queue, Account account) {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Task<ServiceConnectResult>> pending = new AtomicReference<>();
+        ScheduledFuture<?> timeout = APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> {
+            if (done.compareAndSet(false, true)) {
+                System.out.println("Connecting " + account.credentials + " to " + account.address + " took longer than " + CONNECT_TIMEOUT_MILLIS + "ms");
+                // aborting the connect closes the client, the slot is only freed once nothing is connecting anymore
+                Task<ServiceConnectResult> task = pending.get();
+                if (task != null) {
+                    task.completeExceptionally(new TimeoutException("Connect timed out after " + CONNECT_TIMEOUT_MILLIS + "ms"));
+                }
+                this.finished(queue, account, false);
+            }
+        }, CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // the login at the auth servers is blocking
+        APIUtil.EXECUTOR_SERVICE.execute(() -> {
+            try {
+                ServiceConnection connection = this.registry.getProviderUnchecked(ServiceConnector.class).createConnection(account.credentials, account.address);
+                if (done.get()) {
+                    // timed out during the login, the connection is registered but was never tried
+                    this.registry.getProvider(ServiceReconnectionHandler.class).ifPresent(handler -> handler.enqueue(connection));
+                    return;
+                }
+
+                Task<ServiceConnectResult> task = connection.connect();
+                pending.set(task);
+                if (done.get()) {
+                    task.completeExceptionally(new TimeoutException("Connect timed out after " + CONNECT_TIMEOUT_MILLIS + "ms"));
+                    return;
+                }
+
+                task.whenComplete((result, throwable) -> {
+                    if (done.compareAndSet(false, true)) {
+                        timeout.cancel(false);
+                        this.finished(queue, account, throwable == null && result != null && result.isSuccess());
+                    }
+                });
+            } catch (AuthenticationException exception) {
+                exception.printStackTrace();
+                if (done.compareAndSet(false, true)) {
+                    timeout.cancel(false);
+                    this.finished(queue, account, false);
+                }
+            }
+        });
+    }
+
+    private static final class Account {
+
+        private final MCServiceCredentials credentials;
+        private final NetworkAddress address;
+
+        private Account(MCServiceCredentials credentials, NetworkAddress address) {
+            this.credentials = credentials;
+            this.address = address;
+        }
+    }
+
+    private final class ServerQueue {
+
+        private final int maxConcurrentLogins;
+        private final TokenBucket loginRate;
+
+        private final Queue<Account> pending = new ArrayDeque<>();
+        private int active;
+        private boolean drainScheduled;
+
+        private ServerQueue(String host) {
+            Configuration configuration = AccountStartupConnector.this.registry.getProviderUnchecked(Configuration.class);
+            double loginsPerSecond = configuration.getLoginsPerSecond(host);
+
+            this.maxConcurrentLogins = configuration.getMaxConcurrentLogins(host);
+            this.loginRate = new TokenBucket(Math.max(1, loginsPerSecond), loginsPerSecond);
+        }
+
+        private void drain() {
+            while (true) {
+                Account account;
+                synchronized (this) {
+                    if (this.active >= this.maxConcurrentLogins || this.pending.isEmpty()) {
+                        return;
+                    }
+
+                    long wait = this.loginRate.getMillisUntilAvailable();
+                    if (wait > 0 || !this.loginRate.tryAcquire()) {
+                        if (!this.drainScheduled) {
+                            this.drainScheduled = true;
+                            APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> {
+                                synchronized (this) {
+                                    this.drainScheduled = false;
+                                }
+                                this.drain();
+                            }, Math.max(1, wait), TimeUnit.MILLISECONDS);
+                        }
+                        return;
+                    }
+
+                    account = this.pending.poll();
+                    this.active++;
+                }
+
+                AccountStartupConnector.this.connect(this, account);
+            }
+        }
+    }
+}
@@ -24,19 +24,45 @@
  */
 package com.github.phantompowered.proxy.connection.reconnect;
 
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.connection.ServiceConnectResult;
 import com.github.phantompowered.proxy.api.connection.ServiceConnection;
 import com.github.phantompowered.proxy.api.connection.ServiceConnector;
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.api.task.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// keeps track of every disconnected client and reconnects it with an exponential backoff,
+// limited globally and per server so that a mass disconnect doesn't flood the targets
 public class ServiceReconnectionHandler implements Runnable {
 
     public static final long INTERVAL = TimeUnit.SECONDS.toMillis(20);
+    public static final long MAX_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    public static final int MAX_RECONNECTS = 16;
+    public static final int MAX_RECONNECTS_PER_SERVER = 4;
+
+    private static final long CONNECT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    // the backoff is only reset if the client stays connected for this time, so a client that is kicked right after joining still backs off
+    private static final long STABLE_CONNECTION_MILLIS = TimeUnit.MINUTES.toMillis(1);
 
     private final ServiceRegistry registry;
+    private final Map<ServiceConnection, ReconnectState> states = new ConcurrentHashMap<>();
+    private final Map<NetworkAddress, AtomicInteger> reconnectsPerServer = new ConcurrentHashMap<>();
+    private final AtomicInteger reconnects = new AtomicInteger();
 
     public ServiceReconnectionHandler(ServiceRegistry registry) {
         this.registry = registry;
@@ -44,23 +70,132 @@ public class ServiceReconnectionHandler implements Runnable {
 
     @Override
     public void run() {
-        ServiceConnector connector = this.registry.getProviderUnchecked(ServiceConnector.class);
+        Collection<? extends ServiceConnection> clients = this.registry.getProviderUnchecked(ServiceConnector.class).getOnlineClients();
+        this.states.keySet().retainAll(new HashSet<>(clients));
 
-        for (ServiceConnection client : connector.getOnlineClients()) {
-            if (client.isConnected() || client.getLastConnectionTryTimestamp() == -1) {
+        long now = System.currentTimeMillis();
+        for (ServiceConnection client : clients) {
+            ReconnectState state = this.states.get(client);
+            // connections which were never tried are only picked up if they were handed over explicitly
+            if (client.isConnected() || (client.getLastConnectionTryTimestamp() == -1 && state == null)) {
+                if (state != null && !state.reconnecting && now - state.connectedSince >= STABLE_CONNECTION_MILLIS) {
+                    this.states.remove(client);
+                }
                 continue;
             }
 
-            long diff = System.currentTimeMillis() - client.getLastConnectionTryTimestamp();
-            if (diff < INTERVAL) {
+            if (state == null) {
+                state = new ReconnectState(client.getLastConnectionTryTimestamp() + INTERVAL);
+                this.states.put(client, state);
+            }
+
+            if (state.reconnecting || state.nextAttempt > now) {
                 continue;
             }
 
-            try {
-                client.connect().get(10, TimeUnit.SECONDS);
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                e.printStackTrace();
+            if (this.reconnects.get() >= MAX_RECONNECTS) {
+                return;
+            }
+
+            AtomicInteger serverReconnects = this.reconnectsPerServer.computeIfAbsent(client.getServerAddress(), address -> new AtomicInteger());
+            if (serverReconnects.get() >= MAX_RECONNECTS_PER_SERVER) {
+                continue;
             }
+
+            this.reconnect(client, state, serverReconnects);
+        }
+    }
+
+    // takes over a registered connection which hasn't been connected yet, it is connected as soon as the limits allow it
+    public void enqueue(@NotNull ServiceConnection connection) {
+        this.states.putIfAbsent(connection, new ReconnectState(System.currentTimeMillis()));
+    }
+
+    public @Nullable ReconnectState getState(@NotNull ServiceConnection connection) {
+        return this.states.get(connection);
+    }
+
+    public @NotNull Map<ServiceConnection, ReconnectState> getStates() {
+        return Collections.unmodifiableMap(this.states);
+    }
+
+    private void reconnect(ServiceConnection client, ReconnectState state, AtomicInteger serverReconnects) {
+        state.reconnecting = true;
+        state.attempts++;
+        this.reconnects.incrementAndGet();
+        serverReconnects.incrementAndGet();
+
+        Task<ServiceConnectResult> task;
+        try {
+            task = client.connect();
+        } catch (IllegalStateException exception) { // connected in the meantime, this wasn't a reconnect
+            state.attempts--;
+            this.release(serverReconnects);
+            state.reconnecting = false;
+            return;
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        ScheduledFuture<?> timeout = APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> {
+            if (done.compareAndSet(false, true)) {
+                // closes the pending client so that it doesn't keep connecting after its slot is freed
+                task.completeExceptionally(new TimeoutException("Reconnect timed out after " + CONNECT_TIMEOUT_MILLIS + "ms"));
+                this.finished(client, state, serverReconnects, false);
+            }
+        }, CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        task.whenComplete((result, throwable) -> {
+            if (done.compareAndSet(false, true)) {
+                timeout.cancel(false);
+                this.finished(client, state, serverReconnects, throwable == null && result != null && result.isSuccess());
+            }
+        });
+    }
+
+    private void release(AtomicInteger serverReconnects) {
+        this.reconnects.decrementAndGet();
+        serverReconnects.decrementAndGet();
+    }
+
+    private void finished(ServiceConnection client, ReconnectState state, AtomicInteger serverReconnects, boolean success) {
+        this.release(serverReconnects);
+
+        long now = System.currentTimeMillis();
+        if (success) {
+            state.connectedSince = now;
+        }
+
+        // exponential backoff with jitter, between half and the full interval
+        long interval = Math.min(MAX_INTERVAL, INTERVAL << Math.min(state.attempts - 1, 16));
+        state.nextAttempt = now + interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
+        state.reconnecting = false;
+    }
+
+    public static final class ReconnectState {
+
+        private volatile int attempts;
+        private volatile long nextAttempt;
+        private volatile boolean reconnecting;
+        private volatile long connectedSince;
+
+        private ReconnectState(long nextAttempt) {
+            this.nextAttempt = nextAttempt;
+        }
+
+        public int getAttempts() {
+            return this.attempts;
+        }
+
+        public long getNextAttempt() {
+            return this.nextAttempt;
+        }
+
+        public boolean isReconnecting() {
+            return this.reconnecting;
+        }
+
+        public long getConnectedSince() {
+            return this.connectedSince;
         }
     }
 }
@@ -7,82 +7,81 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultWhitelist extends DatabaseProvidedStorage<DefaultWhitelistEntry> implements Whitelist {
 
     private static final String KEY = "WhitelistKey";
 
+    private final Set<UUID> whitelisted = ConcurrentHashMap.newKeySet();
+    private volatile boolean enabled;
+
     public DefaultWhitelist(ServiceRegistry registry) {
-        super(registry, "default_proxy_whitelist", DefaultWhitelistEntry.class);
-    }
+        super(registry, "default_proxy_whitelist", DefaultWhitelistEntry.class, new DefaultWhitelistEntryCodec());
 
-    private DefaultWhitelistEntry getEntry() {
         DefaultWhitelistEntry entry = super.get(KEY);
         if (entry == null) {
-            entry = new DefaultWhitelistEntry(false, new ArrayList<>());
-            super.insert(KEY, entry);
+            super.insert(KEY, new DefaultWhitelistEntry(false, new ArrayList<>()));
+        } else {
+            this.enabled = entry.isEnabled();
+            this.whitelisted.addAll(entry.getWhitelisted());
         }
-        return entry;
     }
 
-    private void updateEntry(DefaultWhitelistEntry entry) {
-        super.update(KEY, entry);
+    private synchronized void updateEntry() {
+        super.update(KEY, new DefaultWhitelistEntry(this.enabled, new ArrayList<>(this.whitelisted)));
     }
 
     @Override
     public boolean isEnabled() {
-        return this.getEntry().isEnabled();
+        return this.enabled;
     }
 
     @Override
     public void setEnabled(boolean enabled) {
-        DefaultWhitelistEntry entry = this.getEntry();
-        if (entry.isEnabled() != enabled) {
-            entry.setEnabled(enabled);
-            this.updateEntry(entry);
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            this.updateEntry();
         }
     }
 
     @Override
     public boolean isWhitelisted(@NotNull UUID uniqueId) {
-        return this.getEntries().contains(uniqueId);
+        return this.whitelisted.contains(uniqueId);
     }
 
     @Override
     public void addEntry(@NotNull UUID uniqueId) {
-        DefaultWhitelistEntry entry = this.getEntry();
-        if (!entry.getWhitelisted().contains(uniqueId)) {
-            entry.getWhitelisted().add(uniqueId);
-            this.updateEntry(entry);
+        if (this.whitelisted.add(uniqueId)) {
+            this.updateEntry();
         }
     }
 
     @Override
     public void removeEntry(@NotNull UUID uniqueId) {
-        DefaultWhitelistEntry entry = this.getEntry();
-        if (entry.getWhitelisted().contains(uniqueId)) {
-            entry.getWhitelisted().remove(uniqueId);
-            this.updateEntry(entry);
+        if (this.whitelisted.remove(uniqueId)) {
+            this.updateEntry();
         }
     }
 
     @Override
     public @NotNull Collection<UUID> getEntries() {
-        return this.getEntry().getWhitelisted();
+        return Collections.unmodifiableSet(this.whitelisted);
     }
 
     @Override
     public void clear() {
-        DefaultWhitelistEntry entry = this.getEntry();
-        if (!entry.getWhitelisted().isEmpty()) {
-            entry.getWhitelisted().clear();
-            this.updateEntry(entry);
+        if (!this.whitelisted.isEmpty()) {
+            this.whitelisted.clear();
+            this.updateEntry();
         }
     }
 
     @Override
     public long size() {
-        return this.getEntries().size();
+        return this.whitelisted.size();
     }
 }
@@ -0,0 +1,44 @@
+package com.github.phantompowered.proxy.connection.whitelist;
+
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodec;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+final class DefaultWhitelistEntryCodec implements DatabaseCodec<DefaultWhitelistEntry> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(@NotNull DataOutput output, @NotNull DefaultWhitelistEntry value) throws IOException {
+        output.writeBoolean(value.isEnabled());
+
+        Collection<UUID> whitelisted = value.getWhitelisted();
+        output.writeInt(whitelisted.size());
+        for (UUID uniqueId : whitelisted) {
+            DatabaseCodecs.writeUniqueId(output, uniqueId);
+        }
+    }
+
+    @Override
+    public @NotNull DefaultWhitelistEntry read(@NotNull DataInput input, int version) throws IOException {
+        boolean enabled = input.readBoolean();
+
+        int size = input.readInt();
+        Collection<UUID> whitelisted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            whitelisted.add(DatabaseCodecs.readUniqueId(input));
+        }
+
+        return new DefaultWhitelistEntry(enabled, whitelisted);
+    }
+}
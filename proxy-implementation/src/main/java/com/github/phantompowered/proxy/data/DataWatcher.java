@@ -4,16 +4,36 @@ import com.github.phantompowered.proxy.api.item.ItemStack;
 import com.github.phantompowered.proxy.api.location.EulerAngle;
 import com.github.phantompowered.proxy.api.network.wrapper.ProtoBuf;
 
-import java.util.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Stores the 1.8 entity metadata indexed by the metadata id (0 - 31).
+ * Byte, short, int and float values are stored in a primitive slot, all other values in a lazily created object slot.
+ * Writes are serialized by the write lock, reads are optimistic and only take the read lock if a write happened while reading.
+ */
 public class DataWatcher {
 
-    private final Map<Integer, DataWatcherEntry> objects = new HashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    public static final int MAX_ID = 31;
+
+    private static final byte TYPE_ABSENT = -1;
+    private static final int TYPE_BYTE = 0;
+    private static final int TYPE_SHORT = 1;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOAT = 3;
+
+    private final byte[] types = new byte[MAX_ID + 1];
+    private final int[] primitives = new int[MAX_ID + 1];
+    private Object[] objects;
+
+    private final StampedLock lock = new StampedLock();
 
     public DataWatcher() {
+        Arrays.fill(this.types, TYPE_ABSENT);
     }
 
     public static void writeList(ProtoBuf buffer, Collection<DataWatcherEntry> objects) {
@@ -22,6 +42,7 @@ public class DataWatcher {
                 object.write(buffer);
             }
         }
+
         buffer.writeByte(DataWatcherEntry.END);
     }
 
@@ -35,50 +56,78 @@ public class DataWatcher {
         return objects;
     }
 
-    public Collection<DataWatcherEntry> getObjects() {
-        return Collections.unmodifiableCollection(this.objects.values());
+    private static boolean isPrimitive(int type) {
+        return type >= TYPE_BYTE && type <= TYPE_FLOAT;
     }
 
-    public <T> void addObject(int id, T object) {
+    private static int getTypeId(Object object) {
         int typeId = DataWatcherEntry.getDataType(object.getClass());
-
         if (typeId == -1) {
             throw new IllegalArgumentException("Unknown data type: " + object.getClass());
-        } else if (id > 31) {
-            throw new IllegalArgumentException("Data value id is too big with " + id + "! (Max is " + 31 + ")");
-        } else if (this.objects.containsKey(id)) {
-            throw new IllegalArgumentException("Duplicate id value for " + id + "!");
-        } else {
-            DataWatcherEntry dataWatcherEntry = new DataWatcherEntry(typeId, id, object);
-            this.lock.writeLock().lock();
-            this.objects.put(id, dataWatcherEntry);
-            this.lock.writeLock().unlock();
+        }
+
+        return typeId;
+    }
+
+    public Collection<DataWatcherEntry> getObjects() {
+        return this.read(() -> {
+            List<DataWatcherEntry> result = new ArrayList<>();
+            for (int id = 0; id <= MAX_ID; id++) {
+                int type = this.types[id];
+                if (type != TYPE_ABSENT) {
+                    result.add(new DataWatcherEntry(type, id, this.getBoxedValue(id, type)));
+                }
+            }
+
+            return result;
+        });
+    }
+
+    public <T> void addObject(int id, T object) {
+        int typeId = getTypeId(object);
+        this.checkId(id);
+
+        long stamp = this.lock.writeLock();
+        try {
+            if (this.types[id] != TYPE_ABSENT) {
+                throw new IllegalArgumentException("Duplicate id value for " + id + "!");
+            }
+
+            this.set(id, typeId, object);
+        } finally {
+            this.lock.unlockWrite(stamp);
         }
     }
 
     public void updateObject(int id, Object value) {
-        Optional<DataWatcherEntry> optional = this.getObject(id);
-        if (optional.isPresent()) {
-            optional.get().setValue(value);
-        } else {
-            this.addObject(id, value);
+        this.checkId(id);
+
+        long stamp = this.lock.writeLock();
+        try {
+            int type = this.types[id];
+            this.set(id, type == TYPE_ABSENT ? getTypeId(value) : type, value);
+        } finally {
+            this.lock.unlockWrite(stamp);
         }
     }
 
     public void addEmptyObjectByDataType(int id, int type) {
-        DataWatcherEntry dataWatcherEntry = new DataWatcherEntry(type, id, null);
-        this.lock.writeLock().lock();
-        this.objects.put(id, dataWatcherEntry);
-        this.lock.writeLock().unlock();
+        this.checkId(id);
+
+        long stamp = this.lock.writeLock();
+        try {
+            this.set(id, type, null);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
     }
 
     public byte getByte(int id) {
-        Object val = this.getObjectValue(id).orElse(-1);
-        return val instanceof Number ? ((Number) val).byteValue() : -1;
+        return (byte) this.getInt(id);
     }
 
     public void updateByte(int id, int value) {
-        this.updateObject(id, (byte) value);
+        this.updateNumber(id, TYPE_BYTE, (byte) value, (byte) value);
     }
 
     public boolean getBoolean(int id) {
@@ -90,34 +139,45 @@ public class DataWatcher {
     }
 
     public short getShort(int id) {
-        Object val = this.getObjectValue(id).orElse(-1);
-        return val instanceof Number ? ((Number) val).shortValue() : -1;
+        return (short) this.getInt(id);
     }
 
     public void updateShort(int id, int value) {
-        this.updateObject(id, (short) value);
+        this.updateNumber(id, TYPE_SHORT, (short) value, (short) value);
     }
 
     public int getInt(int id) {
-        Object val = this.getObjectValue(id).orElse(-1);
-        return val instanceof Number ? ((Number) val).intValue() : -1;
+        long primitive = this.readPrimitive(id);
+        int type = (int) (primitive >> 32);
+        int value = (int) primitive;
+
+        if (type == TYPE_FLOAT) {
+            return (int) Float.intBitsToFloat(value);
+        }
+        return isPrimitive(type) ? value : -1;
     }
 
     public void updateInt(int id, int value) {
-        this.updateObject(id, value);
+        this.updateNumber(id, TYPE_INT, value, value);
     }
 
     public float getFloat(int id) {
-        Object val = this.getObjectValue(id).orElse(-1);
-        return val instanceof Number ? ((Number) val).floatValue() : -1;
+        long primitive = this.readPrimitive(id);
+        int type = (int) (primitive >> 32);
+        int value = (int) primitive;
+
+        if (type == TYPE_FLOAT) {
+            return Float.intBitsToFloat(value);
+        }
+        return isPrimitive(type) ? value : -1;
     }
 
     public void updateFloat(int id, double value) {
-        this.updateObject(id, (float) value);
+        this.updateNumber(id, TYPE_FLOAT, (int) value, (float) value);
     }
 
     public String getString(int id) {
-        return (String) this.getObjectValue(id).orElse(null);
+        return (String) this.getObjectValue(id);
     }
 
     public void updateString(int id, String value) {
@@ -125,7 +185,7 @@ public class DataWatcher {
     }
 
     public ItemStack getItemStack(int id) {
-        return (ItemStack) this.getObjectValue(id).orElse(null);
+        return (ItemStack) this.getObjectValue(id);
     }
 
     public void updateItemStack(int id, ItemStack itemStack) {
@@ -133,44 +193,131 @@ public class DataWatcher {
     }
 
     public EulerAngle getEulerAngle(int id) {
-        return (EulerAngle) this.getObjectValue(id).orElse(null);
+        return (EulerAngle) this.getObjectValue(id);
     }
 
     public void updateEulerAngle(int id, EulerAngle angle) {
         this.updateObject(id, angle);
     }
 
-    private Optional<DataWatcherEntry> getObject(int id) {
-        this.lock.readLock().lock();
-        DataWatcherEntry dataWatcherEntry;
+    public void applyUpdate(Collection<DataWatcherEntry> objects) {
+        long stamp = this.lock.writeLock();
+        try {
+            for (DataWatcherEntry object : objects) {
+                int id = object.getId();
+                int type = this.types[id] != TYPE_ABSENT ? this.types[id] : object.getObjectType();
+
+                this.set(id, type, object.getValue().orElse(null));
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Data value id " + id + " is out of range! (0-" + MAX_ID + ")");
+        }
+    }
 
+    private int getType(int id) {
+        return id < 0 || id > MAX_ID ? TYPE_ABSENT : this.types[id];
+    }
+
+    private Object getObjectValue(int id) {
+        return this.read(() -> {
+            Object[] objects = this.objects;
+            int type = this.getType(id);
+
+            return objects == null || type == TYPE_ABSENT || isPrimitive(type) ? null : objects[id];
+        });
+    }
+
+    // the type in the upper and the value in the lower 32 bits, both read from the same write without boxing
+    private long readPrimitive(int id) {
+        long stamp = this.lock.tryOptimisticRead();
+        long primitive = this.packPrimitive(id);
+        if (this.lock.validate(stamp)) {
+            return primitive;
+        }
+
+        stamp = this.lock.readLock();
         try {
-            dataWatcherEntry = this.objects.get(id);
-        } catch (Throwable throwable) {
-            throw new Error(throwable);
+            return this.packPrimitive(id);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    private long packPrimitive(int id) {
+        int type = this.getType(id);
+        return (long) type << 32 | (isPrimitive(type) ? this.primitives[id] & 0xFFFFFFFFL : 0);
+    }
+
+    // retried under the read lock if a write happened while reading, the reader must not fail on a torn state
+    private <T> T read(Supplier<T> reader) {
+        long stamp = this.lock.tryOptimisticRead();
+        T result = reader.get();
+        if (this.lock.validate(stamp)) {
+            return result;
         }
 
-        this.lock.readLock().unlock();
-        return Optional.ofNullable(dataWatcherEntry);
+        stamp = this.lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
     }
 
-    private Optional<Object> getObjectValue(int id) {
-        return this.getObject(id).flatMap(DataWatcherEntry::getValue);
+    private Object getBoxedValue(int id, int type) {
+        switch (type) {
+            case TYPE_BYTE:
+                return (byte) this.primitives[id];
+            case TYPE_SHORT:
+                return (short) this.primitives[id];
+            case TYPE_INT:
+                return this.primitives[id];
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat(this.primitives[id]);
+            default:
+                return this.objects != null ? this.objects[id] : null;
+        }
     }
 
-    public void applyUpdate(Collection<DataWatcherEntry> objects) {
-        this.lock.writeLock().lock();
+    private void updateNumber(int id, int type, int intValue, float floatValue) {
+        this.checkId(id);
 
-        for (DataWatcherEntry object : objects) {
-            DataWatcherEntry previous = this.objects.get(object.getId());
-            if (previous != null) {
-                previous.setValue(object.getValue().orElse(null));
+        long stamp = this.lock.writeLock();
+        try {
+            if (this.types[id] == TYPE_ABSENT) {
+                this.types[id] = (byte) type;
+            }
+
+            this.primitives[id] = this.types[id] == TYPE_FLOAT ? Float.floatToRawIntBits(floatValue) : intValue;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    // must only be called while holding the write lock
+    private void set(int id, int type, Object value) {
+        if (isPrimitive(type)) {
+            if (value instanceof Number) {
+                Number number = (Number) value;
+                this.primitives[id] = type == TYPE_FLOAT ? Float.floatToRawIntBits(number.floatValue()) : number.intValue();
             } else {
-                this.objects.put(object.getId(), object);
+                this.primitives[id] = 0;
+            }
+        } else {
+            if (this.objects == null) {
+                this.objects = new Object[MAX_ID + 1];
             }
+
+            this.objects[id] = value;
         }
 
-        this.lock.writeLock().unlock();
+        this.types[id] = (byte) type;
     }
 
 }
@@ -467,7 +467,7 @@ public class ProxyEntity extends ProxyScaleable implements SpawnedEntity, Entity
         this.sendEntityData(sender);
     }
 
-    protected void sendEntityData(PacketSender sender) {
+    public void sendEntityData(PacketSender sender) {
         sender.sendPacket(new PacketPlayServerEntityMetadata(this.entityId, this.objectList.getObjects()));
         this.equipment.forEach((slot, item) -> sender.sendPacket(new PacketPlayServerEntityEquipment(this.entityId, slot, item)));
     }
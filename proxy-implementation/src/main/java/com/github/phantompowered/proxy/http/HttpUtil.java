@@ -24,96 +24,27 @@
  */
 package com.github.phantompowered.proxy.http;
 
-import com.github.phantompowered.proxy.api.APIUtil;
-import com.github.phantompowered.proxy.api.concurrent.Callback;
-import com.github.phantompowered.proxy.io.IOUtils;
-import com.github.phantompowered.proxy.util.LeftRightHolder;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 public final class HttpUtil {
 
+    private static final NettyHttpClient CLIENT = new NettyHttpClient();
+
     private HttpUtil() {
         throw new UnsupportedOperationException();
     }
 
-    public static void get(String url, Callback<String> callback) {
-        APIUtil.EXECUTOR_SERVICE.execute(() -> {
-            LeftRightHolder<String, IOException> result = getSync(url);
-            callback.done(result.getLeft(), result.getRight());
-        });
-    }
-
-    public static @NotNull LeftRightHolder<String, IOException> getSync(@NotNull String url) {
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setDoOutput(false);
-            connection.setDoInput(true);
-            connection.setUseCaches(false);
-            connection.setRequestProperty(
-                    "User-Agent",
-                    "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.11 (KHTML, like Gecko) Chrome/23.0.1271.95 Safari/537.11"
-            );
-            connection.connect();
-
-            return LeftRightHolder.left(readResponse(connection));
-        } catch (IOException exception) {
-            return LeftRightHolder.right(exception);
-        }
-    }
-
-    public static void post(String url, Consumer<OutputStream> consumer, Callback<String> callback) {
-        APIUtil.EXECUTOR_SERVICE.execute(() -> {
-            LeftRightHolder<String, IOException> result = postSync(url, consumer);
-            callback.done(result.getLeft(), result.getRight());
-        });
+    public static @NotNull NettyHttpClient getClient() {
+        return CLIENT;
     }
 
-    public static @NotNull LeftRightHolder<String, IOException> postSync(@NotNull String url, Consumer<OutputStream> consumer) {
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setDoOutput(true);
-            connection.setDoInput(true);
-            connection.setUseCaches(false);
-            connection.setRequestProperty(
-                    "User-Agent",
-                    "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.11 (KHTML, like Gecko) Chrome/23.0.1271.95 Safari/537.11"
-            );
-            connection.setRequestMethod("POST");
-            connection.connect();
-
-            try (OutputStream outputStream = connection.getOutputStream()) {
-                consumer.accept(outputStream);
-            }
-
-            return LeftRightHolder.left(readResponse(connection));
-        } catch (IOException exception) {
-            return LeftRightHolder.right(exception);
-        }
-    }
-
-    private static String readResponse(HttpURLConnection connection) throws IOException {
-        try (InputStream inputStream = getCorrectInputStream(connection)) {
-            if (inputStream == null) {
-                connection.disconnect();
-                return null;
-            }
-
-            return new String(IOUtils.readAllBytes(inputStream), StandardCharsets.UTF_8);
-        } finally {
-            connection.disconnect();
-        }
+    public static @NotNull CompletableFuture<HttpResponse> get(@NotNull String url) {
+        return CLIENT.get(url);
     }
 
-    private static @Nullable InputStream getCorrectInputStream(@NotNull HttpURLConnection connection) throws IOException {
-        return connection.getResponseCode() >= 200 || connection.getResponseCode() < 300 ? connection.getInputStream() : connection.getErrorStream();
+    public static @NotNull CompletableFuture<HttpResponse> post(@NotNull String url, @NotNull String contentType, byte[] body) {
+        return CLIENT.post(url, contentType, body);
     }
 }
@@ -0,0 +1,456 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.http;
+
+import com.github.phantompowered.proxy.network.NetworkUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// http/1.1 client on top of netty, keeps idle connections per host open and limits the connections opened to one host
+public class NettyHttpClient {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.11 (KHTML, like Gecko) Chrome/23.0.1271.95 Safari/537.11";
+    private static final int MAX_CONTENT_LENGTH = 16 * 1024 * 1024;
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private final EventLoopGroup eventLoopGroup = NetworkUtils.newEventLoopGroup(2);
+    private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+    private final SslContext sslContext;
+
+    private final int maxConnectionsPerHost;
+    private final int connectTimeoutMillis;
+    private final long responseTimeoutMillis;
+    private final int maxRetries;
+    private final long keepAliveMillis;
+
+    public NettyHttpClient() {
+        this(8, 5000, 10000, 2, 30000);
+    }
+
+    public NettyHttpClient(int maxConnectionsPerHost, int connectTimeoutMillis, long responseTimeoutMillis, int maxRetries, long keepAliveMillis) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.maxRetries = maxRetries;
+        this.keepAliveMillis = keepAliveMillis;
+
+        try {
+            this.sslContext = SslContextBuilder.forClient().build();
+        } catch (SSLException exception) {
+            throw new IllegalStateException("Unable to create the ssl context", exception);
+        }
+    }
+
+    public @NotNull CompletableFuture<HttpResponse> get(@NotNull String url) {
+        return this.execute(HttpMethod.GET, url, null, null);
+    }
+
+    public @NotNull CompletableFuture<HttpResponse> post(@NotNull String url, @NotNull String contentType, byte[] body) {
+        return this.execute(HttpMethod.POST, url, contentType, body);
+    }
+
+    // completes on an event loop of this client, blocking work after the request should be moved to another executor
+    public @NotNull CompletableFuture<HttpResponse> execute(@NotNull HttpMethod method, @NotNull String url, @Nullable String contentType, @Nullable byte[] body) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException exception) {
+            future.completeExceptionally(exception);
+            return future;
+        }
+
+        boolean ssl = "https".equalsIgnoreCase(uri.getScheme());
+        if ((!ssl && !"http".equalsIgnoreCase(uri.getScheme())) || uri.getHost() == null) {
+            future.completeExceptionally(new IllegalArgumentException("Unsupported url " + url));
+            return future;
+        }
+
+        int port = uri.getPort() != -1 ? uri.getPort() : ssl ? 443 : 80;
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        String hostHeader = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + port;
+
+        HostPool pool = this.pools.computeIfAbsent((ssl ? "https://" : "http://") + uri.getHost() + ":" + port, key -> new HostPool(uri.getHost(), port, ssl));
+        this.execute(new Request(method, path, hostHeader, contentType, body, future), pool);
+        return future;
+    }
+
+    public void close() {
+        this.eventLoopGroup.shutdownGracefully();
+    }
+
+    private void execute(Request request, HostPool pool) {
+        pool.acquire().whenComplete((lease, throwable) -> {
+            if (throwable != null) {
+                // nothing was sent, the request can always be retried
+                this.retryOrFail(request, pool, throwable, true);
+                return;
+            }
+
+            lease.channel.eventLoop().execute(() -> this.send(lease, request, pool));
+        });
+    }
+
+    private void send(Lease lease, Request request, HostPool pool) {
+        ResponseHandler handler = lease.channel.pipeline().get(ResponseHandler.class);
+        if (handler == null || !lease.channel.isActive()) {
+            lease.channel.close();
+            this.retryOrFail(request, pool, new ClosedChannelException(), true);
+            return;
+        }
+
+        request.written = false;
+        handler.begin(lease.channel, request, lease.reused);
+        lease.channel.writeAndFlush(request.toHttpRequest()).addListener(future -> {
+            if (future.isSuccess()) {
+                request.written = true;
+            } else {
+                handler.fail(lease.channel, future.cause());
+            }
+        });
+    }
+
+    private void retryOrFail(Request request, HostPool pool, Throwable cause, boolean safeToRetry) {
+        // a non-idempotent request is only retried if it was never written completely or if it was written to a pooled connection
+        // which was closed by the server before any byte of the response was received
+        boolean retry = request.attempt < this.maxRetries
+                && !(cause instanceof TimeoutException)
+                && (safeToRetry || request.method == HttpMethod.GET);
+        if (!retry) {
+            request.future.completeExceptionally(cause);
+            return;
+        }
+
+        request.attempt++;
+        this.eventLoopGroup.schedule(() -> this.execute(request, pool), RETRY_DELAY_MILLIS * request.attempt, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Request {
+
+        private final HttpMethod method;
+        private final String path;
+        private final String hostHeader;
+        private final String contentType;
+        private final byte[] body;
+        private final CompletableFuture<HttpResponse> future;
+        private int attempt;
+        // only accessed on the event loop of the channel the request is currently sent on
+        private boolean written;
+
+        private Request(HttpMethod method, String path, String hostHeader, String contentType, byte[] body, CompletableFuture<HttpResponse> future) {
+            this.method = method;
+            this.path = path;
+            this.hostHeader = hostHeader;
+            this.contentType = contentType;
+            this.body = body;
+            this.future = future;
+        }
+
+        private FullHttpRequest toHttpRequest() {
+            FullHttpRequest request = new DefaultFullHttpRequest(
+                    HttpVersion.HTTP_1_1, this.method, this.path,
+                    this.body == null ? Unpooled.EMPTY_BUFFER : Unpooled.wrappedBuffer(this.body)
+            );
+            request.headers()
+                    .set(HttpHeaderNames.HOST, this.hostHeader)
+                    .set(HttpHeaderNames.USER_AGENT, USER_AGENT)
+                    .set(HttpHeaderNames.ACCEPT, "*/*")
+                    .set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            if (this.contentType != null) {
+                request.headers().set(HttpHeaderNames.CONTENT_TYPE, this.contentType);
+            }
+            if (this.body != null || this.method == HttpMethod.POST) {
+                request.headers().set(HttpHeaderNames.CONTENT_LENGTH, this.body == null ? 0 : this.body.length);
+            }
+            return request;
+        }
+    }
+
+    private static final class Lease {
+
+        private final Channel channel;
+        private final boolean reused;
+
+        private Lease(Channel channel, boolean reused) {
+            this.channel = channel;
+            this.reused = reused;
+        }
+    }
+
+    private static final class IdleChannel {
+
+        private final Channel channel;
+        private final long since;
+
+        private IdleChannel(Channel channel, long since) {
+            this.channel = channel;
+            this.since = since;
+        }
+    }
+
+    private final class HostPool {
+
+        private final String host;
+        private final int port;
+        private final boolean ssl;
+
+        private final Deque<IdleChannel> idleChannels = new ArrayDeque<>();
+        private final Queue<CompletableFuture<Lease>> waiters = new ArrayDeque<>();
+        private int openChannels;
+
+        private HostPool(String host, int port, boolean ssl) {
+            this.host = host;
+            this.port = port;
+            this.ssl = ssl;
+        }
+
+        private CompletableFuture<Lease> acquire() {
+            CompletableFuture<Lease> future = new CompletableFuture<>();
+            Collection<Channel> expired = new ArrayList<>();
+            Channel reusable = null;
+            boolean connect = false;
+
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                IdleChannel idleChannel;
+                while ((idleChannel = this.idleChannels.pollFirst()) != null) {
+                    if (idleChannel.channel.isActive() && now - idleChannel.since < NettyHttpClient.this.keepAliveMillis) {
+                        reusable = idleChannel.channel;
+                        break;
+                    }
+                    expired.add(idleChannel.channel);
+                }
+
+                if (reusable == null) {
+                    if (this.openChannels < NettyHttpClient.this.maxConnectionsPerHost) {
+                        this.openChannels++;
+                        connect = true;
+                    } else {
+                        this.waiters.add(future);
+                    }
+                }
+            }
+
+            expired.forEach(Channel::close);
+            if (reusable != null) {
+                future.complete(new Lease(reusable, true));
+            } else if (connect) {
+                this.connect(future);
+            }
+            return future;
+        }
+
+        private void release(Channel channel) {
+            CompletableFuture<Lease> waiter;
+            synchronized (this) {
+                waiter = this.waiters.poll();
+                if (waiter == null) {
+                    this.idleChannels.addFirst(new IdleChannel(channel, System.currentTimeMillis()));
+                }
+            }
+
+            if (waiter != null) {
+                waiter.complete(new Lease(channel, true));
+            }
+        }
+
+        private void closed(Channel channel) {
+            CompletableFuture<Lease> waiter = null;
+            synchronized (this) {
+                this.openChannels--;
+                this.idleChannels.removeIf(idleChannel -> idleChannel.channel == channel);
+
+                if (!this.waiters.isEmpty() && this.openChannels < NettyHttpClient.this.maxConnectionsPerHost) {
+                    this.openChannels++;
+                    waiter = this.waiters.poll();
+                }
+            }
+
+            if (waiter != null) {
+                this.connect(waiter);
+            }
+        }
+
+        private void connect(CompletableFuture<Lease> future) {
+            ChannelFuture connectFuture = new Bootstrap()
+                    .group(NettyHttpClient.this.eventLoopGroup)
+                    .channel(NetworkUtils.getSocketChannelClass())
+                    .resolver(NetworkUtils.getResolverGroup())
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, NettyHttpClient.this.connectTimeoutMillis)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(@NotNull Channel channel) {
+                            if (HostPool.this.ssl) {
+                                SslHandler sslHandler = NettyHttpClient.this.sslContext.newHandler(channel.alloc(), HostPool.this.host, HostPool.this.port);
+                                SSLParameters parameters = sslHandler.engine().getSSLParameters();
+                                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                                sslHandler.engine().setSSLParameters(parameters);
+                                channel.pipeline().addLast("ssl", sslHandler);
+                            }
+
+                            ResponseHandler handler = new ResponseHandler(HostPool.this);
+                            channel.pipeline()
+                                    .addLast("receive_tracker", new ChannelInboundHandlerAdapter() {
+                                        @Override
+                                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                            handler.received = true;
+                                            ctx.fireChannelRead(msg);
+                                        }
+                                    })
+                                    .addLast("codec", new HttpClientCodec())
+                                    .addLast("aggregator", new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                                    .addLast("handler", handler);
+                        }
+                    })
+                    .connect(this.host, this.port);
+
+            Channel channel = connectFuture.channel();
+            channel.closeFuture().addListener(closeFuture -> this.closed(channel));
+            connectFuture.addListener(result -> {
+                if (result.isSuccess()) {
+                    future.complete(new Lease(channel, false));
+                } else {
+                    future.completeExceptionally(result.cause());
+                }
+            });
+        }
+    }
+
+    // all methods are called on the event loop of the channel
+    private final class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+        private final HostPool pool;
+
+        private Request request;
+        private boolean reused;
+        private boolean received;
+        private ScheduledFuture<?> timeout;
+
+        private ResponseHandler(HostPool pool) {
+            this.pool = pool;
+        }
+
+        private void begin(Channel channel, Request request, boolean reused) {
+            this.request = request;
+            this.reused = reused;
+            this.received = false;
+            this.timeout = channel.eventLoop().schedule(
+                    () -> this.fail(channel, new TimeoutException("No response from " + this.pool.host + " within " + NettyHttpClient.this.responseTimeoutMillis + "ms")),
+                    NettyHttpClient.this.responseTimeoutMillis, TimeUnit.MILLISECONDS
+            );
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            Request request = this.finish();
+            if (request == null) {
+                ctx.close();
+                return;
+            }
+
+            HttpResponse result = new HttpResponse(response.status().code(), response.content().toString(StandardCharsets.UTF_8));
+            if (io.netty.handler.codec.http.HttpUtil.isKeepAlive(response)) {
+                this.pool.release(ctx.channel());
+            } else {
+                ctx.close();
+            }
+
+            request.future.complete(result);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            this.fail(ctx.channel(), new ClosedChannelException());
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            this.fail(ctx.channel(), cause);
+        }
+
+        private void fail(Channel channel, Throwable cause) {
+            Request request = this.finish();
+            channel.close();
+
+            if (request != null) {
+                NettyHttpClient.this.retryOrFail(request, this.pool, cause, !request.written || (this.reused && !this.received));
+            }
+        }
+
+        private Request finish() {
+            Request request = this.request;
+            this.request = null;
+            if (this.timeout != null) {
+                this.timeout.cancel(false);
+                this.timeout = null;
+            }
+            return request;
+        }
+    }
+}
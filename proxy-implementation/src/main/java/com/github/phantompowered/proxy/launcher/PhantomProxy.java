@@ -54,17 +54,21 @@ import com.github.phantompowered.proxy.command.defaults.*;
 import com.github.phantompowered.proxy.configuration.JsonConfiguration;
 import com.github.phantompowered.proxy.connection.DefaultServiceConnector;
 import com.github.phantompowered.proxy.connection.ProxyServer;
+import com.github.phantompowered.proxy.connection.egress.EgressProxyPool;
 import com.github.phantompowered.proxy.connection.handler.ClientPacketHandler;
 import com.github.phantompowered.proxy.connection.handler.PingPacketHandler;
 import com.github.phantompowered.proxy.connection.handler.ServerPacketHandler;
 import com.github.phantompowered.proxy.connection.login.ProxyClientLoginHandler;
 import com.github.phantompowered.proxy.connection.player.DefaultPlayerRepository;
+import com.github.phantompowered.proxy.connection.reconnect.AccountStartupConnector;
 import com.github.phantompowered.proxy.connection.reconnect.ServiceReconnectionHandler;
 import com.github.phantompowered.proxy.connection.whitelist.DefaultWhitelist;
 import com.github.phantompowered.proxy.entity.EntityTickHandler;
 import com.github.phantompowered.proxy.event.DefaultEventManager;
+import com.github.phantompowered.proxy.http.HttpUtil;
 import com.github.phantompowered.proxy.network.SimpleChannelInitializer;
 import com.github.phantompowered.proxy.network.listener.InitialHandler;
+import com.github.phantompowered.proxy.network.pipeline.limit.ConnectionRateLimiter;
 import com.github.phantompowered.proxy.network.registry.handler.DefaultPacketHandlerRegistry;
 import com.github.phantompowered.proxy.network.registry.packet.DefaultPacketRegistry;
 import com.github.phantompowered.proxy.paste.DefaultPasteServerProvider;
@@ -75,17 +79,15 @@ import com.github.phantompowered.proxy.storage.DefaultPlayerIdStorage;
 import com.github.phantompowered.proxy.storage.MCServiceCredentialsStorage;
 import com.github.phantompowered.proxy.storage.database.H2DatabaseConfig;
 import com.github.phantompowered.proxy.storage.database.H2DatabaseDriver;
+import com.github.phantompowered.proxy.storage.database.WriteBehindDatabaseDriver;
 import com.github.phantompowered.proxy.tick.DefaultTickHandlerProvider;
-import com.mojang.authlib.exceptions.AuthenticationException;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 
 import java.net.InetSocketAddress;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 public class PhantomProxy {
 
@@ -105,7 +107,9 @@ public class PhantomProxy {
         this.serviceRegistry.setProvider(null, PacketHandlerRegistry.class, new DefaultPacketHandlerRegistry(), false, true);
         this.serviceRegistry.setProvider(null, PacketRegistry.class, new DefaultPacketRegistry(), false, true);
         this.serviceRegistry.setProvider(null, Configuration.class, new JsonConfiguration(), true);
-        this.serviceRegistry.setProvider(null, DatabaseDriver.class, new H2DatabaseDriver(), false, true);
+        this.serviceRegistry.setProvider(null, ConnectionRateLimiter.class, new ConnectionRateLimiter(this.serviceRegistry), false, true);
+        this.serviceRegistry.setProvider(null, EgressProxyPool.class, new EgressProxyPool(this.serviceRegistry), false, true);
+        this.serviceRegistry.setProvider(null, DatabaseDriver.class, new WriteBehindDatabaseDriver(new H2DatabaseDriver()), false, true);
         this.serviceRegistry.setProvider(null, ServiceConnector.class, new DefaultServiceConnector(this.serviceRegistry), false, true);
         this.serviceRegistry.setProvider(null, ServerPingProvider.class, new DefaultServerPingProvider(this.serviceRegistry), false, true);
         this.serviceRegistry.setProvider(null, TickHandlerProvider.class, new DefaultTickHandlerProvider(), true);
@@ -146,6 +150,7 @@ public class PhantomProxy {
             }
 
             this.serviceRegistry.getProviderUnchecked(DatabaseDriver.class).close();
+            HttpUtil.getClient().close();
 
             this.proxyServer.close();
         }
@@ -202,24 +207,21 @@ public class PhantomProxy {
     }
 
     private void readAccounts() {
-        APIUtil.SCHEDULED_EXECUTOR_SERVICE.scheduleAtFixedRate(new ServiceReconnectionHandler(this.serviceRegistry), 10, 10, TimeUnit.SECONDS);
+        ServiceReconnectionHandler reconnectionHandler = new ServiceReconnectionHandler(this.serviceRegistry);
+        this.serviceRegistry.setProvider(null, ServiceReconnectionHandler.class, reconnectionHandler, false, true);
+        APIUtil.SCHEDULED_EXECUTOR_SERVICE.scheduleAtFixedRate(reconnectionHandler, 1, 1, TimeUnit.SECONDS);
+        APIUtil.SCHEDULED_EXECUTOR_SERVICE.scheduleAtFixedRate(this.serviceRegistry.getProviderUnchecked(EgressProxyPool.class), 0, 30, TimeUnit.SECONDS);
 
-        ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
+        AccountStartupConnector startupConnector = new AccountStartupConnector(this.serviceRegistry);
         MCServiceCredentialsStorage storage = this.serviceRegistry.getProviderUnchecked(MCServiceCredentialsStorage.class);
         for (MCServiceCredentials credentials : storage.getAll()) {
             NetworkAddress address = NetworkAddress.parse(credentials.getDefaultServer());
-            if (address == null) {
-                continue;
-            }
-
-            try {
-                connector.createConnection(credentials, address).connect().get(10, TimeUnit.SECONDS);
-
-                Thread.sleep(500);
-            } catch (AuthenticationException | InterruptedException | ExecutionException | TimeoutException e) {
-                e.printStackTrace();
+            if (address != null) {
+                startupConnector.add(credentials, address);
             }
         }
+
+        startupConnector.start();
     }
 
     private void handleCommands() {
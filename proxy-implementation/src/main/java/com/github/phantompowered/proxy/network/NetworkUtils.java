@@ -25,23 +25,35 @@
 package com.github.phantompowered.proxy.network;
 
 import com.github.phantompowered.proxy.network.pipeline.length.LengthFrameEncoder;
+import com.github.phantompowered.proxy.network.resolver.MinecraftAddressResolverGroup;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DefaultDnsCnameCache;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsCnameCache;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
 import io.netty.util.ResourceLeakDetector;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import org.jetbrains.annotations.NotNull;
 
+import java.net.InetSocketAddress;
 import java.util.concurrent.ThreadFactory;
 
 public final class NetworkUtils {
@@ -56,6 +68,9 @@ public final class NetworkUtils {
     public static final String ENCRYPT = "encrypt";
     public static final String COMPRESSOR = "compressor";
     public static final String DE_COMPRESSOR = "de-compressor";
+    public static final String HAPROXY_DECODER = "haproxy_decoder";
+    public static final String CONNECTION_LIMITER = "connection_limiter";
+    public static final String PACKET_LIMITER = "packet_limiter";
     public static final MessageToByteEncoder<ByteBuf> LENGTH_FRAME_ENCODER = new LengthFrameEncoder();
     public static final WriteBufferWaterMark WATER_MARK = new WriteBufferWaterMark(524288, 2097152);
 
@@ -97,16 +112,61 @@ public final class NetworkUtils {
         return 5;
     }
 
+    private static EventLoopGroup workerGroup;
+    private static MinecraftAddressResolverGroup resolverGroup;
+    private static MinecraftAddressResolverGroup minecraftResolverGroup;
+
+    // shared by the player connections and the bot connections so that a bot can be moved to the event loop of its player
+    public static synchronized EventLoopGroup getWorkerGroup() {
+        if (workerGroup == null) {
+            workerGroup = newEventLoopGroup();
+        }
+        return workerGroup;
+    }
+
+    // resolvers for all outgoing connections, both share the same cache which respects the ttl of the records
+    public static synchronized AddressResolverGroup<InetSocketAddress> getResolverGroup() {
+        if (resolverGroup == null) {
+            createResolverGroups();
+        }
+        return resolverGroup;
+    }
+
+    // additionally looks up the _minecraft._tcp SRV record of the host
+    public static synchronized AddressResolverGroup<InetSocketAddress> getMinecraftResolverGroup() {
+        if (minecraftResolverGroup == null) {
+            createResolverGroups();
+        }
+        return minecraftResolverGroup;
+    }
+
+    private static void createResolverGroups() {
+        DnsServerAddressStreamProvider nameServers = DnsServerAddressStreamProviders.platformDefault();
+        DnsCache resolveCache = new DefaultDnsCache();
+        DnsCnameCache cnameCache = new DefaultDnsCnameCache();
+
+        resolverGroup = new MinecraftAddressResolverGroup(nameServers, resolveCache, cnameCache, false);
+        minecraftResolverGroup = new MinecraftAddressResolverGroup(nameServers, resolveCache, cnameCache, true);
+    }
+
     public static EventLoopGroup newEventLoopGroup() {
+        return newEventLoopGroup(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static EventLoopGroup newEventLoopGroup(int threads) {
         return Epoll.isAvailable()
-                ? new EpollEventLoopGroup(Runtime.getRuntime().availableProcessors(), threadFactory())
-                : new NioEventLoopGroup(Runtime.getRuntime().availableProcessors(), threadFactory());
+                ? new EpollEventLoopGroup(threads, threadFactory())
+                : new NioEventLoopGroup(threads, threadFactory());
     }
 
     public static Class<? extends SocketChannel> getSocketChannelClass() {
         return Epoll.isAvailable() ? EpollSocketChannel.class : NioSocketChannel.class;
     }
 
+    public static Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return Epoll.isAvailable() ? EpollDatagramChannel.class : NioDatagramChannel.class;
+    }
+
     public static Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
         return Epoll.isAvailable() ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
     }
@@ -24,13 +24,20 @@
  */
 package com.github.phantompowered.proxy.network;
 
+import com.github.phantompowered.proxy.api.configuration.Configuration;
 import com.github.phantompowered.proxy.api.connection.ProtocolDirection;
 import com.github.phantompowered.proxy.api.connection.ProtocolState;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.network.pipeline.limit.ConnectionRateLimiter;
+import com.github.phantompowered.proxy.network.pipeline.limit.PacketRateLimitHandler;
+import com.github.phantompowered.proxy.network.pipeline.limit.ProxyProtocolLimitHandler;
 import com.github.phantompowered.proxy.network.pipeline.minecraft.MinecraftDecoder;
 import com.github.phantompowered.proxy.network.pipeline.minecraft.MinecraftEncoder;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.handler.codec.haproxy.HAProxyMessageDecoder;
+
+import java.net.InetSocketAddress;
 
 public final class ServerConnectionChannelInitializer extends ChannelInitializer<Channel> {
 
@@ -42,10 +49,34 @@ public final class ServerConnectionChannelInitializer extends ChannelInitializer
 
     @Override
     protected void initChannel(Channel channel) {
+        ConnectionRateLimiter limiter = this.serviceRegistry.getProviderUnchecked(ConnectionRateLimiter.class);
+        Configuration configuration = this.serviceRegistry.getProviderUnchecked(Configuration.class);
+        boolean proxyProtocol = configuration.isProxyProtocol();
+        boolean limited = configuration.isConnectionLimitEnabled();
+
+        // checked before anything is added to the pipeline, behind haproxy the real address is only known after the PROXY header
+        if (limited && !proxyProtocol && channel.remoteAddress() instanceof InetSocketAddress
+                && !limiter.tryAcceptConnection(((InetSocketAddress) channel.remoteAddress()).getAddress())) {
+            channel.close();
+            return;
+        }
+
         this.serviceRegistry.getProviderUnchecked(SimpleChannelInitializer.class).initChannel(channel);
 
+        if (proxyProtocol) {
+            if (limited) {
+                channel.pipeline().addFirst(NetworkUtils.CONNECTION_LIMITER, new ProxyProtocolLimitHandler(limiter));
+            }
+            channel.pipeline().addFirst(NetworkUtils.HAPROXY_DECODER, new HAProxyMessageDecoder());
+        }
+
         channel.pipeline()
                 .addAfter(NetworkUtils.LENGTH_DECODER, NetworkUtils.PACKET_DECODER, new MinecraftDecoder(this.serviceRegistry, ProtocolDirection.TO_SERVER, ProtocolState.HANDSHAKING))
                 .addAfter(NetworkUtils.LENGTH_ENCODER, NetworkUtils.PACKET_ENCODER, new MinecraftEncoder(this.serviceRegistry, ProtocolDirection.TO_CLIENT));
+
+        if (limited) {
+            // between the length decoder and the packet decoder to count frames before they are decoded
+            channel.pipeline().addAfter(NetworkUtils.LENGTH_DECODER, NetworkUtils.PACKET_LIMITER, new PacketRateLimitHandler(limiter));
+        }
     }
 }
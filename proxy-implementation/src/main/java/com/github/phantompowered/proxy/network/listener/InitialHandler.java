@@ -26,7 +26,6 @@ package com.github.phantompowered.proxy.network.listener;
 
 import com.github.phantompowered.proxy.ImplementationUtil;
 import com.github.phantompowered.proxy.api.APIUtil;
-import com.github.phantompowered.proxy.api.concurrent.Callback;
 import com.github.phantompowered.proxy.api.configuration.Configuration;
 import com.github.phantompowered.proxy.api.connection.ProtocolDirection;
 import com.github.phantompowered.proxy.api.connection.ProtocolState;
@@ -39,11 +38,8 @@ import com.github.phantompowered.proxy.api.events.connection.PingEvent;
 import com.github.phantompowered.proxy.api.events.connection.ServiceConnectorChooseClientEvent;
 import com.github.phantompowered.proxy.api.events.connection.player.PlayerLoginEvent;
 import com.github.phantompowered.proxy.api.events.connection.player.PlayerPreLoginEvent;
-import com.github.phantompowered.proxy.api.network.NetworkAddress;
 import com.github.phantompowered.proxy.api.network.PacketHandler;
 import com.github.phantompowered.proxy.api.network.channel.NetworkChannel;
-import com.github.phantompowered.proxy.api.ping.ServerPing;
-import com.github.phantompowered.proxy.api.ping.ServerPingProvider;
 import com.github.phantompowered.proxy.api.player.OfflinePlayer;
 import com.github.phantompowered.proxy.api.player.PlayerRepository;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
@@ -52,12 +48,14 @@ import com.github.phantompowered.proxy.connection.ConnectedProxyClient;
 import com.github.phantompowered.proxy.connection.handler.ClientChannelListener;
 import com.github.phantompowered.proxy.connection.player.DefaultOfflinePlayer;
 import com.github.phantompowered.proxy.connection.player.DefaultPlayer;
+import com.github.phantompowered.proxy.http.HttpResponse;
 import com.github.phantompowered.proxy.http.HttpUtil;
 import com.github.phantompowered.proxy.network.NetworkUtils;
 import com.github.phantompowered.proxy.network.pipeline.cipher.PacketCipherDecoder;
 import com.github.phantompowered.proxy.network.pipeline.cipher.PacketCipherEncoder;
 import com.github.phantompowered.proxy.network.pipeline.encryption.ServerEncryptionUtils;
 import com.github.phantompowered.proxy.network.pipeline.handler.HandlerEndpoint;
+import com.github.phantompowered.proxy.ping.StatusResponseCache;
 import com.github.phantompowered.proxy.protocol.ProtocolIds;
 import com.github.phantompowered.proxy.protocol.handshake.PacketHandshakingClientSetProtocol;
 import com.github.phantompowered.proxy.protocol.login.client.PacketLoginClientLoginRequest;
@@ -74,7 +72,6 @@ import com.google.common.base.Preconditions;
 import com.mojang.authlib.GameProfile;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.jetbrains.annotations.NotNull;
 
 import javax.crypto.SecretKey;
@@ -84,14 +81,22 @@ import java.net.URLEncoder;
 import java.security.MessageDigest;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 public class InitialHandler {
 
     protected static final String INIT_STATE = "initialState";
+    private static final long SESSION_TIMEOUT_MILLIS = 10_000;
+    private static final long DATA_TIMEOUT_MILLIS = 5_000;
+
     private final ServiceRegistry serviceRegistry;
+    private final StatusResponseCache statusResponseCache;
 
     public InitialHandler(ServiceRegistry serviceRegistry) {
         this.serviceRegistry = serviceRegistry;
+        this.statusResponseCache = new StatusResponseCache(serviceRegistry);
     }
 
     static boolean canSendKickMessage(NetworkChannel channel) {
@@ -123,27 +128,24 @@ public class InitialHandler {
     public void handle(NetworkChannel channel, PacketStatusInRequest statusRequest) {
         Preconditions.checkState(channel.getProperty(INIT_STATE) == State.STATUS, "Not expecting STATUS");
 
-        Configuration configuration = this.serviceRegistry.getProviderUnchecked(Configuration.class);
-        NetworkAddress targetAddress = configuration.getMotdTargetAddress();
-
-        if (targetAddress != null) {
-            this.serviceRegistry.getProviderUnchecked(ServerPingProvider.class).pingServer(targetAddress).thenAccept(response -> this.respondPing(channel, response));
-        } else {
-            ServerPing response = configuration.getMotd();
-            ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
-
-            response.setDescription(Component.text(LegacyComponentSerializer.legacySection().serialize(response.getDescription())
-                    .replace("$free", String.valueOf(connector.getFreeClients().size()))
-                    .replace("$online", String.valueOf(connector.getOnlineClients().size()))
-            ));
-            this.respondPing(channel, response);
-        }
+        this.statusResponseCache.getResponse().thenAccept(response -> this.respondPing(channel, response));
+    }
 
+    private void respondPing(NetworkChannel channel, StatusResponseCache.CachedResponse response) {
+        EventManager eventManager = this.serviceRegistry.getProviderUnchecked(EventManager.class);
+        if (!eventManager.hasListeners(PingEvent.class)) {
+            if (response == null) {
+                channel.close();
+                return;
+            }
 
-    }
+            channel.write(new PacketStatusOutResponse(response.getJson(), response.getEncoded()));
+            channel.setProperty(INIT_STATE, State.PING);
+            return;
+        }
 
-    private void respondPing(NetworkChannel channel, ServerPing response) {
-        PingEvent event = this.serviceRegistry.getProviderUnchecked(EventManager.class).callEvent(new PingEvent(channel, response));
+        // listeners may modify the response, they get their own copy
+        PingEvent event = eventManager.callEvent(new PingEvent(channel, response == null ? null : response.createServerPing()));
         if (event.getResponse() == null) {
             channel.close();
             return;
@@ -265,94 +267,147 @@ public class InitialHandler {
         String encodedHash = URLEncoder.encode(new BigInteger(sha.digest()).toString(16));
         String authURL = "https://sessionserver.mojang.com/session/minecraft/hasJoined?username=" + encName + "&serverId=" + encodedHash;
 
-        Callback<String> handler = (result, exception) -> {
-            if (exception == null && result != null) {
-                GameProfile profile = ImplementationUtil.GAME_PROFILE_GSON.fromJson(result, GameProfile.class);
-                if (profile != null && profile.getId() != null) {
-                    finish(channel, profile.getId(), profile);
-                    return;
-                }
+        LoginPipeline pipeline = new LoginPipeline(channel);
+        pipeline.await("session", SESSION_TIMEOUT_MILLIS, HttpUtil.get(authURL).thenApply(this::parseSession)).whenComplete((profile, throwable) -> {
+            if (throwable != null) {
+                this.failLogin(channel, throwable, "Failed to authenticate with mojang. Please try again.");
+                return;
+            }
 
-                disconnect(channel, "Magic: " + result);
+            if (profile == null || profile.getId() == null) {
+                disconnect(channel, "Failed to authenticate with mojang. Please try again.");
                 return;
-            } else if (exception != null) {
-                exception.printStackTrace();
             }
 
-            disconnect(channel, "Failed to authenticate with mojang. Please try again.");
-        };
+            this.finish(channel, pipeline, profile.getId(), profile);
+        });
+    }
 
-        HttpUtil.get(authURL, handler);
+    private GameProfile parseSession(HttpResponse response) {
+        String body = response.getBody();
+        if (!response.isSuccess() || body == null || body.isEmpty()) {
+            return null;
+        }
+
+        return ImplementationUtil.GAME_PROFILE_GSON.fromJson(body, GameProfile.class);
+    }
+
+    private void failLogin(NetworkChannel channel, Throwable throwable, String reason) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof TimeoutException) {
+            System.out.println("Login of " + channel.getProperty("requestedName") + " timed out: " + cause.getMessage());
+            disconnect(channel, "The login took too long. Please try again.");
+        } else if (cause instanceof RejectedExecutionException) {
+            disconnect(channel, "The proxy is currently overloaded. Please try again.");
+        } else {
+            cause.printStackTrace();
+            disconnect(channel, reason);
+        }
     }
 
-    private void finish(NetworkChannel channel, UUID uniqueId, GameProfile profile) {
+    private void finish(NetworkChannel channel, LoginPipeline pipeline, UUID uniqueId, GameProfile profile) {
+        if (channel.isClosing()) {
+            return;
+        }
+
         if (this.serviceRegistry.getProviderUnchecked(PlayerRepository.class).getOnlinePlayer(uniqueId) != null) {
             disconnect(channel, "Already connected");
             return;
         }
 
         Optional<Whitelist> whitelist = this.serviceRegistry.getProvider(Whitelist.class);
-        if (whitelist.isPresent() && whitelist.get().isEnabled() && !whitelist.get().isWhitelisted(uniqueId)) {
-            disconnect(channel, "The whitelist is enabled and you're not whitelisted");
+        if (!whitelist.isPresent()) {
+            this.loadPlayer(channel, pipeline, uniqueId, profile);
+            return;
+        }
+
+        pipeline.stage("whitelist", DATA_TIMEOUT_MILLIS, () -> !whitelist.get().isEnabled() || whitelist.get().isWhitelisted(uniqueId)).whenComplete((whitelisted, throwable) -> {
+            if (throwable != null) {
+                this.failLogin(channel, throwable, "Unable to check the whitelist. Please try again.");
+                return;
+            }
+
+            if (!whitelisted) {
+                disconnect(channel, "The whitelist is enabled and you're not whitelisted");
+                return;
+            }
+
+            this.loadPlayer(channel, pipeline, uniqueId, profile);
+        });
+    }
+
+    private void loadPlayer(NetworkChannel channel, LoginPipeline pipeline, UUID uniqueId, GameProfile profile) {
+        if (channel.isClosing()) {
             return;
         }
 
-        channel.getWrappedChannel().eventLoop().execute(() -> {
+        PlayerRepository repository = this.serviceRegistry.getProviderUnchecked(PlayerRepository.class);
+        pipeline.stage("player data", DATA_TIMEOUT_MILLIS, () -> {
+            OfflinePlayer offlinePlayer = repository.getOfflinePlayer(uniqueId);
+            if (offlinePlayer == null) {
+                offlinePlayer = new DefaultOfflinePlayer(uniqueId, profile.getName(), -1, -1);
+                repository.insertOfflinePlayer(offlinePlayer);
+            }
+            return offlinePlayer;
+        }).whenComplete((offlinePlayer, throwable) -> {
+            if (throwable != null) {
+                this.failLogin(channel, throwable, "Unable to load your player data. Please try again.");
+                return;
+            }
+
             if (!channel.isClosing()) {
-                PlayerRepository repository = this.serviceRegistry.getProviderUnchecked(PlayerRepository.class);
-                OfflinePlayer offlinePlayer = repository.getOfflinePlayer(uniqueId);
-                if (offlinePlayer == null) {
-                    offlinePlayer = new DefaultOfflinePlayer(uniqueId, profile.getName(), -1, -1);
-                    repository.insertOfflinePlayer(offlinePlayer);
-                }
+                this.login(channel, pipeline, repository, offlinePlayer, profile);
+            }
+        });
+    }
 
-                ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
+    private void login(NetworkChannel channel, LoginPipeline pipeline, PlayerRepository repository, OfflinePlayer offlinePlayer, GameProfile profile) {
+        UUID uniqueId = offlinePlayer.getUniqueId();
+        ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
 
-                boolean forceClient = connector.hasReconnectProfile(offlinePlayer.getUniqueId());
-                ServiceConnection client = connector.findBestConnection(offlinePlayer.getUniqueId());
+        boolean forceClient = connector.hasReconnectProfile(uniqueId);
+        ServiceConnection client = connector.findBestConnection(uniqueId);
 
-                ServiceConnectorChooseClientEvent clientEvent = null;
-                if (!forceClient) {
-                    clientEvent = this.serviceRegistry.getProviderUnchecked(EventManager.class).callEvent(new ServiceConnectorChooseClientEvent(uniqueId, client));
-                    client = clientEvent.getConnection();
-                }
+        ServiceConnectorChooseClientEvent clientEvent = null;
+        if (!forceClient) {
+            clientEvent = this.serviceRegistry.getProviderUnchecked(EventManager.class).callEvent(new ServiceConnectorChooseClientEvent(uniqueId, client));
+            client = clientEvent.getConnection();
+        }
 
-                if (client == null || (clientEvent != null && clientEvent.isCancelled())) {
-                    disconnect(channel, Component.text("§7No client found"));
-                    return;
-                }
+        if (client == null || (clientEvent != null && clientEvent.isCancelled())) {
+            disconnect(channel, Component.text("§7No client found"));
+            return;
+        }
 
-                DefaultPlayer player = new DefaultPlayer(
-                        this.serviceRegistry,
-                        ((BasicServiceConnection) client).getClient(),
-                        offlinePlayer,
-                        channel,
-                        channel.getProperty("sentProtocol"),
-                        this.serviceRegistry.getProviderUnchecked(Configuration.class).getCompressionThreshold()
-                );
-                repository.updateOfflinePlayer(player);
-
-                PlayerLoginEvent event = this.serviceRegistry.getProviderUnchecked(EventManager.class).callEvent(new PlayerLoginEvent(player));
-                if (!channel.isConnected()) {
-                    return;
-                }
+        DefaultPlayer player = new DefaultPlayer(
+                this.serviceRegistry,
+                ((BasicServiceConnection) client).getClient(),
+                offlinePlayer,
+                channel,
+                channel.getProperty("sentProtocol"),
+                this.serviceRegistry.getProviderUnchecked(Configuration.class).getCompressionThreshold()
+        );
+        pipeline.execute(() -> repository.updateOfflinePlayer(player));
+
+        PlayerLoginEvent event = this.serviceRegistry.getProviderUnchecked(EventManager.class).callEvent(new PlayerLoginEvent(player));
+        if (!channel.isConnected()) {
+            return;
+        }
 
-                if (event.isCancelled()) {
-                    disconnect(channel, event.getCancelReason() == null ? Component.text("§cNo reason given") : event.getCancelReason());
-                    return;
-                }
+        if (event.isCancelled()) {
+            disconnect(channel, event.getCancelReason() == null ? Component.text("§cNo reason given") : event.getCancelReason());
+            return;
+        }
 
-                channel.write(new PacketLoginOutLoginSuccess(uniqueId.toString(), profile.getName())); // Dashed UUID
-                channel.setProtocolState(ProtocolState.PLAY);
-                channel.getWrappedChannel().pipeline().get(HandlerEndpoint.class).setNetworkChannel(player);
-                channel.getWrappedChannel().pipeline().get(HandlerEndpoint.class).setChannelListener(new ClientChannelListener(player));
+        channel.write(new PacketLoginOutLoginSuccess(uniqueId.toString(), profile.getName())); // Dashed UUID
+        channel.setProtocolState(ProtocolState.PLAY);
+        channel.getWrappedChannel().pipeline().get(HandlerEndpoint.class).setNetworkChannel(player);
+        channel.getWrappedChannel().pipeline().get(HandlerEndpoint.class).setChannelListener(new ClientChannelListener(player));
 
-                player.useClient(client);
-                channel.setProperty(INIT_STATE, State.FINISHED);
+        player.useClient(client);
+        channel.setProperty(INIT_STATE, State.FINISHED);
 
-                System.out.println("Player [" + player.getName() + "/" + player.getUniqueId() + "] logged in on [" + client.getName() + "/" + client.getUniqueId() + "]");
-            }
-        });
+        System.out.println("Player [" + player.getName() + "/" + player.getUniqueId() + "] logged in on [" + client.getName() + "/" + client.getUniqueId() + "] in " + pipeline.describe());
     }
 
     enum State {
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.listener;
+
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.network.channel.NetworkChannel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+final class LoginPipeline {
+
+    private static final int WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_QUEUED_TASKS = 512;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService WORKER_POOL = createWorkerPool();
+
+    private final NetworkChannel channel;
+    private final long startTime = System.nanoTime();
+    // only accessed from the event loop of the channel
+    private final Map<String, Long> stageTimes = new LinkedHashMap<>();
+
+    LoginPipeline(@NotNull NetworkChannel channel) {
+        this.channel = channel;
+    }
+
+    private static ExecutorService createWorkerPool() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                WORKER_THREADS, WORKER_THREADS,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_TASKS),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Login worker #" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Runs the given blocking task on the login worker pool. The returned future is completed on the
+     * event loop of the channel, either with the result of the task or exceptionally if the task failed,
+     * did not finish within the given time or could not be queued because the pool is overloaded.
+     */
+    @NotNull
+    <T> CompletableFuture<T> stage(@NotNull String name, long timeoutMillis, @NotNull Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            WORKER_POOL.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(task.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+        }
+
+        return this.await(name, timeoutMillis, future);
+    }
+
+    // like stage, but for work that is asynchronous already and doesn't need a worker
+    @NotNull
+    <T> CompletableFuture<T> await(@NotNull String name, long timeoutMillis, @NotNull CompletableFuture<T> future) {
+        long stageStart = System.nanoTime();
+        ScheduledFuture<?> timeout = APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(
+                () -> future.completeExceptionally(new TimeoutException("Login stage " + name + " took longer than " + timeoutMillis + "ms")),
+                timeoutMillis, TimeUnit.MILLISECONDS
+        );
+
+        return future.whenCompleteAsync((result, throwable) -> {
+            timeout.cancel(false);
+            this.stageTimes.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStart));
+        }, this.channel.getWrappedChannel().eventLoop());
+    }
+
+    void execute(@NotNull Runnable task) {
+        try {
+            WORKER_POOL.execute(task);
+        } catch (RejectedExecutionException exception) {
+            APIUtil.EXECUTOR_SERVICE.execute(task);
+        }
+    }
+
+    long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime);
+    }
+
+    @NotNull
+    String describe() {
+        StringBuilder builder = new StringBuilder().append(this.getElapsedMillis()).append("ms");
+        if (!this.stageTimes.isEmpty()) {
+            builder.append(" (");
+            boolean first = true;
+            for (Map.Entry<String, Long> entry : this.stageTimes.entrySet()) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                builder.append(entry.getKey()).append(": ").append(entry.getValue()).append("ms");
+                first = false;
+            }
+            builder.append(")");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.pipeline.limit;
+
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import com.github.phantompowered.proxy.util.TokenBucket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionRateLimiter {
+
+    private final ServiceRegistry registry;
+    // buckets of addresses without connections in the last minute are full again anyway
+    private final Cache<String, TokenBucket> addressBuckets = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+    private final Cache<String, TokenBucket> subnetBuckets = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong droppedConnections = new AtomicLong();
+    private final AtomicLong droppedSubnetConnections = new AtomicLong();
+    private final AtomicLong packetFloods = new AtomicLong();
+
+    public ConnectionRateLimiter(ServiceRegistry registry) {
+        this.registry = registry;
+    }
+
+    public boolean tryAcceptConnection(@NotNull InetAddress address) {
+        Configuration configuration = this.registry.getProviderUnchecked(Configuration.class);
+
+        if (!configuration.isConnectionLimitEnabled() || (configuration.isExemptLocalAddresses() && this.isLocalAddress(address))) {
+            this.acceptedConnections.incrementAndGet();
+            return true;
+        }
+
+        if (!this.tryAcquire(this.addressBuckets, address.getHostAddress(), configuration, false)) {
+            this.droppedConnections.incrementAndGet();
+            return false;
+        }
+        if (!this.tryAcquire(this.subnetBuckets, this.getSubnet(address), configuration, true)) {
+            this.droppedSubnetConnections.incrementAndGet();
+            return false;
+        }
+
+        this.acceptedConnections.incrementAndGet();
+        return true;
+    }
+
+    private boolean isLocalAddress(InetAddress address) {
+        return address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress() || address.isAnyLocalAddress();
+    }
+
+    private boolean tryAcquire(Cache<String, TokenBucket> buckets, String key, Configuration configuration, boolean subnet) {
+        return buckets.asMap()
+                .computeIfAbsent(key, k -> new TokenBucket(configuration.getConnectionBurst(subnet), configuration.getConnectionsPerSecond(subnet)))
+                .tryAcquire();
+    }
+
+    private String getSubnet(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        int prefixLength = address instanceof Inet4Address ? 3 : 8;
+        return Arrays.toString(Arrays.copyOf(bytes, Math.min(prefixLength, bytes.length)));
+    }
+
+    public @NotNull TokenBucket newPacketBucket() {
+        double packetsPerSecond = this.registry.getProviderUnchecked(Configuration.class).getPacketsPerSecond();
+        return new TokenBucket(packetsPerSecond * 2, packetsPerSecond);
+    }
+
+    void handlePacketFlood() {
+        this.packetFloods.incrementAndGet();
+    }
+
+    public long getAcceptedConnections() {
+        return this.acceptedConnections.get();
+    }
+
+    public long getDroppedConnections() {
+        return this.droppedConnections.get();
+    }
+
+    public long getDroppedSubnetConnections() {
+        return this.droppedSubnetConnections.get();
+    }
+
+    public long getPacketFloods() {
+        return this.packetFloods.get();
+    }
+
+    @Override
+    public String toString() {
+        return "accepted=" + this.getAcceptedConnections()
+                + ", droppedByAddress=" + this.getDroppedConnections()
+                + ", droppedBySubnet=" + this.getDroppedSubnetConnections()
+                + ", closedForPacketFlood=" + this.getPacketFloods();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.pipeline.limit;
+
+import com.github.phantompowered.proxy.util.TokenBucket;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+
+public class PacketRateLimitHandler extends ChannelInboundHandlerAdapter {
+
+    private final ConnectionRateLimiter limiter;
+    private final TokenBucket bucket;
+    private boolean closed;
+
+    public PacketRateLimitHandler(ConnectionRateLimiter limiter) {
+        this.limiter = limiter;
+        this.bucket = limiter.newPacketBucket();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (this.closed) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+
+        if (!this.bucket.tryAcquire()) {
+            // dropping single packets would break the protocol state, so the whole connection is closed
+            this.closed = true;
+            this.limiter.handlePacketFlood();
+            ReferenceCountUtil.release(msg);
+            ctx.close();
+            return;
+        }
+
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.pipeline.limit;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.util.ReferenceCountUtil;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// checks the address forwarded by haproxy, the real address is unknown until the PROXY header is decoded
+public class ProxyProtocolLimitHandler extends ChannelInboundHandlerAdapter {
+
+    private final ConnectionRateLimiter limiter;
+
+    public ProxyProtocolLimitHandler(ConnectionRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws UnknownHostException {
+        if (!(msg instanceof HAProxyMessage)) {
+            ReferenceCountUtil.release(msg);
+            ctx.close();
+            return;
+        }
+
+        String sourceAddress = ((HAProxyMessage) msg).sourceAddress();
+        if (sourceAddress != null && !this.limiter.tryAcceptConnection(InetAddress.getByName(sourceAddress))) {
+            ReferenceCountUtil.release(msg);
+            ctx.close();
+            return;
+        }
+
+        ctx.pipeline().remove(this);
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.resolver;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DefaultDnsRecordDecoder;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.resolver.AbstractAddressResolver;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MinecraftAddressResolver extends AbstractAddressResolver<InetSocketAddress> {
+
+    private static final int DEFAULT_PORT = 25565;
+    private static final long MIN_SRV_TTL = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_SRV_TTL = TimeUnit.HOURS.toMillis(1);
+
+    private final DnsNameResolver nameResolver;
+    private final Map<String, SrvTarget> srvCache;
+
+    MinecraftAddressResolver(EventExecutor executor, DnsNameResolver nameResolver, @Nullable Map<String, SrvTarget> srvCache) {
+        super(executor, InetSocketAddress.class);
+        this.nameResolver = nameResolver;
+        this.srvCache = srvCache;
+    }
+
+    @Override
+    protected boolean doIsResolved(InetSocketAddress address) {
+        return !address.isUnresolved();
+    }
+
+    @Override
+    protected void doResolve(InetSocketAddress unresolvedAddress, Promise<InetSocketAddress> promise) {
+        String host = unresolvedAddress.getHostString();
+        // like the vanilla client, SRV records are only used if no port other than the default one is given
+        if (this.srvCache == null || unresolvedAddress.getPort() != DEFAULT_PORT || NetUtil.isValidIpV4Address(host) || NetUtil.isValidIpV6Address(host)) {
+            this.resolveHost(host, unresolvedAddress.getPort(), promise);
+            return;
+        }
+
+        SrvTarget cached = this.srvCache.get(host);
+        if (cached != null && cached.expiration > System.currentTimeMillis()) {
+            this.resolveHost(cached.host != null ? cached.host : host, cached.host != null ? cached.port : DEFAULT_PORT, promise);
+            return;
+        }
+
+        this.nameResolver.resolveAll(new DefaultDnsQuestion("_minecraft._tcp." + host, DnsRecordType.SRV)).addListener(future -> {
+            SrvTarget target = null;
+            if (future.isSuccess()) {
+                @SuppressWarnings("unchecked")
+                List<DnsRecord> records = (List<DnsRecord>) future.getNow();
+                try {
+                    target = this.selectTarget(records);
+                } finally {
+                    for (DnsRecord record : records) {
+                        ReferenceCountUtil.release(record);
+                    }
+                }
+            }
+
+            // failed lookups (e.g. NXDOMAIN) are cached as well to not query the SRV record on every connect
+            if (target == null) {
+                target = new SrvTarget(null, DEFAULT_PORT, System.currentTimeMillis() + MIN_SRV_TTL);
+            }
+            this.srvCache.put(host, target);
+
+            this.resolveHost(target.host != null ? target.host : host, target.host != null ? target.port : DEFAULT_PORT, promise);
+        });
+    }
+
+    private SrvTarget selectTarget(List<DnsRecord> records) {
+        SrvTarget best = null;
+        int bestPriority = Integer.MAX_VALUE;
+        int bestWeight = -1;
+
+        for (DnsRecord record : records) {
+            if (record.type() != DnsRecordType.SRV || !(record instanceof DnsRawRecord)) {
+                continue;
+            }
+
+            // priority, weight, port and the target, the content is a view of the whole message so compressed names can be decoded
+            ByteBuf content = ((DnsRawRecord) record).content().duplicate();
+            int priority = content.readUnsignedShort();
+            int weight = content.readUnsignedShort();
+            int port = content.readUnsignedShort();
+            String target = DefaultDnsRecordDecoder.decodeName(content);
+            if (target.endsWith(".")) {
+                target = target.substring(0, target.length() - 1);
+            }
+
+            if (target.isEmpty() || priority > bestPriority || (priority == bestPriority && weight <= bestWeight)) {
+                continue;
+            }
+
+            long ttl = Math.max(MIN_SRV_TTL, Math.min(MAX_SRV_TTL, TimeUnit.SECONDS.toMillis(record.timeToLive())));
+            best = new SrvTarget(target, port, System.currentTimeMillis() + ttl);
+            bestPriority = priority;
+            bestWeight = weight;
+        }
+
+        return best;
+    }
+
+    private void resolveHost(String host, int port, Promise<InetSocketAddress> promise) {
+        this.nameResolver.resolve(host).addListener(future -> {
+            if (future.isSuccess()) {
+                promise.trySuccess(new InetSocketAddress((InetAddress) future.getNow(), port));
+            } else {
+                promise.tryFailure(future.cause());
+            }
+        });
+    }
+
+    @Override
+    protected void doResolveAll(InetSocketAddress unresolvedAddress, Promise<List<InetSocketAddress>> promise) {
+        Promise<InetSocketAddress> single = this.executor().newPromise();
+        single.addListener(future -> {
+            if (future.isSuccess()) {
+                promise.trySuccess(Collections.singletonList((InetSocketAddress) future.getNow()));
+            } else {
+                promise.tryFailure(future.cause());
+            }
+        });
+        this.doResolve(unresolvedAddress, single);
+    }
+
+    @Override
+    public void close() {
+        this.nameResolver.close();
+    }
+
+    static final class SrvTarget {
+
+        private final String host;
+        private final int port;
+        private final long expiration;
+
+        private SrvTarget(@Nullable String host, int port, long expiration) {
+            this.host = host;
+            this.port = port;
+            this.expiration = expiration;
+        }
+
+        @Nullable
+        String getHost() {
+            return this.host;
+        }
+
+        int getPort() {
+            return this.port;
+        }
+
+        long getExpiration() {
+            return this.expiration;
+        }
+    }
+}
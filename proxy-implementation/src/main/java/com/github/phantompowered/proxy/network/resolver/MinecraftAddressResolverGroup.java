@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.resolver;
+
+import com.github.phantompowered.proxy.network.NetworkUtils;
+import io.netty.channel.EventLoop;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsCnameCache;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.util.concurrent.EventExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MinecraftAddressResolverGroup extends AddressResolverGroup<InetSocketAddress> {
+
+    private final DnsServerAddressStreamProvider nameServers;
+    private final DnsCache resolveCache;
+    private final DnsCnameCache cnameCache;
+    // null if no SRV records should be looked up (e.g. for http connections)
+    private final Map<String, MinecraftAddressResolver.SrvTarget> srvCache;
+
+    public MinecraftAddressResolverGroup(@NotNull DnsServerAddressStreamProvider nameServers, @NotNull DnsCache resolveCache,
+                                         @NotNull DnsCnameCache cnameCache, boolean lookupSrv) {
+        this.nameServers = nameServers;
+        this.resolveCache = resolveCache;
+        this.cnameCache = cnameCache;
+        this.srvCache = lookupSrv ? new ConcurrentHashMap<>() : null;
+    }
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+        if (!(executor instanceof EventLoop)) {
+            throw new IllegalStateException("Unsupported executor " + executor + ", only event loops can be used");
+        }
+
+        DnsNameResolver nameResolver = new DnsNameResolverBuilder((EventLoop) executor)
+                .channelType(NetworkUtils.getDatagramChannelClass())
+                .nameServerProvider(this.nameServers)
+                .resolveCache(this.resolveCache)
+                .cnameCache(this.cnameCache)
+                .build();
+        return new MinecraftAddressResolver(executor, nameResolver, this.srvCache);
+    }
+
+    @Nullable
+    Map<String, MinecraftAddressResolver.SrvTarget> getSrvCache() {
+        return this.srvCache;
+    }
+}
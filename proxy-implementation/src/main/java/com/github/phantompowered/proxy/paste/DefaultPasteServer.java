@@ -26,17 +26,19 @@ package com.github.phantompowered.proxy.paste;
 
 import com.github.phantompowered.proxy.api.paste.PasteServer;
 import com.github.phantompowered.proxy.api.paste.PasteServerUploadResult;
+import com.github.phantompowered.proxy.http.HttpResponse;
 import com.github.phantompowered.proxy.http.HttpUtil;
-import com.github.phantompowered.proxy.util.LeftRightHolder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class DefaultPasteServer implements PasteServer {
 
@@ -84,27 +86,31 @@ public class DefaultPasteServer implements PasteServer {
             url += (url.endsWith("/") ? "" : "/") + "documents";
         }
 
-        Collection<String> documents = new ArrayList<>();
+        List<String> documents = new ArrayList<>();
         do {
             int next = Math.min(content.length(), Math.toIntExact(this.limitPerDocument));
             documents.add(content.substring(0, next));
             content = content.substring(next);
         } while (!content.isEmpty());
 
-        Collection<PasteServerUploadResult> output = new ArrayList<>(documents.size());
+        List<CompletableFuture<HttpResponse>> requests = new ArrayList<>(documents.size());
         for (String document : documents) {
-            LeftRightHolder<String, IOException> result = HttpUtil.postSync(url, outputStream -> {
-                try {
-                    outputStream.write(document.getBytes(StandardCharsets.UTF_8));
-                } catch (IOException exception) {
-                    exception.printStackTrace();
+            requests.add(HttpUtil.post(url, "text/plain", document.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        Collection<PasteServerUploadResult> output = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            try {
+                HttpResponse response = requests.get(i).join();
+                if (!response.isSuccess() || response.getBody() == null) {
+                    System.err.println("Unable to upload document to " + url + ": " + response.getStatusCode());
+                    continue;
                 }
-            });
-            if (result.getRight() != null) {
-                result.getRight().printStackTrace();
-            } else {
-                JsonObject jsonObject = JsonParser.parseString(result.getLeft()).getAsJsonObject();
-                output.add(new DefaultPasteServerUploadResult(jsonObject, this.apiUrl, document));
+
+                JsonObject jsonObject = JsonParser.parseString(response.getBody()).getAsJsonObject();
+                output.add(new DefaultPasteServerUploadResult(jsonObject, this.apiUrl, documents.get(i)));
+            } catch (CompletionException exception) {
+                exception.getCause().printStackTrace();
             }
         }
 
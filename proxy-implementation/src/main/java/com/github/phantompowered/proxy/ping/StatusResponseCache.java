@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.ping;
+
+import com.github.phantompowered.proxy.ImplementationUtil;
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.api.connection.ServiceConnector;
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
+import com.github.phantompowered.proxy.api.ping.ServerPing;
+import com.github.phantompowered.proxy.api.ping.ServerPingProvider;
+import com.github.phantompowered.proxy.api.service.ServiceRegistry;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class StatusResponseCache {
+
+    private static final long LOCAL_REFRESH_MILLIS = 1000;
+    private static final long UPSTREAM_TTL_MILLIS = 5000;
+    private static final long UPSTREAM_FAILURE_TTL_MILLIS = 1000;
+    private static final long UPSTREAM_TIMEOUT_MILLIS = 5000;
+
+    private final ServiceRegistry serviceRegistry;
+
+    private volatile CachedResponse local;
+
+    private CachedResponse upstream;
+    private NetworkAddress upstreamAddress;
+    private CompletableFuture<CachedResponse> upstreamRefresh;
+
+    public StatusResponseCache(ServiceRegistry serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    /**
+     * Gets the response for a status request, the future is completed with {@code null} if the motd target
+     * could not be pinged.
+     */
+    public @NotNull CompletableFuture<CachedResponse> getResponse() {
+        Configuration configuration = this.serviceRegistry.getProviderUnchecked(Configuration.class);
+        NetworkAddress targetAddress = configuration.getMotdTargetAddress();
+        if (targetAddress != null) {
+            return this.getUpstreamResponse(targetAddress);
+        }
+
+        return CompletableFuture.completedFuture(this.getLocalResponse(configuration));
+    }
+
+    private @NotNull CachedResponse getLocalResponse(Configuration configuration) {
+        ServiceConnector connector = this.serviceRegistry.getProviderUnchecked(ServiceConnector.class);
+        int online = connector.getOnlineClients().size();
+
+        // the free clients and the configuration are only checked once a second, a changed online count is visible immediately
+        CachedResponse cached = this.local;
+        if (cached != null && cached.online == online && System.currentTimeMillis() - cached.createdAt < LOCAL_REFRESH_MILLIS) {
+            return cached;
+        }
+
+        ServerPing response = configuration.getMotd();
+        response.setDescription(Component.text(LegacyComponentSerializer.legacySection().serialize(response.getDescription())
+                .replace("$free", String.valueOf(connector.getFreeClients().size()))
+                .replace("$online", String.valueOf(online))
+        ));
+
+        return this.local = new CachedResponse(ImplementationUtil.GSON.toJson(response), online);
+    }
+
+    private synchronized @NotNull CompletableFuture<CachedResponse> getUpstreamResponse(NetworkAddress address) {
+        boolean sameTarget = address.equals(this.upstreamAddress);
+        CachedResponse cached = sameTarget ? this.upstream : null;
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.unwrap());
+        }
+
+        CompletableFuture<CachedResponse> refresh = this.upstreamRefresh;
+        if (refresh == null || !sameTarget) {
+            refresh = this.serviceRegistry.getProviderUnchecked(ServerPingProvider.class).pingServer(address)
+                    .handle((response, throwable) -> response == null
+                            ? new CachedResponse(null, -1, UPSTREAM_FAILURE_TTL_MILLIS)
+                            : new CachedResponse(ImplementationUtil.GSON.toJson(response), -1, UPSTREAM_TTL_MILLIS));
+            this.upstreamAddress = address;
+            this.upstreamRefresh = refresh;
+            if (!sameTarget) {
+                // the response of another target must not be served, the current one stays until the refresh replaces it
+                this.upstream = null;
+            }
+
+            CompletableFuture<CachedResponse> finalRefresh = refresh;
+            APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(
+                    () -> finalRefresh.complete(new CachedResponse(null, -1, UPSTREAM_FAILURE_TTL_MILLIS)),
+                    UPSTREAM_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS
+            );
+            refresh.thenAccept(response -> {
+                synchronized (this) {
+                    if (this.upstreamRefresh == finalRefresh) {
+                        this.upstreamRefresh = null;
+                        this.upstream = response;
+                    }
+                }
+            });
+        }
+
+        // every request during the refresh gets the old response, only requests without any response for this target have to wait
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.unwrap());
+        }
+
+        return refresh.thenApply(CachedResponse::unwrap);
+    }
+
+    public static final class CachedResponse {
+
+        private final String json;
+        private final byte[] encoded;
+        private final int online;
+        private final long createdAt = System.currentTimeMillis();
+        private final long ttl;
+
+        private CachedResponse(String json, int online) {
+            this(json, online, LOCAL_REFRESH_MILLIS);
+        }
+
+        private CachedResponse(String json, int online, long ttl) {
+            this.json = json;
+            this.encoded = json == null ? null : json.getBytes(StandardCharsets.UTF_8);
+            this.online = online;
+            this.ttl = ttl;
+        }
+
+        private CachedResponse unwrap() {
+            return this.json == null ? null : this;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - this.createdAt >= this.ttl;
+        }
+
+        public @Nullable String getJson() {
+            return this.json;
+        }
+
+        public @Nullable byte[] getEncoded() {
+            return this.encoded;
+        }
+
+        public @NotNull ServerPing createServerPing() {
+            return ImplementationUtil.GSON.fromJson(this.json, ServerPing.class);
+        }
+    }
+}
@@ -100,14 +100,19 @@ public class PacketPlayServerMultiBlockChange implements Packet {
         }
 
         public Location getPos() {
-            int chunkX = PacketPlayServerMultiBlockChange.this.chunkX;
-            int chunkZ = PacketPlayServerMultiBlockChange.this.chunkZ;
+            return new Location(this.getX(), this.getY(), this.getZ());
+        }
+
+        public int getX() {
+            return (PacketPlayServerMultiBlockChange.this.chunkX << 4) + (this.chunkPosCrammed >> 12 & 15);
+        }
 
-            int x = this.chunkPosCrammed >> 12 & 15;
-            int y = this.chunkPosCrammed & 255;
-            int z = this.chunkPosCrammed >> 8 & 15;
+        public int getY() {
+            return this.chunkPosCrammed & 255;
+        }
 
-            return new Location((chunkX << 4) + x, y, (chunkZ << 4) + z);
+        public int getZ() {
+            return (PacketPlayServerMultiBlockChange.this.chunkZ << 4) + (this.chunkPosCrammed >> 8 & 15);
         }
 
         public short getChunkPosCrammed() {
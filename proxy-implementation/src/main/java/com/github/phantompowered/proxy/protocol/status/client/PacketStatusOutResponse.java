@@ -33,11 +33,17 @@ import org.jetbrains.annotations.NotNull;
 public class PacketStatusOutResponse implements Packet {
 
     private String response;
+    private byte[] encodedResponse;
 
     public PacketStatusOutResponse(String response) {
         this.response = response;
     }
 
+    public PacketStatusOutResponse(String response, byte[] encodedResponse) {
+        this.response = response;
+        this.encodedResponse = encodedResponse;
+    }
+
     public PacketStatusOutResponse() {
     }
 
@@ -57,7 +63,12 @@ public class PacketStatusOutResponse implements Packet {
 
     @Override
     public void write(@NotNull ProtoBuf protoBuf, @NotNull ProtocolDirection direction, int protocolVersion) {
-        protoBuf.writeString(this.response);
+        if (this.encodedResponse != null) {
+            protoBuf.writeVarInt(this.encodedResponse.length);
+            protoBuf.writeBytes(this.encodedResponse);
+        } else {
+            protoBuf.writeString(this.response);
+        }
     }
 
     public String toString() {
@@ -1,29 +1,30 @@
 package com.github.phantompowered.proxy.storage;
 
+import com.github.phantompowered.proxy.api.APIUtil;
 import com.github.phantompowered.proxy.api.database.DatabaseProvidedStorage;
 import com.github.phantompowered.proxy.api.player.id.PlayerId;
 import com.github.phantompowered.proxy.api.player.id.PlayerIdStorage;
 import com.github.phantompowered.proxy.api.player.id.PlayerRepositoryGetException;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
-import com.github.phantompowered.proxy.http.HttpUtil;
+import com.github.phantompowered.proxy.api.task.DefaultTask;
+import com.github.phantompowered.proxy.api.task.Task;
+import com.github.phantompowered.proxy.api.task.util.TaskUtil;
 import com.github.phantompowered.proxy.util.LeftRightHolder;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.mojang.util.UUIDTypeAdapter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 public class DefaultPlayerIdStorage extends DatabaseProvidedStorage<PlayerId> implements PlayerIdStorage {
 
     private static final long VALID_MILLIS = TimeUnit.DAYS.toMillis(3);
-    private static final String NAME_TO_UUID = "https://api.mojang.com/users/profiles/minecraft/%s";
-    private static final String UUID_TO_NAME = "https://sessionserver.mojang.com/session/minecraft/profile/%s";
+    private static final long LOOKUP_TIMEOUT_SECONDS = 30;
 
     private final Cache<String, PlayerId> nameCache = CacheBuilder.newBuilder()
             .expireAfterWrite(60, TimeUnit.MINUTES)
@@ -33,20 +34,15 @@ public class DefaultPlayerIdStorage extends DatabaseProvidedStorage<PlayerId> im
             .expireAfterWrite(60, TimeUnit.MINUTES)
             .concurrencyLevel(3)
             .build();
+    private final MojangProfileResolver resolver = new MojangProfileResolver(this::save);
 
     public DefaultPlayerIdStorage(ServiceRegistry registry) {
-        super(registry, "player_id_repository_cache", PlayerId.class);
+        super(registry, "player_id_repository_cache", PlayerId.class, new PlayerIdCodec());
     }
 
-    private void update(PlayerId playerId) {
-        super.update(playerId.getName().toLowerCase(), playerId);
-        super.update(playerId.getUniqueId().toString(), playerId);
-        this.put(playerId);
-    }
-
-    private void insert(PlayerId playerId) {
-        super.insert(playerId.getName().toLowerCase(), playerId);
-        super.insert(playerId.getUniqueId().toString(), playerId);
+    private void save(PlayerId playerId) {
+        super.insertOrUpdate(playerId.getName().toLowerCase(), playerId);
+        super.insertOrUpdate(playerId.getUniqueId().toString(), playerId);
         this.put(playerId);
     }
 
@@ -55,56 +51,80 @@ public class DefaultPlayerIdStorage extends DatabaseProvidedStorage<PlayerId> im
         this.uuidCache.put(playerId.getUniqueId(), playerId);
     }
 
-    private @Nullable PlayerId set(String result, boolean update) {
-        JsonObject object = JsonParser.parseString(result).getAsJsonObject();
-        if (!object.has("name") || !object.has("id")) {
-            return null;
-        }
-
-        UUID uniqueId = UUIDTypeAdapter.fromString(object.get("id").getAsString());
-        PlayerId playerId = new PlayerId(uniqueId, object.get("name").getAsString());
-
-        if (update) {
-            this.update(playerId);
-        } else {
-            this.insert(playerId);
-        }
-
-        return playerId;
-    }
-
     private boolean isValid(PlayerId cached) {
         return cached != null && cached.getTimestamp() + VALID_MILLIS >= System.currentTimeMillis();
     }
 
     @Override
     public PlayerId getPlayerId(@NotNull String name) {
-        LeftRightHolder<PlayerId, Boolean> cached = this.getPlayerId0(name, null);
-        if (cached.getRight() && cached.getLeft() != null) {
-            return cached.getLeft();
-        }
+        return this.await(this.getPlayerIdAsync(name));
+    }
+
+    @Override
+    public PlayerId getPlayerId(@NotNull UUID uniqueId) {
+        return this.await(this.getPlayerIdAsync(uniqueId));
+    }
 
-        LeftRightHolder<String, IOException> result = HttpUtil.getSync(String.format(NAME_TO_UUID, name));
-        if (result.getRight() == null) {
-            return this.set(result.getLeft(), cached.getRight());
+    @Override
+    public @NotNull Task<PlayerId> getPlayerIdAsync(@NotNull String name) {
+        PlayerId cached = this.nameCache.getIfPresent(name.toLowerCase());
+        if (this.isValid(cached)) {
+            return TaskUtil.completedTask(cached);
         }
 
-        throw new PlayerRepositoryGetException(result.getRight());
+        return this.lookupAsync(() -> this.getPlayerId0(name, null), () -> this.resolver.resolve(name));
     }
 
     @Override
-    public PlayerId getPlayerId(@NotNull UUID uniqueId) {
-        LeftRightHolder<PlayerId, Boolean> cached = this.getPlayerId0(null, uniqueId);
-        if (cached.getRight() && cached.getLeft() != null) {
-            return cached.getLeft();
+    public @NotNull Task<PlayerId> getPlayerIdAsync(@NotNull UUID uniqueId) {
+        PlayerId cached = this.uuidCache.getIfPresent(uniqueId);
+        if (this.isValid(cached)) {
+            return TaskUtil.completedTask(cached);
         }
 
-        LeftRightHolder<String, IOException> result = HttpUtil.getSync(String.format(UUID_TO_NAME, uniqueId.toString().replace("-", "")));
-        if (result.getRight() == null) {
-            return this.set(result.getLeft(), cached.getRight());
-        }
+        return this.lookupAsync(() -> this.getPlayerId0(null, uniqueId), () -> this.resolver.resolve(uniqueId));
+    }
 
-        throw new PlayerRepositoryGetException(result.getRight());
+    // the database read blocks, so only the in-memory caches are checked on the calling thread
+    private Task<PlayerId> lookupAsync(Supplier<LeftRightHolder<PlayerId, Boolean>> storedLookup, Supplier<Task<PlayerId>> resolver) {
+        Task<PlayerId> task = new DefaultTask<>();
+        APIUtil.EXECUTOR_SERVICE.execute(() -> {
+            try {
+                LeftRightHolder<PlayerId, Boolean> stored = storedLookup.get();
+                if (stored.getRight() && stored.getLeft() != null) {
+                    task.complete(stored.getLeft());
+                    return;
+                }
+
+                resolver.get().whenComplete((playerId, throwable) -> {
+                    if (throwable != null) {
+                        task.completeExceptionally(throwable);
+                    } else {
+                        task.complete(playerId);
+                    }
+                });
+            } catch (RuntimeException exception) {
+                task.completeExceptionally(exception);
+            }
+        });
+
+        return task;
+    }
+
+    private PlayerId await(Task<PlayerId> task) {
+        try {
+            return task.get(LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException exception) {
+            throw new PlayerRepositoryGetException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new PlayerRepositoryGetException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof PlayerRepositoryGetException) {
+                throw (PlayerRepositoryGetException) exception.getCause();
+            }
+            throw new PlayerRepositoryGetException(exception.getCause());
+        }
     }
 
     @Override
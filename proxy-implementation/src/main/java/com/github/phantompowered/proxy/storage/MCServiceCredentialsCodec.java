@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.storage;
+
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodec;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
+import com.github.phantompowered.proxy.api.session.MCServiceCredentials;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class MCServiceCredentialsCodec implements DatabaseCodec<MCServiceCredentials> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(@NotNull DataOutput output, @NotNull MCServiceCredentials value) throws IOException {
+        DatabaseCodecs.writeString(output, value.getUsername());
+        DatabaseCodecs.writeString(output, value.getEmail());
+        DatabaseCodecs.writeString(output, value.isOffline() ? null : value.getPassword());
+        DatabaseCodecs.writeString(output, value.getDefaultServer());
+        output.writeBoolean(value.isExportable());
+    }
+
+    @Override
+    public @NotNull MCServiceCredentials read(@NotNull DataInput input, int version) throws IOException {
+        String username = DatabaseCodecs.readString(input);
+        String email = DatabaseCodecs.readString(input);
+        String password = DatabaseCodecs.readString(input);
+        byte[] passwordBytes = password == null ? null : Base64.getEncoder().encode(password.getBytes(StandardCharsets.UTF_8));
+
+        return new MCServiceCredentials(username, email, passwordBytes, DatabaseCodecs.readString(input), input.readBoolean());
+    }
+}
@@ -24,17 +24,21 @@
  */
 package com.github.phantompowered.proxy.storage;
 
+import com.github.phantompowered.proxy.account.BasicProvidedSessionService;
 import com.github.phantompowered.proxy.api.database.DatabaseProvidedStorage;
 import com.github.phantompowered.proxy.api.service.ServiceRegistry;
 import com.github.phantompowered.proxy.api.session.MCServiceCredentials;
+import com.github.phantompowered.proxy.api.session.ProvidedSessionService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 public class MCServiceCredentialsStorage extends DatabaseProvidedStorage<MCServiceCredentials> {
 
     public MCServiceCredentialsStorage(ServiceRegistry registry) {
-        super(registry, "credentials", MCServiceCredentials.class);
+        super(registry, "credentials", MCServiceCredentials.class, new MCServiceCredentialsCodec());
+        super.enableCache(512, 1, TimeUnit.HOURS);
     }
 
     @Override
@@ -50,6 +54,11 @@ public class MCServiceCredentialsStorage extends DatabaseProvidedStorage<MCServi
     @Override
     public void delete(String key) {
         super.delete(key);
+
+        ProvidedSessionService sessionService = this.registry.getProviderUnchecked(ProvidedSessionService.class);
+        if (sessionService instanceof BasicProvidedSessionService) {
+            ((BasicProvidedSessionService) sessionService).removeAccount(key);
+        }
     }
 
     @Override
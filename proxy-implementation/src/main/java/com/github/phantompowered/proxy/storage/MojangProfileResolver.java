@@ -0,0 +1,303 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.storage;
+
+import com.github.phantompowered.proxy.api.APIUtil;
+import com.github.phantompowered.proxy.api.player.id.PlayerId;
+import com.github.phantompowered.proxy.api.player.id.PlayerRepositoryGetException;
+import com.github.phantompowered.proxy.api.task.DefaultTask;
+import com.github.phantompowered.proxy.api.task.Task;
+import com.github.phantompowered.proxy.http.HttpResponse;
+import com.github.phantompowered.proxy.http.HttpUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.util.UUIDTypeAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// resolves profiles using the mojang api, concurrent lookups for the same name or uuid share one request
+public class MojangProfileResolver {
+
+    public static final String NAMES_TO_PROFILES = "https://api.mojang.com/profiles/minecraft";
+    public static final String UUID_TO_PROFILE = "https://sessionserver.mojang.com/session/minecraft/profile/%s";
+
+    private static final Pattern VALID_NAME = Pattern.compile("[a-zA-Z0-9_]{1,16}");
+    private static final int MAX_NAMES_PER_REQUEST = 10; // limit of the bulk endpoint
+    private static final long BATCH_DELAY_MILLIS = 50;
+    private static final long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final String namesToProfilesUrl;
+    private final String uniqueIdToProfileUrl;
+    private final Consumer<PlayerId> resultHandler;
+
+    private final Cache<String, Boolean> unknownNames = CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .maximumSize(10000)
+            .build();
+    private final Cache<UUID, Boolean> unknownUniqueIds = CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .maximumSize(10000)
+            .build();
+
+    private final Map<String, Task<PlayerId>> pendingNames = new ConcurrentHashMap<>();
+    private final Map<UUID, Task<PlayerId>> pendingUniqueIds = new ConcurrentHashMap<>();
+    private final Queue<String> nameQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean nameBatchScheduled = new AtomicBoolean();
+
+    private volatile long backoffUntil;
+    private long backoffMillis;
+
+    public MojangProfileResolver(Consumer<PlayerId> resultHandler) {
+        this(NAMES_TO_PROFILES, UUID_TO_PROFILE, resultHandler);
+    }
+
+    public MojangProfileResolver(String namesToProfilesUrl, String uniqueIdToProfileUrl, Consumer<PlayerId> resultHandler) {
+        this.namesToProfilesUrl = namesToProfilesUrl;
+        this.uniqueIdToProfileUrl = uniqueIdToProfileUrl;
+        this.resultHandler = resultHandler;
+    }
+
+    // completes with null if there is no profile with the given name
+    public @NotNull Task<PlayerId> resolve(@NotNull String name) {
+        String lowerName = name.toLowerCase();
+        if (!VALID_NAME.matcher(name).matches() || this.unknownNames.getIfPresent(lowerName) != null) {
+            return this.completed(null);
+        }
+
+        Task<PlayerId> task = this.pendingNames.computeIfAbsent(lowerName, key -> {
+            this.nameQueue.add(key);
+            return new DefaultTask<>();
+        });
+        this.scheduleNameBatch(BATCH_DELAY_MILLIS);
+
+        return task;
+    }
+
+    // completes with null if there is no profile with the given uuid
+    public @NotNull Task<PlayerId> resolve(@NotNull UUID uniqueId) {
+        if (this.unknownUniqueIds.getIfPresent(uniqueId) != null) {
+            return this.completed(null);
+        }
+
+        AtomicBoolean created = new AtomicBoolean();
+        Task<PlayerId> task = this.pendingUniqueIds.computeIfAbsent(uniqueId, key -> {
+            created.set(true);
+            return new DefaultTask<>();
+        });
+
+        if (created.get()) {
+            this.lookupUniqueId(uniqueId);
+        }
+
+        return task;
+    }
+
+    private void scheduleNameBatch(long delay) {
+        if (this.nameBatchScheduled.compareAndSet(false, true)) {
+            long effectiveDelay = Math.max(delay, this.backoffUntil - System.currentTimeMillis());
+            APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(this::processNameBatch, effectiveDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void processNameBatch() {
+        List<String> names = new ArrayList<>();
+        String name;
+        while (names.size() < MAX_NAMES_PER_REQUEST && (name = this.nameQueue.poll()) != null) {
+            names.add(name);
+        }
+
+        this.nameBatchScheduled.set(false);
+        if (!this.nameQueue.isEmpty()) {
+            this.scheduleNameBatch(0);
+        }
+
+        if (names.isEmpty()) {
+            return;
+        }
+
+        JsonArray request = new JsonArray();
+        names.forEach(request::add);
+
+        // the result handler writes to the database, don't do that on the event loop of the http client
+        HttpUtil.post(this.namesToProfilesUrl, "application/json", request.toString().getBytes(StandardCharsets.UTF_8))
+                .whenCompleteAsync((response, throwable) -> this.handleNameResponse(names, response, throwable), APIUtil.EXECUTOR_SERVICE);
+    }
+
+    private void handleNameResponse(List<String> names, HttpResponse response, Throwable throwable) {
+        if (throwable != null) {
+            this.failNames(names, throwable);
+            return;
+        }
+
+        if (response.getStatusCode() == 429) {
+            this.backOff();
+            this.nameQueue.addAll(names);
+            this.scheduleNameBatch(0);
+            return;
+        }
+        if (!response.isSuccess() || response.getBody() == null) {
+            this.failNames(names, new IOException("Unexpected response code " + response.getStatusCode() + " from " + this.namesToProfilesUrl));
+            return;
+        }
+
+        this.resetBackoff();
+
+        Map<String, PlayerId> profiles = new HashMap<>();
+        try {
+            for (JsonElement element : JsonParser.parseString(response.getBody()).getAsJsonArray()) {
+                PlayerId playerId = this.parseProfile(element.getAsJsonObject());
+                if (playerId != null) {
+                    profiles.put(playerId.getName().toLowerCase(), playerId);
+                }
+            }
+        } catch (RuntimeException exception) {
+            this.failNames(names, exception);
+            return;
+        }
+
+        for (String requestedName : names) {
+            PlayerId playerId = profiles.get(requestedName);
+            this.complete(this.pendingNames.remove(requestedName), playerId, () -> this.unknownNames.put(requestedName, Boolean.TRUE));
+        }
+    }
+
+    // the task has to be removed from the pending ones before, otherwise later lookups would join a task that never completes
+    private void complete(Task<PlayerId> task, PlayerId playerId, Runnable unknownHandler) {
+        try {
+            if (playerId != null) {
+                this.resultHandler.accept(playerId);
+            } else {
+                unknownHandler.run();
+            }
+        } catch (RuntimeException exception) {
+            if (task != null) {
+                task.completeExceptionally(new PlayerRepositoryGetException(exception));
+            }
+            return;
+        }
+
+        if (task != null) {
+            task.complete(playerId);
+        }
+    }
+
+    private void failNames(List<String> names, Throwable exception) {
+        for (String name : names) {
+            Task<PlayerId> task = this.pendingNames.remove(name);
+            if (task != null) {
+                task.completeExceptionally(new PlayerRepositoryGetException(exception));
+            }
+        }
+    }
+
+    private void lookupUniqueId(UUID uniqueId) {
+        long delay = this.backoffUntil - System.currentTimeMillis();
+        if (delay > 0) {
+            APIUtil.SCHEDULED_EXECUTOR_SERVICE.schedule(() -> this.lookupUniqueId(uniqueId), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        HttpUtil.get(String.format(this.uniqueIdToProfileUrl, UUIDTypeAdapter.fromUUID(uniqueId)))
+                .whenCompleteAsync((response, throwable) -> this.handleUniqueIdResponse(uniqueId, response, throwable), APIUtil.EXECUTOR_SERVICE);
+    }
+
+    private void handleUniqueIdResponse(UUID uniqueId, HttpResponse response, Throwable throwable) {
+        if (throwable != null) {
+            this.failUniqueId(uniqueId, throwable);
+            return;
+        }
+
+        if (response.getStatusCode() == 429) {
+            this.backOff();
+            this.lookupUniqueId(uniqueId);
+            return;
+        }
+
+        PlayerId playerId = null;
+        if (response.isSuccess() && response.getBody() != null && !response.getBody().isEmpty()) {
+            try {
+                playerId = this.parseProfile(JsonParser.parseString(response.getBody()).getAsJsonObject());
+            } catch (RuntimeException exception) {
+                this.failUniqueId(uniqueId, exception);
+                return;
+            }
+        } else if (response.getStatusCode() != 204 && response.getStatusCode() != 404) {
+            this.failUniqueId(uniqueId, new IOException("Unexpected response code " + response.getStatusCode() + " from " + this.uniqueIdToProfileUrl));
+            return;
+        }
+
+        this.resetBackoff();
+        this.complete(this.pendingUniqueIds.remove(uniqueId), playerId, () -> this.unknownUniqueIds.put(uniqueId, Boolean.TRUE));
+    }
+
+    private void failUniqueId(UUID uniqueId, Throwable exception) {
+        Task<PlayerId> task = this.pendingUniqueIds.remove(uniqueId);
+        if (task != null) {
+            task.completeExceptionally(new PlayerRepositoryGetException(exception));
+        }
+    }
+
+    private PlayerId parseProfile(JsonObject object) {
+        if (!object.has("name") || !object.has("id")) {
+            return null;
+        }
+
+        return new PlayerId(UUIDTypeAdapter.fromString(object.get("id").getAsString()), object.get("name").getAsString());
+    }
+
+    private synchronized void backOff() {
+        this.backoffMillis = this.backoffMillis == 0 ? MIN_BACKOFF_MILLIS : Math.min(this.backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        this.backoffUntil = System.currentTimeMillis() + this.backoffMillis;
+    }
+
+    private synchronized void resetBackoff() {
+        this.backoffMillis = 0;
+    }
+
+    private Task<PlayerId> completed(PlayerId playerId) {
+        Task<PlayerId> task = new DefaultTask<>();
+        task.complete(playerId);
+        return task;
+    }
+}
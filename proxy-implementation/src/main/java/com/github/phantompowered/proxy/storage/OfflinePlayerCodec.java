@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.storage;
+
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodec;
+import com.github.phantompowered.proxy.api.database.codec.DatabaseCodecs;
+import com.github.phantompowered.proxy.connection.player.DefaultOfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class OfflinePlayerCodec implements DatabaseCodec<DefaultOfflinePlayer> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(@NotNull DataOutput output, @NotNull DefaultOfflinePlayer value) throws IOException {
+        DatabaseCodecs.writeUniqueId(output, value.getUniqueId());
+        DatabaseCodecs.writeString(output, value.getName());
+        output.writeLong(value.getLastLogin());
+        output.writeInt(value.getLastVersion());
+
+        Map<String, Boolean> permissions = value.getEffectivePermissions();
+        output.writeInt(permissions.size());
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            DatabaseCodecs.writeString(output, entry.getKey());
+            output.writeBoolean(entry.getValue());
+        }
+    }
+
+    @Override
+    public @NotNull DefaultOfflinePlayer read(@NotNull DataInput input, int version) throws IOException {
+        DefaultOfflinePlayer player = new DefaultOfflinePlayer(
+                DatabaseCodecs.readUniqueId(input),
+                DatabaseCodecs.readString(input),
+                input.readLong(),
+                input.readInt(),
+                new ConcurrentHashMap<>()
+        );
+
+        int permissions = input.readInt();
+        for (int i = 0; i < permissions; i++) {
+            player.getEffectivePermissions().put(DatabaseCodecs.readString(input), input.readBoolean());
+        }
+        return player;
+    }
+}
@@ -33,11 +33,13 @@ import com.github.phantompowered.proxy.connection.player.DefaultOfflinePlayer;
 
 import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class OfflinePlayerStorage extends DatabaseProvidedStorage<DefaultOfflinePlayer> {
 
     public OfflinePlayerStorage(ServiceRegistry registry) {
-        super(registry, "player_storage", DefaultOfflinePlayer.class);
+        super(registry, "player_storage", DefaultOfflinePlayer.class, new OfflinePlayerCodec());
+        super.enableCache(2048, 30, TimeUnit.MINUTES);
     }
 
     public OfflinePlayer getOfflinePlayer(UUID uniqueId) {
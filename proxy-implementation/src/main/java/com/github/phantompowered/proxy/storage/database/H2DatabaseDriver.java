@@ -34,15 +34,24 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class H2DatabaseDriver implements DatabaseDriver {
 
+    private static final int BATCH_SIZE = 500;
+
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
     private Connection connection;
 
     @Override
-    public boolean connect(@NotNull DatabaseConfig config) {
+    public synchronized boolean connect(@NotNull DatabaseConfig config) {
         try {
             Driver.load();
             this.connection = DriverManager.getConnection("jdbc:h2:" + config.getConnectionEndpoint() + "/" + config.getDatabaseName() + ";DB_CLOSE_ON_EXIT=FALSE");
@@ -56,28 +65,134 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public void createTable(@NotNull String table) {
-        try (PreparedStatement statement = connection.prepareStatement("CREATE TABLE IF NOT EXISTS " + table
-                + " (`key` TEXT, `value` LONGBLOB)")) {
-            statement.executeUpdate();
+    public synchronized void createTable(@NotNull String table) {
+        try (Statement statement = this.connection.createStatement()) {
+            // has to run before the table is created, a migration interrupted after the rename would otherwise continue with an empty table
+            this.resumeMigration(table);
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table + " (`key` VARCHAR PRIMARY KEY, `value` LONGBLOB)");
+            if (!this.hasPrimaryKey(table)) {
+                this.migrateTable(table);
+            }
         } catch (final SQLException ex) {
             ex.printStackTrace();
         }
     }
 
+    private boolean hasPrimaryKey(String table) throws SQLException {
+        try (ResultSet resultSet = this.connection.getMetaData().getPrimaryKeys(null, null, table.toUpperCase())) {
+            return resultSet.next();
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (ResultSet resultSet = this.connection.getMetaData().getTables(null, null, table.toUpperCase(), null)) {
+            return resultSet.next();
+        }
+    }
+
+    // DDL statements commit on their own, so the migration moves the old table out of the way first and only drops it
+    // once the copy is in place and complete, a crash in between is resumed on the next start
+    private void resumeMigration(String table) throws SQLException {
+        String legacyTable = table + "_legacy";
+        if (!this.tableExists(legacyTable)) {
+            return;
+        }
+
+        System.out.println("Resuming interrupted migration of database table " + table + "...");
+        if (this.tableExists(table)) {
+            // the copy is already in place, only the old table was left
+            this.dropLegacyTable(table, legacyTable, table);
+        } else {
+            this.copyLegacyTable(table, legacyTable);
+        }
+    }
+
+    // tables created by older versions have an unindexed TEXT key column and may contain duplicate keys
+    private void migrateTable(String table) throws SQLException {
+        System.out.println("Migrating database table " + table + " to the indexed schema...");
+        long start = System.currentTimeMillis();
+
+        String legacyTable = table + "_legacy";
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("ALTER TABLE " + table + " RENAME TO " + legacyTable);
+        } finally {
+            this.clearStatements();
+        }
+
+        this.copyLegacyTable(table, legacyTable);
+
+        System.out.println("Successfully migrated database table " + table + " (" + this.count(table) + " entries) in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void copyLegacyTable(String table, String legacyTable) throws SQLException {
+        String migrationTable = table + "_migration";
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + migrationTable);
+            statement.executeUpdate("CREATE TABLE " + migrationTable + " (`key` VARCHAR PRIMARY KEY, `value` LONGBLOB)");
+            statement.executeUpdate("MERGE INTO " + migrationTable + " (`key`, `value`) KEY (`key`) SELECT CAST(`key` AS VARCHAR), `value` FROM " + legacyTable + " WHERE `key` IS NOT NULL");
+
+            statement.executeUpdate("ALTER TABLE " + migrationTable + " RENAME TO " + table);
+            this.dropLegacyTable(table, legacyTable, table);
+        } finally {
+            this.clearStatements();
+        }
+    }
+
+    private void dropLegacyTable(String table, String legacyTable, String copiedTable) throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            long expected = this.queryLong(statement, "SELECT COUNT(DISTINCT CAST(`key` AS VARCHAR)) FROM " + legacyTable + " WHERE `key` IS NOT NULL");
+            long copied = this.queryLong(statement, "SELECT COUNT(*) FROM " + copiedTable);
+            if (expected != copied) {
+                throw new SQLException("Migration of table " + table + " copied " + copied + " of " + expected + " entries, keeping " + legacyTable);
+            }
+
+            statement.executeUpdate("DROP TABLE " + legacyTable);
+        }
+    }
+
+    private long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = this.statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = this.connection.prepareStatement(sql);
+            this.statements.put(sql, statement);
+        }
+
+        return statement;
+    }
+
+    private void clearStatements() {
+        for (PreparedStatement statement : this.statements.values()) {
+            try {
+                statement.close();
+            } catch (final SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        this.statements.clear();
+    }
+
     @Override
-    public void deleteTable(@NotNull String table) {
-        try (PreparedStatement statement = connection.prepareStatement("DROP TABLE IF EXISTS " + table)) {
-            statement.executeUpdate();
+    public synchronized void deleteTable(@NotNull String table) {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + table);
         } catch (final SQLException ex) {
             ex.printStackTrace();
+        } finally {
+            this.clearStatements();
         }
     }
 
     @Override
-    public long count(@NotNull String table) {
-        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM " + table);
-             ResultSet resultSet = statement.executeQuery()) {
+    public synchronized long count(@NotNull String table) {
+        try (ResultSet resultSet = this.prepare("SELECT COUNT(*) FROM " + table).executeQuery()) {
             if (resultSet.next()) {
                 return resultSet.getLong(1);
             }
@@ -88,8 +203,9 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public void insert(@NotNull DatabaseObject object) {
-        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + object.getTable() + " (`key`, `value`) VALUES (?, ?)")) {
+    public synchronized void insert(@NotNull DatabaseObject object) {
+        try {
+            PreparedStatement statement = this.prepare("INSERT INTO " + object.getTable() + " (`key`, `value`) VALUES (?, ?)");
             statement.setString(1, object.getKey());
             statement.setBytes(2, object.serialize());
 
@@ -103,8 +219,9 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public void update(@NotNull DatabaseObject object) {
-        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + object.getTable() + " SET `value` = ? WHERE `key` = ?")) {
+    public synchronized void update(@NotNull DatabaseObject object) {
+        try {
+            PreparedStatement statement = this.prepare("UPDATE " + object.getTable() + " SET `value` = ? WHERE `key` = ?");
             statement.setBytes(1, object.serialize());
             statement.setString(2, object.getKey());
 
@@ -118,16 +235,74 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public <T> @Nullable T getOrDefault(@NotNull DatabaseObjectToken<T> databaseObjectToken, @Nullable T def) {
-        try (PreparedStatement statement = connection.prepareStatement("SELECT `value` FROM " + databaseObjectToken.getTable() + " WHERE `key` = ?")) {
-            statement.setString(1, databaseObjectToken.getKey());
+    public synchronized void insertOrUpdate(@NotNull DatabaseObject object) {
+        try {
+            PreparedStatement statement = this.prepare("MERGE INTO " + object.getTable() + " (`key`, `value`) KEY (`key`) VALUES (?, ?)");
+            statement.setString(1, object.getKey());
+            statement.setBytes(2, object.serialize());
 
-            ResultSet resultSet = statement.executeQuery();
-            if (!resultSet.next()) {
-                return def;
+            statement.executeUpdate();
+        } catch (final SQLException ex) {
+            ex.printStackTrace();
+        } catch (final IOException ex) {
+            System.err.println("Unable to serialize database object " + object.getClass().getName());
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized boolean insertOrUpdate(@NotNull Collection<? extends DatabaseObject> objects) {
+        if (objects.isEmpty()) {
+            return true;
+        }
+
+        Map<String, Collection<DatabaseObject>> tables = new LinkedHashMap<>();
+        for (DatabaseObject object : objects) {
+            tables.computeIfAbsent(object.getTable(), table -> new ArrayList<>()).add(object);
+        }
+
+        return this.executeBatch(() -> {
+            for (Map.Entry<String, Collection<DatabaseObject>> entry : tables.entrySet()) {
+                PreparedStatement statement = this.prepare("MERGE INTO " + entry.getKey() + " (`key`, `value`) KEY (`key`) VALUES (?, ?)");
+                int pending = 0;
+
+                for (DatabaseObject object : entry.getValue()) {
+                    try {
+                        statement.setString(1, object.getKey());
+                        statement.setBytes(2, object.serialize());
+                    } catch (final IOException ex) {
+                        System.err.println("Unable to serialize database object " + object.getClass().getName());
+                        ex.printStackTrace();
+                        continue;
+                    }
+
+                    statement.addBatch();
+                    if (++pending >= BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
             }
+        });
+    }
 
-            return databaseObjectToken.deserialize(resultSet.getBytes("value"));
+    @Override
+    public synchronized <T> @Nullable T getOrDefault(@NotNull DatabaseObjectToken<T> databaseObjectToken, @Nullable T def) {
+        try {
+            PreparedStatement statement = this.prepare("SELECT `value` FROM " + databaseObjectToken.getTable() + " WHERE `key` = ?");
+            statement.setString(1, databaseObjectToken.getKey());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return def;
+                }
+
+                return databaseObjectToken.deserialize(resultSet.getBytes(1));
+            }
         } catch (final SQLException ex) {
             ex.printStackTrace();
         }
@@ -136,12 +311,12 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public <T> void forEachInTable(@NotNull String table, @NotNull Function<byte[], T> mapper, @NotNull Consumer<T> handler) {
-        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + table)) {
-            ResultSet resultSet = statement.executeQuery();
-
+    public synchronized <T> void forEachInTable(@NotNull String table, @NotNull Function<byte[], T> mapper, @NotNull Consumer<T> handler) {
+        // not cached, the handler may call back into this driver while the result set is still open
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT `value` FROM " + table)) {
             while (resultSet.next()) {
-                byte[] next = resultSet.getBytes("value");
+                byte[] next = resultSet.getBytes(1);
                 if (next != null) {
                     handler.accept(mapper.apply(next));
                 }
@@ -152,8 +327,24 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public void deleteFromTable(@NotNull String table, @NotNull String key) {
-        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE `key` = ?")) {
+    public synchronized void forEachEntryInTable(@NotNull String table, @NotNull BiConsumer<String, byte[]> handler) {
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT `key`, `value` FROM " + table)) {
+            while (resultSet.next()) {
+                byte[] next = resultSet.getBytes(2);
+                if (next != null) {
+                    handler.accept(resultSet.getString(1), next);
+                }
+            }
+        } catch (final SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void deleteFromTable(@NotNull String table, @NotNull String key) {
+        try {
+            PreparedStatement statement = this.prepare("DELETE FROM " + table + " WHERE `key` = ?");
             statement.setString(1, key);
 
             statement.executeUpdate();
@@ -163,15 +354,69 @@ public class H2DatabaseDriver implements DatabaseDriver {
     }
 
     @Override
-    public void close() {
-        if (connection != null) {
+    public synchronized boolean deleteFromTable(@NotNull String table, @NotNull Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return true;
+        }
+
+        return this.executeBatch(() -> {
+            PreparedStatement statement = this.prepare("DELETE FROM " + table + " WHERE `key` = ?");
+            int pending = 0;
+
+            for (String key : keys) {
+                statement.setString(1, key);
+                statement.addBatch();
+
+                if (++pending >= BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        });
+    }
+
+    // the whole batch is rolled back on failure
+    private boolean executeBatch(SQLRunnable runnable) {
+        try {
+            this.connection.setAutoCommit(false);
+            try {
+                runnable.run();
+                this.connection.commit();
+                return true;
+            } catch (final SQLException ex) {
+                this.connection.rollback();
+                throw ex;
+            } finally {
+                this.connection.setAutoCommit(true);
+            }
+        } catch (final SQLException ex) {
+            ex.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.connection != null) {
+            this.clearStatements();
+
             try {
-                connection.close();
+                this.connection.close();
             } catch (final SQLException ex) {
                 ex.printStackTrace();
             }
 
-            connection = null;
+            this.connection = null;
         }
     }
+
+    @FunctionalInterface
+    private interface SQLRunnable {
+
+        void run() throws SQLException;
+    }
 }
@@ -0,0 +1,357 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.storage.database;
+
+import com.github.phantompowered.proxy.api.database.DatabaseDriver;
+import com.github.phantompowered.proxy.api.database.config.DatabaseConfig;
+import com.github.phantompowered.proxy.api.database.object.DatabaseObject;
+import com.github.phantompowered.proxy.api.database.object.DatabaseObjectToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class WriteBehindDatabaseDriver implements DatabaseDriver {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 250;
+    private static final int FLUSH_THRESHOLD = 500;
+    private static final int MAX_PENDING_WRITES = 10_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+    private static final int CLOSE_FLUSH_ATTEMPTS = 3;
+
+    private final DatabaseDriver delegate;
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+
+    private Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private Map<String, PendingWrite> flushing = new HashMap<>();
+    private Thread flushThread;
+    private volatile boolean running;
+
+    public WriteBehindDatabaseDriver(@NotNull DatabaseDriver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean connect(@NotNull DatabaseConfig config) {
+        if (!this.delegate.connect(config)) {
+            return false;
+        }
+
+        this.running = true;
+        this.flushThread = new Thread(this::runFlushLoop, "Database write-behind thread");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+        return true;
+    }
+
+    private void runFlushLoop() {
+        int failures = 0;
+        while (this.running) {
+            // failed writes are retried with an exponential backoff instead of hammering a broken database
+            long delay = failures == 0 ? FLUSH_INTERVAL_MILLIS : Math.min(MAX_RETRY_DELAY_MILLIS, FLUSH_INTERVAL_MILLIS << Math.min(failures, 16));
+            synchronized (this.lock) {
+                if (failures > 0 || this.pending.size() < FLUSH_THRESHOLD) {
+                    try {
+                        this.lock.wait(delay);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            try {
+                failures = this.flush() ? 0 : failures + 1;
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+                failures++;
+            }
+        }
+    }
+
+    /**
+     * Writes all pending changes to the underlying database, blocks until they are persisted.
+     * Writes which fail stay queued and are retried by the next flush.
+     *
+     * @return {@code false} if some of the changes could not be written
+     */
+    public boolean flush() {
+        synchronized (this.flushLock) {
+            Map<String, PendingWrite> writes;
+            synchronized (this.lock) {
+                if (this.pending.isEmpty()) {
+                    return true;
+                }
+
+                writes = this.pending;
+                this.flushing = writes;
+                this.pending = new LinkedHashMap<>();
+                this.lock.notifyAll();
+            }
+
+            // everything is considered failed until the delegate confirmed it, that includes exceptions
+            Map<String, PendingWrite> failed = new HashMap<>(writes);
+            try {
+                Collection<PendingWrite> upserts = new ArrayList<>();
+                Map<String, Collection<PendingWrite>> deletes = new HashMap<>();
+                for (PendingWrite write : writes.values()) {
+                    if (write.value != null) {
+                        upserts.add(write);
+                    } else {
+                        deletes.computeIfAbsent(write.table, table -> new ArrayList<>()).add(write);
+                    }
+                }
+
+                if (upserts.isEmpty() || this.delegate.insertOrUpdate(upserts)) {
+                    this.removeAll(failed, upserts);
+                }
+                for (Map.Entry<String, Collection<PendingWrite>> entry : deletes.entrySet()) {
+                    Collection<String> keys = new ArrayList<>();
+                    for (PendingWrite write : entry.getValue()) {
+                        keys.add(write.key);
+                    }
+
+                    if (this.delegate.deleteFromTable(entry.getKey(), keys)) {
+                        this.removeAll(failed, entry.getValue());
+                    }
+                }
+            } finally {
+                synchronized (this.lock) {
+                    // a newer write for the same key replaces the failed one
+                    for (Map.Entry<String, PendingWrite> entry : failed.entrySet()) {
+                        this.pending.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                    this.flushing = new HashMap<>();
+                }
+            }
+
+            return failed.isEmpty();
+        }
+    }
+
+    private void removeAll(Map<String, PendingWrite> writes, Collection<PendingWrite> persisted) {
+        for (PendingWrite write : persisted) {
+            writes.remove(write.getId());
+        }
+    }
+
+    public int getPendingWrites() {
+        synchronized (this.lock) {
+            return this.pending.size() + this.flushing.size();
+        }
+    }
+
+    private void enqueue(@NotNull PendingWrite write) {
+        if (!this.running) {
+            // not connected or already closed, nothing would flush the queue
+            this.write(write);
+            return;
+        }
+
+        String id = write.getId();
+        synchronized (this.lock) {
+            while (this.running && this.pending.size() >= MAX_PENDING_WRITES && !this.pending.containsKey(id)) {
+                this.lock.notifyAll();
+                try {
+                    this.lock.wait(FLUSH_INTERVAL_MILLIS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            this.pending.put(id, write);
+            if (this.pending.size() >= FLUSH_THRESHOLD) {
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    private void write(@NotNull PendingWrite write) {
+        if (write.value != null) {
+            this.delegate.insertOrUpdate(write);
+        } else {
+            this.delegate.deleteFromTable(write.table, write.key);
+        }
+    }
+
+    private @Nullable PendingWrite getPending(@NotNull String table, @NotNull String key) {
+        String id = table + '\0' + key;
+        synchronized (this.lock) {
+            PendingWrite write = this.pending.get(id);
+            return write != null ? write : this.flushing.get(id);
+        }
+    }
+
+    private void enqueueObject(@NotNull DatabaseObject object) {
+        try {
+            this.enqueue(new PendingWrite(object.getTable(), object.getKey(), object.serialize()));
+        } catch (final IOException ex) {
+            System.err.println("Unable to serialize database object " + object.getClass().getName());
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void createTable(@NotNull String table) {
+        this.delegate.createTable(table);
+    }
+
+    @Override
+    public void deleteTable(@NotNull String table) {
+        this.flush();
+        this.delegate.deleteTable(table);
+    }
+
+    @Override
+    public long count(@NotNull String table) {
+        this.flush();
+        return this.delegate.count(table);
+    }
+
+    @Override
+    public void insert(@NotNull DatabaseObject object) {
+        this.enqueueObject(object);
+    }
+
+    @Override
+    public void update(@NotNull DatabaseObject object) {
+        this.enqueueObject(object);
+    }
+
+    @Override
+    public void insertOrUpdate(@NotNull DatabaseObject object) {
+        this.enqueueObject(object);
+    }
+
+    @Override
+    public boolean insertOrUpdate(@NotNull Collection<? extends DatabaseObject> objects) {
+        for (DatabaseObject object : objects) {
+            this.enqueueObject(object);
+        }
+        return true;
+    }
+
+    @Override
+    public <T> @Nullable T getOrDefault(@NotNull DatabaseObjectToken<T> databaseObjectToken, @Nullable T def) {
+        PendingWrite write = this.getPending(databaseObjectToken.getTable(), databaseObjectToken.getKey());
+        if (write != null) {
+            return write.value == null ? def : databaseObjectToken.deserialize(write.value);
+        }
+
+        return this.delegate.getOrDefault(databaseObjectToken, def);
+    }
+
+    @Override
+    public <T> void forEachInTable(@NotNull String table, @NotNull Function<byte[], T> mapper, @NotNull Consumer<T> handler) {
+        this.flush();
+        this.delegate.forEachInTable(table, mapper, handler);
+    }
+
+    @Override
+    public void forEachEntryInTable(@NotNull String table, @NotNull BiConsumer<String, byte[]> handler) {
+        this.flush();
+        this.delegate.forEachEntryInTable(table, handler);
+    }
+
+    @Override
+    public void deleteFromTable(@NotNull String table, @NotNull String key) {
+        this.enqueue(new PendingWrite(table, key, null));
+    }
+
+    @Override
+    public boolean deleteFromTable(@NotNull String table, @NotNull Collection<String> keys) {
+        for (String key : keys) {
+            this.enqueue(new PendingWrite(table, key, null));
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        if (this.flushThread != null) {
+            synchronized (this.lock) {
+                this.lock.notifyAll();
+            }
+
+            try {
+                this.flushThread.join(FLUSH_INTERVAL_MILLIS * 4);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            this.flushThread = null;
+        }
+
+        for (int attempt = 1; !this.flush(); attempt++) {
+            if (attempt >= CLOSE_FLUSH_ATTEMPTS) {
+                System.err.println("Dropping " + this.getPendingWrites() + " database writes which could not be persisted before closing");
+                break;
+            }
+        }
+        this.delegate.close();
+    }
+
+    private static final class PendingWrite implements DatabaseObject {
+
+        private final String table;
+        private final String key;
+        private final byte[] value;
+
+        private PendingWrite(String table, String key, byte[] value) {
+            this.table = table;
+            this.key = key;
+            this.value = value;
+        }
+
+        private String getId() {
+            return this.table + '\0' + this.key;
+        }
+
+        @Override
+        public @NotNull String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public @NotNull String getTable() {
+            return this.table;
+        }
+
+        @Override
+        public @NotNull byte[] serialize() {
+            return this.value;
+        }
+    }
+}
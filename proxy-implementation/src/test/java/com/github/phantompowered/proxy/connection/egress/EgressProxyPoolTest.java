@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.connection.egress;
+
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.api.network.NetworkAddress;
+import com.github.phantompowered.proxy.configuration.JsonConfiguration;
+import com.github.phantompowered.proxy.service.BasicServiceRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EgressProxyPoolTest {
+
+    private final Collection<ServerSocket> servers = new ArrayList<>();
+
+    @AfterEach
+    public void close() throws IOException {
+        for (ServerSocket server : this.servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testProbeSuccess() throws IOException {
+        EgressProxyPool pool = this.newPool(this.startSocksServer(0x00));
+        EgressProxy proxy = this.getOnlyProxy(pool);
+
+        pool.probe(proxy);
+
+        assertTrue(proxy.isHealthy());
+        assertEquals(0, proxy.getConsecutiveFailures());
+        assertTrue(proxy.getLatency() >= 0);
+        assertTrue(proxy.getLastProbe() > 0);
+    }
+
+    @Test
+    public void testProbeFailsWithoutNoAuthentication() throws IOException {
+        // 0xFF: none of the offered methods is acceptable
+        EgressProxyPool pool = this.newPool(this.startSocksServer(0xFF));
+        EgressProxy proxy = this.getOnlyProxy(pool);
+
+        pool.probe(proxy);
+
+        assertEquals(1, proxy.getConsecutiveFailures());
+        assertEquals(-1, proxy.getLatency());
+        assertTrue(proxy.isHealthy());
+    }
+
+    @Test
+    public void testRemovedFromRotationAfterConsecutiveFailures() throws IOException {
+        NetworkAddress healthy = this.startSocksServer(0x00);
+        NetworkAddress closed = this.getClosedAddress();
+        EgressProxyPool pool = this.newPool(closed, healthy);
+        EgressProxy failing = this.getProxy(pool, closed);
+
+        for (int i = 1; i < EgressProxyPool.MAX_CONSECUTIVE_FAILURES; i++) {
+            pool.probe(failing);
+            assertTrue(failing.isHealthy());
+        }
+        pool.probe(failing);
+        assertFalse(failing.isHealthy());
+
+        // the unhealthy proxy is skipped even though it has less connections
+        for (int i = 0; i < 3; i++) {
+            assertSame(this.getProxy(pool, healthy), pool.acquire());
+        }
+        assertEquals(0, failing.getAssignedConnections());
+
+        // a successful connect through it puts it back into rotation
+        pool.handleConnectSuccess(failing);
+        assertSame(failing, pool.acquire());
+    }
+
+    @Test
+    public void testAllFailingProxiesAreStillUsed() throws IOException {
+        NetworkAddress closed = this.getClosedAddress();
+        EgressProxyPool pool = this.newPool(closed);
+        EgressProxy proxy = this.getOnlyProxy(pool);
+
+        for (int i = 0; i < EgressProxyPool.MAX_CONSECUTIVE_FAILURES; i++) {
+            pool.probe(proxy);
+        }
+
+        assertFalse(proxy.isHealthy());
+        assertSame(proxy, pool.acquire());
+    }
+
+    @Test
+    public void testLeastLoadedAssignment() throws IOException {
+        EgressProxyPool pool = this.newPool(this.startSocksServer(0x00), this.startSocksServer(0x00), this.startSocksServer(0x00));
+
+        EgressProxy first = pool.acquire();
+        EgressProxy second = pool.acquire();
+        EgressProxy third = pool.acquire();
+        assertNotSame(first, second);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+        for (EgressProxy proxy : pool.getProxies()) {
+            assertEquals(1, proxy.getAssignedConnections());
+        }
+
+        pool.release(second);
+        assertSame(second, pool.acquire());
+        assertEquals(2, pool.acquire().getAssignedConnections());
+    }
+
+    @Test
+    public void testNoProxiesConfigured() {
+        assertNull(this.newPool().acquire());
+    }
+
+    private EgressProxyPool newPool(NetworkAddress... addresses) {
+        Collection<NetworkAddress> socksProxies = Collections.unmodifiableList(Arrays.asList(addresses));
+
+        BasicServiceRegistry registry = new BasicServiceRegistry();
+        registry.setProvider(null, Configuration.class, new JsonConfiguration() {
+            @Override
+            public @NotNull Collection<NetworkAddress> getSocksProxies() {
+                return socksProxies;
+            }
+        });
+        return new EgressProxyPool(registry);
+    }
+
+    private EgressProxy getOnlyProxy(EgressProxyPool pool) {
+        EgressProxy proxy = pool.acquire();
+        pool.release(proxy);
+        return proxy;
+    }
+
+    private EgressProxy getProxy(EgressProxyPool pool, NetworkAddress address) {
+        // fills the pool from the configuration
+        pool.release(pool.acquire());
+        return pool.getProxies().stream().filter(proxy -> proxy.getAddress().equals(address)).findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    private NetworkAddress getClosedAddress() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return new NetworkAddress("127.0.0.1", server.getLocalPort());
+        }
+    }
+
+    // answers the greeting of every connection with the given method and closes it
+    private NetworkAddress startSocksServer(int method) throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.servers.add(server);
+
+        Thread thread = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    InputStream inputStream = socket.getInputStream();
+                    int version = inputStream.read();
+                    int methods = inputStream.read();
+                    for (int i = 0; i < methods; i++) {
+                        inputStream.read();
+                    }
+
+                    if (version == 0x05) {
+                        socket.getOutputStream().write(new byte[]{0x05, (byte) method});
+                        socket.getOutputStream().flush();
+                    }
+                } catch (IOException ignored) {
+                    // closed by the test
+                }
+            }
+        }, "Test SOCKS5 server");
+        thread.setDaemon(true);
+        thread.start();
+
+        return new NetworkAddress("127.0.0.1", server.getLocalPort());
+    }
+}
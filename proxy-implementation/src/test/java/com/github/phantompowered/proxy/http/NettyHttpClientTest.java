@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NettyHttpClientTest {
+
+    private TestHttpServer server;
+    private NettyHttpClient client;
+
+    @AfterEach
+    public void close() throws Exception {
+        if (this.client != null) {
+            this.client.close();
+        }
+        if (this.server != null) {
+            this.server.close();
+        }
+    }
+
+    @Test
+    public void testPooledConnectionIsReused() throws Exception {
+        this.server = new TestHttpServer((connection, requestLine) -> "ok");
+        this.client = new NettyHttpClient(8, 1000, 1000, 0, 30_000);
+
+        for (int i = 0; i < 3; i++) {
+            HttpResponse response = this.client.get(this.server.url("/" + i)).get(5, TimeUnit.SECONDS);
+            assertEquals(200, response.getStatusCode());
+            assertEquals("ok", response.getBody());
+        }
+
+        assertEquals(1, this.server.getConnections());
+        assertEquals(3, this.server.getRequests().size());
+    }
+
+    @Test
+    public void testIdleConnectionExpiresAfterKeepAlive() throws Exception {
+        this.server = new TestHttpServer((connection, requestLine) -> "ok");
+        this.client = new NettyHttpClient(8, 1000, 1000, 0, 100);
+
+        this.client.get(this.server.url("/")).get(5, TimeUnit.SECONDS);
+        Thread.sleep(300);
+        this.client.get(this.server.url("/")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, this.server.getConnections());
+    }
+
+    @Test
+    public void testConnectTimeout() {
+        this.client = new NettyHttpClient(8, 200, 1000, 0, 30_000);
+
+        // not routable, the connect never completes
+        long start = System.currentTimeMillis();
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> this.client.get("http://10.255.255.1:81/").get(5, TimeUnit.SECONDS));
+
+        // netty's ConnectTimeoutException is a ConnectException, an unreachable network fails the same way
+        assertTrue(exception.getCause() instanceof ConnectException, String.valueOf(exception.getCause()));
+        assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+
+    @Test
+    public void testResponseTimeoutIsNotRetried() throws Exception {
+        this.server = new TestHttpServer((connection, requestLine) -> {
+            Thread.sleep(2000);
+            return "late";
+        });
+        this.client = new NettyHttpClient(8, 1000, 200, 2, 30_000);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> this.client.get(this.server.url("/")).get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException, String.valueOf(exception.getCause()));
+
+        Thread.sleep(300);
+        assertEquals(1, this.server.getRequests().size());
+    }
+
+    @Test
+    public void testWrittenPostIsNotRetried() throws Exception {
+        this.server = new TestHttpServer((connection, requestLine) -> null);
+        this.client = new NettyHttpClient(8, 1000, 1000, 2, 30_000);
+
+        CompletableFuture<HttpResponse> future = this.client.post(this.server.url("/"), "text/plain", "body".getBytes(StandardCharsets.UTF_8));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof ClosedChannelException, String.valueOf(exception.getCause()));
+
+        // a retry would be sent after 100ms
+        Thread.sleep(300);
+        assertEquals(1, this.server.getRequests().size());
+    }
+
+    @Test
+    public void testGetIsRetriedAfterClose() throws Exception {
+        this.server = new TestHttpServer((connection, requestLine) -> connection == 1 ? null : "ok");
+        this.client = new NettyHttpClient(8, 1000, 1000, 2, 30_000);
+
+        HttpResponse response = this.client.get(this.server.url("/")).get(5, TimeUnit.SECONDS);
+        assertEquals("ok", response.getBody());
+        assertEquals(2, this.server.getRequests().size());
+        assertEquals(2, this.server.getConnections());
+    }
+}
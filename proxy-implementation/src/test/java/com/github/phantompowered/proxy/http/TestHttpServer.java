@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.http;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// blocking http/1.1 server on a loopback port, the handler answers every request or drops the connection
+final class TestHttpServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Handler handler;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final Collection<Socket> sockets = new CopyOnWriteArrayList<>();
+
+    TestHttpServer(Handler handler) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.handler = handler;
+
+        Thread thread = new Thread(this::acceptConnections, "Test http server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    String url(String path) {
+        return "http://127.0.0.1:" + this.serverSocket.getLocalPort() + path;
+    }
+
+    int getConnections() {
+        return this.connections.get();
+    }
+
+    List<String> getRequests() {
+        return this.requests;
+    }
+
+    private void acceptConnections() {
+        while (!this.serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException exception) {
+                return;
+            }
+
+            int connection = this.connections.incrementAndGet();
+            this.sockets.add(socket);
+
+            Thread thread = new Thread(() -> this.serve(socket, connection), "Test http connection #" + connection);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void serve(Socket socket, int connection) {
+        try (Socket closeable = socket) {
+            InputStream inputStream = new BufferedInputStream(closeable.getInputStream());
+            OutputStream outputStream = closeable.getOutputStream();
+
+            String requestLine;
+            while ((requestLine = readLine(inputStream)) != null) {
+                int contentLength = 0;
+                String header;
+                while ((header = readLine(inputStream)) != null && !header.isEmpty()) {
+                    int separator = header.indexOf(':');
+                    if (separator != -1 && header.substring(0, separator).trim().equalsIgnoreCase("Content-Length")) {
+                        contentLength = Integer.parseInt(header.substring(separator + 1).trim());
+                    }
+                }
+                for (int i = 0; i < contentLength; i++) {
+                    if (inputStream.read() == -1) {
+                        return;
+                    }
+                }
+
+                this.requests.add(requestLine);
+                String body = this.handler.handle(connection, requestLine);
+                if (body == null) {
+                    return;
+                }
+
+                byte[] content = body.getBytes(StandardCharsets.UTF_8);
+                outputStream.write(("HTTP/1.1 200 OK\r\nContent-Length: " + content.length + "\r\nConnection: keep-alive\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                outputStream.write(content);
+                outputStream.flush();
+            }
+        } catch (Exception ignored) {
+            // the client closed the connection
+        }
+    }
+
+    private static String readLine(InputStream inputStream) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int read;
+        while ((read = inputStream.read()) != -1) {
+            if (read == '\n') {
+                int length = builder.length();
+                if (length > 0 && builder.charAt(length - 1) == '\r') {
+                    builder.setLength(length - 1);
+                }
+                return builder.toString();
+            }
+            builder.append((char) read);
+        }
+
+        return builder.length() == 0 ? null : builder.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        for (Socket socket : this.sockets) {
+            socket.close();
+        }
+    }
+
+    interface Handler {
+
+        // returns the body of the response or null to close the connection without responding
+        @Nullable
+        String handle(int connection, String requestLine) throws Exception;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.pipeline.limit;
+
+import com.github.phantompowered.proxy.api.configuration.Configuration;
+import com.github.phantompowered.proxy.configuration.JsonConfiguration;
+import com.github.phantompowered.proxy.service.BasicServiceRegistry;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.haproxy.HAProxyCommand;
+import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.handler.codec.haproxy.HAProxyProtocolVersion;
+import io.netty.handler.codec.haproxy.HAProxyProxiedProtocol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionRateLimiterTest {
+
+    // the defaults of an unloaded configuration: 40 connections per address and 200 per /24 before the refill kicks in
+    private static final int ADDRESS_BURST = 40;
+    private static final int SUBNET_BURST = 200;
+    // tokens refilled while a flood is running
+    private static final int TOLERANCE = 3;
+
+    private ConnectionRateLimiter limiter;
+
+    @BeforeEach
+    public void setup() {
+        BasicServiceRegistry registry = new BasicServiceRegistry();
+        registry.setProvider(null, Configuration.class, new JsonConfiguration());
+        this.limiter = new ConnectionRateLimiter(registry);
+    }
+
+    @Test
+    public void testFloodFromOneAddress() throws Exception {
+        InetAddress address = InetAddress.getByName("203.0.113.7");
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (this.limiter.tryAcceptConnection(address)) {
+                accepted++;
+            }
+        }
+
+        assertInBurst(ADDRESS_BURST, accepted);
+        assertEquals(accepted, this.limiter.getAcceptedConnections());
+        assertEquals(100 - accepted, this.limiter.getDroppedConnections());
+        assertEquals(0, this.limiter.getDroppedSubnetConnections());
+
+        // other addresses have their own bucket
+        assertTrue(this.limiter.tryAcceptConnection(InetAddress.getByName("203.0.113.8")));
+    }
+
+    @Test
+    public void testFloodFromOneSubnet() throws Exception {
+        int accepted = 0;
+        for (int i = 1; i <= 250; i++) {
+            if (this.limiter.tryAcceptConnection(InetAddress.getByName("198.51.100." + i))) {
+                accepted++;
+            }
+        }
+
+        assertInBurst(SUBNET_BURST, accepted);
+        assertEquals(accepted, this.limiter.getAcceptedConnections());
+        assertEquals(0, this.limiter.getDroppedConnections());
+        assertEquals(250 - accepted, this.limiter.getDroppedSubnetConnections());
+
+        // the neighbouring /24 is not affected
+        assertTrue(this.limiter.tryAcceptConnection(InetAddress.getByName("198.51.101.1")));
+    }
+
+    @Test
+    public void testLocalAddressesAreExempt() throws Exception {
+        InetAddress address = InetAddress.getByName("127.0.0.1");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(this.limiter.tryAcceptConnection(address));
+        }
+
+        assertEquals(100, this.limiter.getAcceptedConnections());
+        assertEquals(0, this.limiter.getDroppedConnections());
+    }
+
+    @Test
+    public void testProxyProtocolFlood() {
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel(new ProxyProtocolLimitHandler(this.limiter));
+            HAProxyMessage message = newProxyMessage("203.0.113.7");
+            channel.writeInbound(message);
+
+            if (channel.isOpen()) {
+                accepted++;
+                // the handler is done after the header and passes it on for the HAProxyMessage handler
+                assertNull(channel.pipeline().get(ProxyProtocolLimitHandler.class));
+                HAProxyMessage forwarded = channel.readInbound();
+                assertSame(message, forwarded);
+                forwarded.release();
+                channel.finishAndReleaseAll();
+            } else {
+                assertNull(channel.readInbound());
+                assertEquals(0, message.refCnt());
+            }
+        }
+
+        assertInBurst(ADDRESS_BURST, accepted);
+        assertEquals(accepted, this.limiter.getAcceptedConnections());
+        assertEquals(100 - accepted, this.limiter.getDroppedConnections());
+    }
+
+    @Test
+    public void testProxyProtocolWithoutHeader() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ProxyProtocolLimitHandler(this.limiter));
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+
+        assertFalse(channel.isOpen());
+        assertNull(channel.readInbound());
+        assertEquals(0, this.limiter.getAcceptedConnections());
+    }
+
+    private static HAProxyMessage newProxyMessage(String sourceAddress) {
+        return new HAProxyMessage(HAProxyProtocolVersion.V1, HAProxyCommand.PROXY, HAProxyProxiedProtocol.TCP4,
+                sourceAddress, "192.0.2.1", 40000, 25565);
+    }
+
+    private static void assertInBurst(int burst, int accepted) {
+        assertTrue(accepted >= burst && accepted <= burst + TOLERANCE, "accepted " + accepted + " of a burst of " + burst);
+    }
+}
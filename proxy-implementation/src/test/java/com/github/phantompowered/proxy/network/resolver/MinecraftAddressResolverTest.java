@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) derrop and derklaro
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.phantompowered.proxy.network.resolver;
+
+import com.github.phantompowered.proxy.network.NetworkUtils;
+import io.netty.channel.EventLoopGroup;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DefaultDnsCnameCache;
+import io.netty.resolver.dns.SingletonDnsServerAddressStreamProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MinecraftAddressResolverTest {
+
+    private static final int TYPE_A = 1;
+    private static final int TYPE_SRV = 33;
+
+    private StubDnsServer dnsServer;
+    private EventLoopGroup eventLoopGroup;
+    private MinecraftAddressResolverGroup resolverGroup;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        this.dnsServer = new StubDnsServer();
+        this.eventLoopGroup = NetworkUtils.newEventLoopGroup(1);
+        this.resolverGroup = new MinecraftAddressResolverGroup(new SingletonDnsServerAddressStreamProvider(this.dnsServer.getAddress()),
+                new DefaultDnsCache(), new DefaultDnsCnameCache(), true);
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        this.resolverGroup.close();
+        this.eventLoopGroup.shutdownGracefully().sync();
+        this.dnsServer.close();
+    }
+
+    @Test
+    public void testSrvRecordWithCompressedTarget() throws Exception {
+        this.dnsServer.srvTtls.put("play.test", 300);
+
+        InetSocketAddress address = this.resolve("play.test", 25565);
+
+        // the record with the lowest priority wins, its target is only a label and a pointer into the question
+        assertEquals(InetAddress.getByName("127.0.0.2"), address.getAddress());
+        assertEquals(25577, address.getPort());
+
+        MinecraftAddressResolver.SrvTarget target = this.getSrvTarget("play.test");
+        assertEquals("node.play.test", target.getHost());
+        assertEquals(25577, target.getPort());
+    }
+
+    @Test
+    public void testSrvIsOnlyUsedForTheDefaultPort() throws Exception {
+        this.dnsServer.srvTtls.put("play.test", 300);
+
+        InetSocketAddress address = this.resolve("node.play.test", 25566);
+
+        assertEquals(InetAddress.getByName("127.0.0.2"), address.getAddress());
+        assertEquals(25566, address.getPort());
+        assertEquals(0, this.dnsServer.getQueries("_minecraft._tcp.node.play.test", TYPE_SRV));
+    }
+
+    @Test
+    public void testMissingSrvIsCachedNegatively() throws Exception {
+        long before = System.currentTimeMillis();
+        for (int i = 0; i < 2; i++) {
+            InetSocketAddress address = this.resolve("plain.test", 25565);
+            assertEquals(InetAddress.getByName("127.0.0.3"), address.getAddress());
+            assertEquals(25565, address.getPort());
+        }
+        long after = System.currentTimeMillis();
+
+        assertEquals(1, this.dnsServer.getQueries("_minecraft._tcp.plain.test", TYPE_SRV));
+
+        MinecraftAddressResolver.SrvTarget target = this.getSrvTarget("plain.test");
+        assertNull(target.getHost());
+        assertExpiration(target, before, after, TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Test
+    public void testSrvTtlIsClamped() throws Exception {
+        this.dnsServer.srvTtls.put("short.test", 5);
+        this.dnsServer.srvTtls.put("long.test", (int) TimeUnit.HOURS.toSeconds(2));
+
+        long before = System.currentTimeMillis();
+        this.resolve("short.test", 25565);
+        this.resolve("long.test", 25565);
+        long after = System.currentTimeMillis();
+
+        assertExpiration(this.getSrvTarget("short.test"), before, after, TimeUnit.SECONDS.toMillis(30));
+        assertExpiration(this.getSrvTarget("long.test"), before, after, TimeUnit.HOURS.toMillis(1));
+    }
+
+    private InetSocketAddress resolve(String host, int port) throws Exception {
+        AddressResolver<InetSocketAddress> resolver = this.resolverGroup.getResolver(this.eventLoopGroup.next());
+        return resolver.resolve(InetSocketAddress.createUnresolved(host, port)).get(5, TimeUnit.SECONDS);
+    }
+
+    private MinecraftAddressResolver.SrvTarget getSrvTarget(String host) {
+        Map<String, MinecraftAddressResolver.SrvTarget> srvCache = this.resolverGroup.getSrvCache();
+        assertNotNull(srvCache);
+
+        MinecraftAddressResolver.SrvTarget target = srvCache.get(host);
+        assertNotNull(target, host);
+        return target;
+    }
+
+    private static void assertExpiration(MinecraftAddressResolver.SrvTarget target, long before, long after, long ttl) {
+        assertTrue(target.getExpiration() >= before + ttl && target.getExpiration() <= after + ttl,
+                "expiration " + (target.getExpiration() - after) + "ms after the lookup, expected " + ttl + "ms");
+    }
+
+    // answers SRV queries for _minecraft._tcp.<host> if a ttl is set for the host, A queries for node.* and plain.test
+    // and everything else with NXDOMAIN
+    private static final class StubDnsServer implements Closeable {
+
+        private final DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        private final Map<String, Integer> srvTtls = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+        private StubDnsServer() throws IOException {
+            Thread thread = new Thread(this::receive, "Stub DNS server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private InetSocketAddress getAddress() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.socket.getLocalPort());
+        }
+
+        private int getQueries(String name, int type) {
+            AtomicInteger count = this.queries.get(name + "/" + type);
+            return count == null ? 0 : count.get();
+        }
+
+        private void receive() {
+            byte[] buffer = new byte[512];
+            while (!this.socket.isClosed()) {
+                try {
+                    DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                    this.socket.receive(packet);
+
+                    byte[] response = this.answer(Arrays.copyOf(packet.getData(), packet.getLength()));
+                    this.socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+                } catch (IOException ignored) {
+                    // closed by the test
+                }
+            }
+        }
+
+        private byte[] answer(byte[] query) throws IOException {
+            StringBuilder builder = new StringBuilder();
+            int offset = 12;
+            while (query[offset] != 0) {
+                int length = query[offset];
+                if (builder.length() > 0) {
+                    builder.append('.');
+                }
+                builder.append(new String(query, offset + 1, length, StandardCharsets.US_ASCII));
+                offset += length + 1;
+            }
+            int type = ((query[offset + 1] & 0xFF) << 8) | (query[offset + 2] & 0xFF);
+            int questionEnd = offset + 5;
+
+            String name = builder.toString().toLowerCase(Locale.ROOT);
+            this.queries.computeIfAbsent(name + "/" + type, key -> new AtomicInteger()).incrementAndGet();
+
+            ByteArrayOutputStream answers = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(answers);
+            int answerCount = 0;
+            boolean exists = true;
+
+            if (name.startsWith("_minecraft._tcp.")) {
+                Integer ttl = this.srvTtls.get(name.substring("_minecraft._tcp.".length()));
+                if (ttl == null) {
+                    exists = false;
+                } else if (type == TYPE_SRV) {
+                    writeSrv(output, ttl, 10, 0, 1, "backup");
+                    writeSrv(output, ttl, 0, 5, 25577, "node");
+                    answerCount = 2;
+                }
+            } else if (name.startsWith("node.") || name.equals("plain.test")) {
+                if (type == TYPE_A) {
+                    writeRecordHeader(output, TYPE_A, 60, 4);
+                    output.write(new byte[]{127, 0, 0, (byte) (name.equals("plain.test") ? 3 : 2)});
+                    answerCount = 1;
+                }
+            } else {
+                exists = false;
+            }
+
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(response);
+            header.write(query, 0, 2);
+            header.writeShort(0x8180 | (exists ? 0 : 3));
+            header.writeShort(1);
+            header.writeShort(answerCount);
+            header.writeShort(0);
+            header.writeShort(0);
+            header.write(query, 12, questionEnd - 12);
+            answers.writeTo(response);
+            return response.toByteArray();
+        }
+
+        // the target is the label followed by a pointer to the host in the question (offset 12 + "_minecraft" + "_tcp")
+        private static void writeSrv(DataOutputStream output, int ttl, int priority, int weight, int port, String label) throws IOException {
+            byte[] labelBytes = label.getBytes(StandardCharsets.US_ASCII);
+            writeRecordHeader(output, TYPE_SRV, ttl, 6 + 1 + labelBytes.length + 2);
+            output.writeShort(priority);
+            output.writeShort(weight);
+            output.writeShort(port);
+            output.writeByte(labelBytes.length);
+            output.write(labelBytes);
+            output.writeShort(0xC000 | (12 + 1 + 10 + 1 + 4));
+        }
+
+        // the name is a pointer to the question
+        private static void writeRecordHeader(DataOutputStream output, int type, int ttl, int length) throws IOException {
+            output.writeShort(0xC000 | 12);
+            output.writeShort(type);
+            output.writeShort(1);
+            output.writeInt(ttl);
+            output.writeShort(length);
+        }
+
+        @Override
+        public void close() {
+            this.socket.close();
+        }
+    }
+}